@@ -0,0 +1,27 @@
+package com.vaadin.guice.benchmarks;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.benchmarks.app.BenchmarkUI;
+import com.vaadin.guice.server.BenchmarkSupport;
+import com.vaadin.guice.server.GuiceVaadinServlet;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+/**
+ * the servlet of the benchmark-application, started without a servlet-container by {@link
+ * BenchmarkSupport}.
+ */
+@PackagesToScan("com.vaadin.guice.benchmarks.app")
+public class BenchmarkServlet extends GuiceVaadinServlet {
+
+    public static BenchmarkSupport start() {
+        return BenchmarkSupport.start(new BenchmarkServlet());
+    }
+
+    /**
+     * creates a {@link BenchmarkUI} and makes session and UI current
+     */
+    public static UI createUI(BenchmarkSupport benchmarkSupport, VaadinSession session) {
+        return benchmarkSupport.createUI(session, BenchmarkUI.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.vaadin.guice.benchmarks;
+
+import com.vaadin.guice.benchmarks.app.ViewOne;
+import com.vaadin.guice.server.BenchmarkSupport;
+import com.vaadin.server.VaadinSession;
+
+import org.crac.CheckpointException;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.crac.RestoreException;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * measures a real checkpoint and restore of a {@link BenchmarkServlet}, which needs a CRaC-enabled
+ * JDK. The servlet is started cold and serves a first request, then a checkpoint is taken and the
+ * JVM exits. After the JVM is restored from the checkpoint, the first request is served again.
+ * <pre>
+ * java -XX:CRaCCheckpointTo=cr -cp target/benchmarks.jar com.vaadin.guice.benchmarks.CheckpointRestoreHarness
+ * java -XX:CRaCRestoreFrom=cr -Dharness.restoreStartedAt=$(date +%s%3N)
+ * </pre>
+ * The 'harness.restoreStartedAt'-property is optional, it is the wall-clock time in milliseconds
+ * the restore was started at, so the time until the first request was served can be reported.
+ */
+public final class CheckpointRestoreHarness {
+
+    private CheckpointRestoreHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        //notified last before the checkpoint and first after the restore, CRaC only references
+        //resources weakly
+        final Timestamps outer = new Timestamps();
+
+        Core.getGlobalContext().register(outer);
+
+        final long coldStartBegin = System.nanoTime();
+
+        final BenchmarkSupport benchmarkSupport = BenchmarkServlet.start();
+
+        final long servletStarted = System.nanoTime();
+
+        final long coldFirstRequest = serveFirstRequest(benchmarkSupport);
+
+        report("cold start: servlet initialization", servletStarted - coldStartBegin);
+        report("cold start: first request", coldFirstRequest);
+        System.out.printf("cold start: ready %d ms after the JVM was started%n", ManagementFactory.getRuntimeMXBean().getUptime());
+
+        //notified first before the checkpoint and last after the restore, when the servlet is ready
+        final Timestamps inner = new Timestamps();
+
+        Core.getGlobalContext().register(inner);
+
+        final long checkpointRequested = System.nanoTime();
+
+        try {
+            Core.checkpointRestore();
+        } catch (CheckpointException | RestoreException | UnsupportedOperationException e) {
+            System.out.println("no checkpoint was taken, run on a CRaC-enabled JDK with -XX:CRaCCheckpointTo=<dir>");
+            e.printStackTrace(System.out);
+            System.exit(1);
+        }
+
+        report("checkpoint: servlet preparation", outer.beforeCheckpoint - inner.beforeCheckpoint);
+        report("checkpoint: all preparation", outer.beforeCheckpoint - checkpointRequested);
+        report("restore: servlet callbacks", inner.afterRestore - outer.afterRestore);
+        report("restore: first request", serveFirstRequest(benchmarkSupport));
+
+        final String restoreStartedAt = System.getProperty("harness.restoreStartedAt");
+
+        if (restoreStartedAt != null) {
+            System.out.printf("restore: ready %d ms after the restore was started%n", System.currentTimeMillis() - Long.parseLong(restoreStartedAt.trim()));
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * a request of a new user, who gets a new session and UI and navigates to a view
+     *
+     * @return the duration in nanoseconds
+     */
+    private static long serveFirstRequest(BenchmarkSupport benchmarkSupport) {
+        final long start = System.nanoTime();
+
+        try {
+            final VaadinSession session = benchmarkSupport.newSession();
+
+            BenchmarkServlet.createUI(benchmarkSupport, session);
+
+            benchmarkSupport.createView(ViewOne.class);
+        } finally {
+            BenchmarkSupport.makeCurrent(null, null);
+        }
+
+        return System.nanoTime() - start;
+    }
+
+    private static void report(String phase, long nanos) {
+        System.out.printf("%s: %.3f ms%n", phase, nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static final class Timestamps implements Resource {
+
+        private volatile long beforeCheckpoint;
+        private volatile long afterRestore;
+
+        @Override
+        public void beforeCheckpoint(Context<? extends Resource> context) {
+            beforeCheckpoint = System.nanoTime();
+        }
+
+        @Override
+        public void afterRestore(Context<? extends Resource> context) {
+            afterRestore = System.nanoTime();
+        }
+    }
+}
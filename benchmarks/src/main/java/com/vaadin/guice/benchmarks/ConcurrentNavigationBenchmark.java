@@ -0,0 +1,61 @@
+package com.vaadin.guice.benchmarks;
+
+import com.vaadin.guice.benchmarks.app.ViewOne;
+import com.vaadin.guice.server.BenchmarkSupport;
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * throughput of view-creation when many users navigate at the same time, every thread being a
+ * user with its own session and UI. Compare the results for 1, 2, 4 ... threads to see how view
+ * creation scales, e.g. with '-t 1' vs. '-t 8'.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ConcurrentNavigationBenchmark {
+
+    private BenchmarkSupport benchmarkSupport;
+
+    @Setup
+    public void setup() {
+        benchmarkSupport = BenchmarkServlet.start();
+    }
+
+    @Benchmark
+    public View navigate(User user) {
+        BenchmarkSupport.makeCurrent(user.session, user.ui);
+        return benchmarkSupport.createView(ViewOne.class);
+    }
+
+    @State(Scope.Thread)
+    public static class User {
+        private VaadinSession session;
+        private UI ui;
+
+        @Setup
+        public void setup(ConcurrentNavigationBenchmark benchmark) {
+            session = benchmark.benchmarkSupport.newSession();
+            ui = BenchmarkServlet.createUI(benchmark.benchmarkSupport, session);
+        }
+    }
+}
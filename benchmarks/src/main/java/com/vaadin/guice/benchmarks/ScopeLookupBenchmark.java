@@ -0,0 +1,126 @@
+package com.vaadin.guice.benchmarks;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.benchmarks.app.BenchmarkUI;
+import com.vaadin.guice.benchmarks.app.ViewOne;
+import com.vaadin.guice.server.BenchmarkSupport;
+import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * lookups of already existing instances in UIScope, ViewScope and VaadinSessionScope, spread over
+ * many sessions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScopeLookupBenchmark {
+
+    @Param({"1", "1000", "10000"})
+    int sessions;
+
+    private VaadinSession[] vaadinSessions;
+    private UI[] uis;
+
+    private Provider<Object> uiScoped;
+    private Provider<Object> viewScoped;
+    private Provider<Object> sessionScoped;
+
+    @Setup
+    public void setup() {
+        final BenchmarkSupport benchmarkSupport = BenchmarkServlet.start();
+
+        uiScoped = benchmarkSupport.uiScoped(Key.get(Object.class), Object::new);
+        viewScoped = benchmarkSupport.viewScoped(Key.get(Object.class), Object::new);
+        sessionScoped = benchmarkSupport.sessionScoped(Key.get(Object.class), Object::new);
+
+        vaadinSessions = new VaadinSession[sessions];
+        uis = new UI[sessions];
+
+        for (int i = 0; i < sessions; i++) {
+            final VaadinSession session = benchmarkSupport.newSession();
+            final UI ui = new BenchmarkUI();
+            final View view = new ViewOne();
+
+            ui.setNavigator(new FixedViewNavigator(view));
+
+            BenchmarkSupport.makeCurrent(session, ui);
+
+            benchmarkSupport.initUIScope(ui, uiScoped::get);
+            benchmarkSupport.initViewScope(view, viewScoped::get);
+
+            sessionScoped.get();
+
+            vaadinSessions[i] = session;
+            uis[i] = ui;
+        }
+    }
+
+    @Benchmark
+    public Object uiScope(Cursor cursor) {
+        cursor.next(this);
+        return uiScoped.get();
+    }
+
+    @Benchmark
+    public Object viewScope(Cursor cursor) {
+        cursor.next(this);
+        return viewScoped.get();
+    }
+
+    @Benchmark
+    public Object vaadinSessionScope(Cursor cursor) {
+        cursor.next(this);
+        return sessionScoped.get();
+    }
+
+    /**
+     * every invocation is done in the next session, like requests of different users would be
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        void next(ScopeLookupBenchmark benchmark) {
+            if (++index == benchmark.sessions) {
+                index = 0;
+            }
+
+            BenchmarkSupport.makeCurrent(benchmark.vaadinSessions[index], benchmark.uis[index]);
+        }
+    }
+
+    static class FixedViewNavigator extends Navigator {
+        private final View view;
+
+        FixedViewNavigator(View view) {
+            this.view = view;
+        }
+
+        @Override
+        public View getCurrentView() {
+            return view;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.vaadin.guice.benchmarks;
+
+import com.vaadin.guice.server.BenchmarkSupport;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * creation of UIs as done by GuiceUIProvider#createInstance for every new browser-tab, with
+ * every thread creating UIs in its own set of sessions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UICreationBenchmark {
+
+    private BenchmarkSupport benchmarkSupport;
+
+    @Setup
+    public void setup() {
+        benchmarkSupport = BenchmarkServlet.start();
+    }
+
+    @Benchmark
+    public UI createInstance(Sessions sessions) {
+        return BenchmarkServlet.createUI(benchmarkSupport, sessions.next());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public UI createInstanceConcurrently(Sessions sessions) {
+        return BenchmarkServlet.createUI(benchmarkSupport, sessions.next());
+    }
+
+    @State(Scope.Thread)
+    public static class Sessions {
+        @Param({"1000"})
+        int sessionsPerThread;
+
+        private VaadinSession[] sessions;
+        private int index;
+
+        @Setup
+        public void setup(UICreationBenchmark benchmark) {
+            sessions = new VaadinSession[sessionsPerThread];
+
+            for (int i = 0; i < sessions.length; i++) {
+                sessions[i] = benchmark.benchmarkSupport.newSession();
+            }
+        }
+
+        VaadinSession next() {
+            if (++index == sessions.length) {
+                index = 0;
+            }
+
+            return sessions[index];
+        }
+    }
+}
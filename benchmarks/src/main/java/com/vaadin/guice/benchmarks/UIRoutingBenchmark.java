@@ -0,0 +1,76 @@
+package com.vaadin.guice.benchmarks;
+
+import com.vaadin.guice.server.BenchmarkSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * UI-selection by request-path as done by GuiceUIProvider#getUIClass, the PathTrie against the
+ * substring-, toLowerCase- and HashMap-based lookup it replaced. Run with '-prof gc' to compare
+ * allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UIRoutingBenchmark {
+
+    private static final String[] ROUTES = {
+            "", "/admin", "/admin/users", "/admin/roles", "/shop", "/shop/cart", "/shop/checkout",
+            "/reports", "/reports/daily", "/reports/monthly", "/settings", "/help", "/login", "/logout"
+    };
+
+    @Param({"/", "/Shop/Cart/", "/reports/daily!state", "/unknown/path"})
+    String pathInfo;
+
+    private final Map<String, Class<?>> legacyRoutes = new HashMap<>();
+    private Function<String, Class<?>> routes;
+
+    @Setup
+    public void setup() {
+        for (String route : ROUTES) {
+            legacyRoutes.put(route, Object.class);
+        }
+
+        routes = BenchmarkSupport.uiRoutes(legacyRoutes);
+    }
+
+    @Benchmark
+    public Class<?> legacy() {
+        return legacyRoutes.get(legacyGetPath(pathInfo));
+    }
+
+    @Benchmark
+    public Class<?> pathTrie() {
+        return routes.apply(pathInfo);
+    }
+
+    private static String legacyGetPath(String path) {
+        final int indexOfBang = path.indexOf('!');
+
+        if (indexOfBang > -1) {
+            path = path.substring(0, indexOfBang);
+        } else if (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+
+        return path.toLowerCase();
+    }
+}
@@ -0,0 +1,71 @@
+package com.vaadin.guice.benchmarks;
+
+import com.vaadin.guice.server.BenchmarkSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * resolution of navigation-states to view-names as done by GuiceViewProvider#getViewName, the
+ * PathTrie against the substring- and toLowerCase-based lookup it replaced. Run with '-prof gc' to compare allocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ViewNameBenchmark {
+
+    private static final String[] VIEW_NAMES = {
+            "", "dashboard", "orders", "customers", "products", "invoices", "reports", "settings",
+            "profile", "help"
+    };
+
+    @Param({"", "orders", "Orders/4711/edit", "unknown/parameters"})
+    String navigationState;
+
+    private final Map<String, Class<?>> legacyViewMap = new HashMap<>();
+    private Function<String, String> viewNames;
+
+    @Setup
+    public void setup() {
+        for (String viewName : VIEW_NAMES) {
+            legacyViewMap.put(viewName, Object.class);
+        }
+
+        viewNames = BenchmarkSupport.viewNames(legacyViewMap.keySet());
+    }
+
+    @Benchmark
+    public String legacy() {
+        final int indexOfDelimiter = navigationState.indexOf('/');
+
+        String viewName = indexOfDelimiter != -1
+                ? navigationState.substring(0, indexOfDelimiter)
+                : navigationState;
+
+        viewName = viewName.toLowerCase();
+
+        return legacyViewMap.containsKey(viewName) ? viewName : null;
+    }
+
+    @Benchmark
+    public String pathTrie() {
+        return viewNames.apply(navigationState);
+    }
+}
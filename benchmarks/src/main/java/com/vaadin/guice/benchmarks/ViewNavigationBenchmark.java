@@ -0,0 +1,91 @@
+package com.vaadin.guice.benchmarks;
+
+import com.vaadin.guice.benchmarks.app.ViewTwo;
+import com.vaadin.guice.server.BenchmarkSupport;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewProvider;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ViewProvider#getViewName(String)} and {@link ViewProvider#getView(String)} of the
+ * GuiceViewProvider as called by the navigator on every navigation, spread over many sessions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ViewNavigationBenchmark {
+
+    @Param({"1", "1000", "10000"})
+    int sessions;
+
+    private BenchmarkSupport benchmarkSupport;
+    private ViewProvider viewProvider;
+    private VaadinSession[] vaadinSessions;
+    private UI[] uis;
+
+    @Setup
+    public void setup() {
+        benchmarkSupport = BenchmarkServlet.start();
+        viewProvider = benchmarkSupport.getViewProvider();
+
+        vaadinSessions = new VaadinSession[sessions];
+        uis = new UI[sessions];
+
+        for (int i = 0; i < sessions; i++) {
+            vaadinSessions[i] = benchmarkSupport.newSession();
+            uis[i] = BenchmarkServlet.createUI(benchmarkSupport, vaadinSessions[i]);
+
+            //fill the view-cache
+            viewProvider.getView("two");
+        }
+    }
+
+    @Benchmark
+    public String getViewName(Cursor cursor) {
+        cursor.next(this);
+        return viewProvider.getViewName("Two/some/parameters");
+    }
+
+    @Benchmark
+    public View getCachedView(Cursor cursor) {
+        cursor.next(this);
+        return viewProvider.getView("two");
+    }
+
+    @Benchmark
+    public View createView(Cursor cursor) {
+        cursor.next(this);
+        return benchmarkSupport.createView(ViewTwo.class);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        void next(ViewNavigationBenchmark benchmark) {
+            if (++index == benchmark.sessions) {
+                index = 0;
+            }
+
+            BenchmarkSupport.makeCurrent(benchmark.vaadinSessions[index], benchmark.uis[index]);
+        }
+    }
+}
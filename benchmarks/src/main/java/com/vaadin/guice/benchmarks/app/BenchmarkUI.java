@@ -0,0 +1,21 @@
+package com.vaadin.guice.benchmarks.app;
+
+import com.google.inject.Inject;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+@GuiceUI(viewContainer = BenchmarkViewContainer.class)
+public class BenchmarkUI extends UI {
+
+    @Inject
+    private UIScopedService uiScopedService;
+
+    @Inject
+    private SessionScopedService sessionScopedService;
+
+    @Override
+    protected void init(VaadinRequest request) {
+    }
+}
@@ -0,0 +1,8 @@
+package com.vaadin.guice.benchmarks.app;
+
+import com.vaadin.guice.annotation.UIScope;
+import com.vaadin.ui.Panel;
+
+@UIScope
+public class BenchmarkViewContainer extends Panel {
+}
@@ -0,0 +1,7 @@
+package com.vaadin.guice.benchmarks.app;
+
+import com.vaadin.guice.annotation.UIScope;
+
+@UIScope
+public class UIScopedService {
+}
@@ -0,0 +1,7 @@
+package com.vaadin.guice.benchmarks.app;
+
+import com.vaadin.guice.annotation.ViewScope;
+
+@ViewScope
+public class ViewScopedService {
+}
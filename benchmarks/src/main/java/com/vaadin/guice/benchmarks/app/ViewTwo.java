@@ -0,0 +1,22 @@
+package com.vaadin.guice.benchmarks.app;
+
+import com.google.inject.Inject;
+
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.ui.CustomComponent;
+
+@GuiceView("two")
+public class ViewTwo extends CustomComponent implements View {
+
+    @Inject
+    private ViewScopedService viewScopedService;
+
+    @Inject
+    private UIScopedService uiScopedService;
+
+    @Override
+    public void enter(ViewChangeEvent event) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.vaadin.guice.annotation;
+
+import com.vaadin.guice.server.FileSessionScopeStorage;
+import com.vaadin.guice.server.SessionScopeStorage;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * If a {@link com.vaadin.guice.server.GuiceVaadinServlet} is annotated with
+ * ExternalizeIdleSessions, the instances in {@link VaadinSessionScope} of sessions that did not
+ * receive a request for {@link #idleTimeout()} are serialized to a {@link SessionScopeStorage} and
+ * removed from the heap. They are read back the next time one of them is requested, with their
+ * transient members annotated with {@link com.google.inject.Inject} injected again.
+ * <pre>
+ * &#064;ExternalizeIdleSessions(idleTimeout = 10, idleTimeoutUnit = TimeUnit.MINUTES)
+ * &#064;PackagesToScan("org.mycompany.ui")
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ * Sessions are only externalized while their lock is free, once all of their UIs are detached and
+ * if all of their session-scoped instances are serializable. Since rehydration creates copies of
+ * the instances, they must not be referenced from outside the session, like from singletons. The
+ * storage is created by the injector, so it can be bound in a module to configure it.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ExternalizeIdleSessions {
+
+    /**
+     * the time since the last request after which a session's scope is externalized
+     */
+    long idleTimeout() default 30;
+
+    /**
+     * the unit of {@link #idleTimeout()}
+     */
+    TimeUnit idleTimeoutUnit() default TimeUnit.MINUTES;
+
+    /**
+     * the storage the scopes of idle sessions are written to, files in a temporary directory by
+     * default
+     */
+    Class<? extends SessionScopeStorage> storage() default FileSessionScopeStorage.class;
+}
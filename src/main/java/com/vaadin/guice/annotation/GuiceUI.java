@@ -42,7 +42,9 @@ public @interface GuiceUI {
      * The path to which the UI will be bound. For example, a value of {@code "/myUI"} would be
      * mapped to {@code "/myContextPath/myVaadinServletPath/myUI"}. An empty string (default) will
      * map the UI to the root of the servlet. Within a web application, there must not be multiple
-     * UI sub classes with the same path.
+     * UI sub classes with the same path. A path ending with {@code "/*"}, like {@code "/admin/*"},
+     * matches the path itself and all paths below it, unless a more specific path matches. Paths
+     * are case-insensitive.
      */
     String path() default "";
 
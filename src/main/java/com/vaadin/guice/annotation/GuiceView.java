@@ -30,7 +30,9 @@ public @interface GuiceView {
 
     /**
      * The name of the view. This is the name that the view is registered with when calling {@link
-     * com.vaadin.navigator.Navigator#addView(String, View)}.
+     * com.vaadin.navigator.Navigator#addView(String, View)}. View-names are case-insensitive and
+     * may be hierarchical, like 'orders/detail'. A navigation-state is resolved to the longest
+     * view-name it starts with, the rest of it is passed to the view as parameters.
      */
     String value();
 }
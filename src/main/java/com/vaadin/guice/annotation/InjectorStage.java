@@ -0,0 +1,28 @@
+package com.vaadin.guice.annotation;
+
+import com.google.inject.Stage;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Sets the {@link Stage} the injector of a {@link com.vaadin.guice.server.GuiceVaadinServlet} is
+ * created in. Can also be set with the 'injectorStage' init-parameter of the servlet, but not
+ * both. If neither is present, {@link Stage#DEVELOPMENT} is used.
+ * <pre>
+ * &#064;InjectorStage(Stage.PRODUCTION)
+ * &#064;PackagesToScan("com.mycompany")
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ *
+ * @see com.google.inject.Guice#createInjector(Stage, com.google.inject.Module...)
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface InjectorStage {
+
+    Stage value();
+}
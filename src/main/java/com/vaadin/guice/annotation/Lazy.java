@@ -0,0 +1,32 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Defers the construction of classes that would otherwise be created eagerly with every {@link
+ * GuiceUI}, so the UI is displayed sooner.
+ * <ul>
+ * <li>{@link com.vaadin.server.ErrorHandler}s configured in {@link GuiceUI#errorHandler()} are
+ * created when the first error occurs</li>
+ * <li>{@link com.vaadin.navigator.ViewChangeListener}s are created on the first navigation</li>
+ * <li>{@link Controller}s of UIs are created after the request that created the UI, via {@link
+ * com.vaadin.ui.UI#access(Runnable)}</li>
+ * </ul>
+ * Lazily created instances are still created in the scopes of the UI they belong to, regardless
+ * of the thread or request they are created in. The viewContainer and the content of a UI are
+ * needed to display the UI and are therefore never created lazily.
+ * <pre>
+ * &#064;Lazy
+ * &#064;Controller(MyUI.class)
+ * public class AuditController {
+ *     // ...
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface Lazy {
+}
@@ -0,0 +1,18 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * If a {@link com.vaadin.guice.server.GuiceVaadinServlet} is annotated with ParallelStartup,
+ * {@link com.google.inject.Module}s are created and scanned classes are sorted in parallel during
+ * startup. This can speed up the startup of applications with many modules, but requires the
+ * constructors of all modules to be thread-safe. Can also be enabled with the 'parallelStartup'
+ * init-parameter of the servlet set to true.
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface ParallelStartup {
+}
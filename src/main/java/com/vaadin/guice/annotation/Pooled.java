@@ -0,0 +1,46 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Views annotated with Pooled are not discarded when they are evicted from the view-cache, see
+ * {@link ViewCaching}, but reset and kept in a pool of at most {@link #maxSize()} instances per
+ * VaadinSession and view-class. The next navigation to a view of that class in the same session
+ * takes an instance from the pool instead of creating a new one. This is meant for views that are
+ * expensive to build but hold no state of their own, typically together with {@link
+ * ViewCaching.Mode#NONE}. Pooled views need to implement {@link
+ * com.vaadin.guice.server.PooledView}.
+ *
+ * When a pooled view is reused, it's fields and methods annotated with Inject are injected again
+ * within a new {@link ViewScope} and the current UI's {@link UIScope}, so view- and UI-scoped
+ * dependencies are to be injected into fields rather than the constructor. Views are only reused
+ * within the session they were created in, as components belong to one session.
+ * <pre>
+ * &#064;GuiceView("search")
+ * &#064;ViewCaching(ViewCaching.Mode.NONE)
+ * &#064;Pooled(maxSize = 2)
+ * public class SearchView extends VerticalLayout implements PooledView {
+ *
+ *     &#064;Inject
+ *     private SearchPresenter presenter; //view-scoped
+ *
+ *     public void reset() {
+ *         searchField.clear();
+ *     }
+ * }
+ * </pre>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Pooled {
+
+    /**
+     * the maximum number of idle instances that are kept per VaadinSession
+     */
+    int maxSize() default 4;
+}
@@ -0,0 +1,30 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Methods annotated with PreDestroy are called when the scope an object lives in ends, so the
+ * object can release resources it holds. This applies to objects in {@link UIScope}, {@link
+ * ViewScope} and {@link VaadinSessionScope}, which end when the {@link com.vaadin.ui.UI} is
+ * detached, the {@link com.vaadin.navigator.View} is discarded or the {@link
+ * com.vaadin.server.VaadinSession} is destroyed. Annotated methods must not have parameters.
+ * <pre>
+ * &#064;UIScope
+ * public class MyResourceHolder {
+ *
+ *     &#064;PreDestroy
+ *     void close(){
+ *         //release resources
+ *     }
+ * }
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PreDestroy {
+}
@@ -0,0 +1,48 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets views that are likely to be navigated to next be built in the background, so the
+ * navigation finds them in the view-cache. Put on a {@link GuiceUI}-class, the views listed in
+ * {@link #value()} are prefetched after every navigation until they exist. With {@link #learn()},
+ * the views that most often followed the current view in the past are prefetched as well.
+ * Views are constructed on a background-thread within the {@link
+ * com.vaadin.guice.server.ScopeContext} of the request that navigated and within their own {@link
+ * ViewScope}, but without the session being locked, and are put into the view-cache via {@link
+ * com.vaadin.ui.UI#access(Runnable)}. A navigation to a view that is being prefetched waits for
+ * it instead of constructing it again. Views with {@link ViewCaching.Mode#NONE} are never
+ * prefetched and a UI's {@link ViewCaching#maxSize()} is never exceeded by prefetching.
+ * <pre>
+ * &#064;GuiceUI
+ * &#064;PrefetchViews(value = "dashboard", learn = true)
+ * public class MyUI extends UI {
+ *     // ...
+ * }
+ * </pre>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PrefetchViews {
+
+    /**
+     * the names of views to be prefetched
+     */
+    String[] value() default {};
+
+    /**
+     * if true, the views that most often followed the current view in all UIs of this class are
+     * prefetched
+     */
+    boolean learn() default false;
+
+    /**
+     * the maximum number of learned views to be prefetched after a navigation
+     */
+    int maxLearned() default 1;
+}
@@ -0,0 +1,33 @@
+package com.vaadin.guice.annotation;
+
+import com.vaadin.guice.server.ProvisioningTimingModule;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Installs a {@link ProvisioningTimingModule} when put on a {@link
+ * com.vaadin.guice.server.GuiceVaadinServlet}, so the time it takes to provision instances is
+ * measured per {@link com.google.inject.Key} and per scope. The results are available by injecting
+ * {@link com.vaadin.guice.server.ProvisioningStatistics} and via JMX as
+ * 'com.vaadin.guice:type=ProvisioningStatistics,name=&lt;servlet-name&gt;'.
+ * <pre>
+ * &#064;ProvisioningTiming(packages = "com.mycompany.ui")
+ * &#064;PackagesToScan("com.mycompany")
+ * public class MyServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+@Import(ProvisioningTimingModule.class)
+public @interface ProvisioningTiming {
+
+    /**
+     * only bindings whose type is in one of these packages or their sub-packages are measured. If
+     * empty, all bindings are measured.
+     */
+    String[] packages() default {};
+}
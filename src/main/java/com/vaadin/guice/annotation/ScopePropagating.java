@@ -0,0 +1,46 @@
+package com.vaadin.guice.annotation;
+
+import com.google.inject.BindingAnnotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * this annotation is to be attached to a field or constructor-parameter of type {@link
+ * java.util.concurrent.ExecutorService} that is being injected by guice. The injected executor
+ * runs every task in the VaadinSession, UI and View of the thread that submitted it, so {@link
+ * UIScope}, {@link ViewScope} and {@link VaadinSessionScope}d objects can be injected and looked up
+ * in background-tasks. The session is not locked while the task runs, so changes to components
+ * still need to be done via {@link com.vaadin.ui.UI#access(Runnable)}.
+ *
+ * <pre>
+ * &#064;UIScope
+ * public class ReportPresenter {
+ *
+ *    &#064;Inject
+ *    &#064;ScopePropagating
+ *    private ExecutorService executorService;
+ *
+ *    &#064;Inject
+ *    private Provider&lt;ReportView&gt; reportView;
+ *
+ *    void generate() {
+ *        executorService.submit(() -&gt; {
+ *            Report report = createReport();
+ *
+ *            reportView.get().getUI().access(() -&gt; reportView.get().show(report));
+ *        });
+ *    }
+ * }
+ * </pre>
+ *
+ * @see com.vaadin.guice.server.ScopeContext
+ */
+@Target({ElementType.FIELD, ElementType.PARAMETER})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+@BindingAnnotation
+public @interface ScopePropagating {
+}
@@ -0,0 +1,44 @@
+package com.vaadin.guice.annotation;
+
+import com.google.inject.Module;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * If several {@link com.vaadin.guice.server.GuiceVaadinServlet}s are deployed in the same
+ * web-application, the modules listed in SharedBindings are installed in a parent-injector that is
+ * created only once per ServletContext and shared by all servlets annotated with the same set of
+ * modules. Every servlet creates a child-injector of it with it's scopes and the modules found in
+ * it's packagesToScan, so singletons like connection-pools or caches bound in the shared modules
+ * exist only once. Shared modules are not installed in the child-injector, even if they are found
+ * in packagesToScan. The parent-injector is created with the injector-stage of the servlet that is
+ * initialized first.
+ *
+ * <pre>
+ * &#064;SharedBindings({PersistenceModule.class, CacheModule.class})
+ * &#064;PackagesToScan("org.mycompany.admin")
+ * public class AdminServlet extends GuiceVaadinServlet {
+ * }
+ *
+ * &#064;SharedBindings({PersistenceModule.class, CacheModule.class})
+ * &#064;PackagesToScan("org.mycompany.shop")
+ * public class ShopServlet extends GuiceVaadinServlet {
+ * }
+ * </pre>
+ *
+ * Bindings of the shared modules must not depend on bindings of the servlets, and classes that
+ * are created just-in-time and only depend on shared bindings are created by the parent-injector.
+ * UIs, Views and controllers are always bound in the child-injector.
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface SharedBindings {
+
+    /**
+     * the modules to be installed in the shared parent-injector
+     */
+    Class<? extends Module>[] value();
+}
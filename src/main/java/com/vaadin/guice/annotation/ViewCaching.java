@@ -0,0 +1,74 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Controls how long {@link com.vaadin.navigator.View}s are kept after they were navigated to. Put
+ * on a {@link GuiceUI}-class, it applies to all views of that UI, put on a {@link GuiceView}-class
+ * it applies to that view only and takes precedence over the UI's setting. If no ViewCaching is
+ * present, every view is kept as long as the UI exists. Evicting a view also ends its {@link
+ * ViewScope}.
+ * <pre>
+ * &#064;GuiceUI
+ * &#064;ViewCaching(value = ViewCaching.Mode.LRU, maxSize = 5)
+ * public class MyUI extends UI {
+ *     // ...
+ * }
+ *
+ * &#064;GuiceView("report")
+ * &#064;ViewCaching(ViewCaching.Mode.NONE)
+ * public class HeavyReportView extends CustomComponent implements View {
+ *     // ...
+ * }
+ * </pre>
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ViewCaching {
+
+    /**
+     * the caching-mode
+     */
+    Mode value() default Mode.ALL;
+
+    /**
+     * the maximum number of views that are kept per UI in {@link Mode#LRU}
+     */
+    int maxSize() default 16;
+
+    /**
+     * the time a view is kept after it was last navigated to in {@link Mode#IDLE}
+     */
+    long idleTimeout() default 30;
+
+    /**
+     * the unit of {@link #idleTimeout()}
+     */
+    TimeUnit idleTimeoutUnit() default TimeUnit.MINUTES;
+
+    enum Mode {
+        /**
+         * views are created on every navigation and discarded when another view is navigated to
+         */
+        NONE,
+        /**
+         * views are kept as long as the UI exists
+         */
+        ALL,
+        /**
+         * at most {@link #maxSize()} views are kept per UI, the least recently used view is
+         * evicted first. Can only be used on UIs.
+         */
+        LRU,
+        /**
+         * views are evicted after not being navigated to for {@link #idleTimeout()}
+         */
+        IDLE
+    }
+}
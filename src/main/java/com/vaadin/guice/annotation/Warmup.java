@@ -0,0 +1,29 @@
+package com.vaadin.guice.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * If a {@link com.vaadin.guice.server.GuiceVaadinServlet} is annotated with Warmup, all bindings
+ * reachable from the scanned UIs and Views are resolved during startup, which validates the
+ * object-graph, and all singletons among them are created. With {@link #rounds()} greater than
+ * zero, every UI and every View navigable from it is created that many times in a synthetic
+ * VaadinSession that is not stored anywhere, so the JIT-compiler has seen the injection-paths
+ * before the first request. UI-, View- and VaadinSession-scoped objects created this way are
+ * destroyed right after each round. Can also be enabled with the 'warmup' init-parameter of the
+ * servlet, set either to true or to the number of rounds.
+ *
+ * The time spent is reported as the 'warmup' startup-phase, the results are logged and
+ * available in {@link com.vaadin.guice.server.GuiceVaadinMetricsMXBean#getWarmupResults()}.
+ */
+@Target({java.lang.annotation.ElementType.TYPE})
+@Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
+@Documented
+public @interface Warmup {
+
+    /**
+     * the number of synthetic rounds of UI- and View-creation
+     */
+    int rounds() default 0;
+}
@@ -0,0 +1,428 @@
+package com.vaadin.guice.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation-processor that writes an index of all classes that {@link
+ * com.vaadin.guice.server.GuiceVaadinServlet} would otherwise have to find by scanning the
+ * classpath at startup. The index is written to {@value #INDEX_LOCATION} and is picked up
+ * automatically by the servlet, so no classpath-scanning is needed in applications that have the
+ * processor on their annotation-processor path:
+ * <pre>
+ * &lt;plugin&gt;
+ *     &lt;artifactId&gt;maven-compiler-plugin&lt;/artifactId&gt;
+ *     &lt;configuration&gt;
+ *         &lt;annotationProcessors&gt;
+ *             &lt;annotationProcessor&gt;com.vaadin.guice.processor.ClassIndexProcessor&lt;/annotationProcessor&gt;
+ *         &lt;/annotationProcessors&gt;
+ *     &lt;/configuration&gt;
+ * &lt;/plugin&gt;
+ * </pre>
+ * Every line of the index has the form {@code supertype=class1,class2,...}, where supertype is
+ * either the name of a type the listed classes are assignable to or the name of an annotation
+ * they are annotated with. Only concrete classes are indexed.
+ * <p>
+ * For every {@link com.google.inject.Module} with a constructor the servlet can call, a {@link
+ * com.vaadin.guice.server.ModuleFactory} is generated next to it and registered in {@value
+ * #MODULE_FACTORY_SERVICES_LOCATION}, so the module is created without reflection at startup.
+ */
+@SupportedAnnotationTypes("*")
+public class ClassIndexProcessor extends AbstractProcessor {
+
+    /**
+     * the classpath-resource the index is written to
+     */
+    public static final String INDEX_LOCATION = "META-INF/vaadin-guice/class-index.properties";
+
+    static final String MODULE_FACTORY_SERVICES_LOCATION = "META-INF/services/com.vaadin.guice.server.ModuleFactory";
+
+    private static final String MODULE_FACTORY = "com.vaadin.guice.server.ModuleFactory";
+
+    static final List<String> INDEXED_SUPERTYPES = Arrays.asList(
+            "com.google.inject.Module",
+            "com.vaadin.ui.UI",
+            "com.vaadin.navigator.View",
+            "com.vaadin.navigator.ViewChangeListener",
+            "com.vaadin.server.BootstrapListener",
+            "com.vaadin.server.VaadinServiceInitListener",
+            "com.vaadin.server.RequestHandler",
+            "com.vaadin.server.SessionInitListener",
+            "com.vaadin.server.SessionDestroyListener",
+            "com.vaadin.server.ServiceDestroyListener",
+            "com.vaadin.server.communication.UidlRequestHandler",
+            "com.vaadin.guice.server.MetricsListener"
+    );
+
+    static final List<String> INDEXED_ANNOTATIONS = Arrays.asList(
+            "com.vaadin.guice.annotation.Controller"
+    );
+
+    private final Map<String, Set<String>> index = new TreeMap<>();
+    private final Set<String> moduleFactories = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            writeModuleFactoryServices();
+        } else {
+            for (Element element : roundEnv.getRootElements()) {
+                collect(element);
+            }
+        }
+
+        //other processors may be interested in the same annotations
+        return false;
+    }
+
+    private void collect(Element element) {
+        if (!element.getKind().isClass() && !element.getKind().isInterface()) {
+            return;
+        }
+
+        TypeElement typeElement = (TypeElement) element;
+
+        if (typeElement.getKind() == ElementKind.CLASS && !typeElement.getModifiers().contains(Modifier.ABSTRACT)) {
+            final String className = processingEnv.getElementUtils().getBinaryName(typeElement).toString();
+
+            final TypeMirror type = processingEnv.getTypeUtils().erasure(typeElement.asType());
+
+            for (String supertypeName : INDEXED_SUPERTYPES) {
+                TypeElement supertype = processingEnv.getElementUtils().getTypeElement(supertypeName);
+
+                //not on the classpath of the compiled project, so nothing can implement it
+                if (supertype == null) {
+                    continue;
+                }
+
+                if (processingEnv.getTypeUtils().isAssignable(type, processingEnv.getTypeUtils().erasure(supertype.asType()))) {
+                    index.computeIfAbsent(supertypeName, s -> new TreeSet<>()).add(className);
+
+                    if (supertypeName.equals("com.google.inject.Module")) {
+                        generateModuleFactory(typeElement);
+                    }
+                }
+            }
+
+            for (String annotationName : INDEXED_ANNOTATIONS) {
+                boolean annotated = typeElement
+                        .getAnnotationMirrors()
+                        .stream()
+                        .anyMatch(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotationName));
+
+                if (annotated) {
+                    index.computeIfAbsent(annotationName, s -> new TreeSet<>()).add(className);
+                }
+            }
+        }
+
+        for (Element enclosed : typeElement.getEnclosedElements()) {
+            collect(enclosed);
+        }
+    }
+
+    /*
+     * mirrors ModuleFactories#createReflectively: the first constructor whose parameters are all
+     * either Reflections, guice's Provider (of the Injector) or the annotation the module is imported
+     * with is called. Constructors taking an annotation are only eligible if the module is imported
+     * with that annotation, the first one without an annotation-parameter ends the search. No
+     * factory is generated for modules with a private constructor that could be chosen.
+     */
+    private void generateModuleFactory(TypeElement moduleElement) {
+        if (processingEnv.getElementUtils().getTypeElement(MODULE_FACTORY) == null || !isAccessibleFromPackage(moduleElement)) {
+            return;
+        }
+
+        final String moduleName = moduleElement.getQualifiedName().toString();
+
+        List<String> branches = new ArrayList<>();
+
+        boolean unconditional = false;
+
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(moduleElement.getEnclosedElements())) {
+            List<String> conditions = new ArrayList<>();
+            List<String> arguments = new ArrayList<>();
+
+            for (VariableElement parameter : constructor.getParameters()) {
+                final String argument = argumentFor(parameter.asType(), conditions);
+
+                if (argument == null) {
+                    arguments = null;
+                    break;
+                }
+
+                arguments.add(argument);
+            }
+
+            if (arguments == null) {
+                continue;
+            }
+
+            //the servlet may call it reflectively, which the factory can not, so it is left to the servlet
+            if (constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return;
+            }
+
+            final String creation = "return new " + moduleName + "(" + String.join(", ", arguments) + ");";
+
+            if (conditions.isEmpty()) {
+                branches.add("        " + creation + "\n");
+                unconditional = true;
+                break;
+            }
+
+            branches.add("        if (" + String.join(" && ", conditions) + ") {\n            " + creation + "\n        }\n");
+        }
+
+        if (branches.isEmpty()) {
+            return;
+        }
+
+        final PackageElement packageElement = processingEnv.getElementUtils().getPackageOf(moduleElement);
+        final String packageName = packageElement.getQualifiedName().toString();
+        final String factoryName = moduleName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1).replace('.', '_') + "_ModuleFactory";
+
+        StringBuilder source = new StringBuilder();
+
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+
+        source
+                .append("/**\n * generated by ").append(ClassIndexProcessor.class.getName()).append(", do not edit\n */\n")
+                .append("public final class ").append(factoryName).append(" implements ").append(MODULE_FACTORY).append(" {\n\n")
+                .append("    @Override\n")
+                .append("    public Class<? extends com.google.inject.Module> getModuleClass() {\n")
+                .append("        return ").append(moduleName).append(".class;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("    public com.google.inject.Module create(java.util.function.Supplier<org.reflections.Reflections> reflections, ")
+                .append("com.google.inject.Provider<com.google.inject.Injector> injectorProvider, java.lang.annotation.Annotation annotation) {\n");
+
+        branches.forEach(source::append);
+
+        if (!unconditional) {
+            source.append("        throw new IllegalStateException(\"no suitable constructor found for \" + ").append(moduleName).append(".class);\n");
+        }
+
+        source.append("    }\n}\n");
+
+        final String factoryQualifiedName = packageName.isEmpty() ? factoryName : packageName + "." + factoryName;
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(factoryQualifiedName, moduleElement).openWriter()) {
+            writer.write(source.toString());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unable to write " + factoryQualifiedName + ": " + e, moduleElement);
+            return;
+        }
+
+        moduleFactories.add(factoryQualifiedName);
+    }
+
+    /**
+     * @return the expression passed for a constructor-parameter of the given type, or null if the
+     * servlet can not provide it
+     */
+    private String argumentFor(TypeMirror parameterType, List<String> conditions) {
+        if (parameterType.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+
+        final TypeElement parameterElement = (TypeElement) ((DeclaredType) parameterType).asElement();
+        final String parameterName = parameterElement.getQualifiedName().toString();
+
+        switch (parameterName) {
+            case "org.reflections.Reflections":
+                return "reflections.get()";
+            case "com.google.inject.Provider":
+                return "(com.google.inject.Provider) injectorProvider";
+            default:
+                if (parameterElement.getKind() != ElementKind.ANNOTATION_TYPE) {
+                    return null;
+                }
+
+                conditions.add("annotation instanceof " + parameterName);
+
+                return "(" + parameterName + ") annotation";
+        }
+    }
+
+    private static boolean isAccessibleFromPackage(TypeElement typeElement) {
+        for (Element element = typeElement; element instanceof TypeElement; element = element.getEnclosingElement()) {
+            if (element.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+
+            //inner classes need an instance of their enclosing class
+            if (((TypeElement) element).getNestingKind() == NestingKind.MEMBER && !element.getModifiers().contains(Modifier.STATIC)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void writeModuleFactoryServices() {
+        mergePreviousModuleFactories();
+
+        if (moduleFactories.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", MODULE_FACTORY_SERVICES_LOCATION);
+
+            try (Writer writer = resource.openWriter()) {
+                for (String moduleFactory : moduleFactories) {
+                    writer.write(moduleFactory);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unable to write " + MODULE_FACTORY_SERVICES_LOCATION + ": " + e);
+        }
+    }
+
+    private void mergePreviousModuleFactories() {
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", MODULE_FACTORY_SERVICES_LOCATION);
+
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+
+                    if (!line.isEmpty() && processingEnv.getElementUtils().getTypeElement(line) != null) {
+                        moduleFactories.add(line);
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            //no previous services-file
+        }
+    }
+
+    private void writeIndex() {
+        mergePreviousIndex();
+
+        if (index.isEmpty()) {
+            return;
+        }
+
+        try {
+            FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+            try (Writer writer = resource.openWriter()) {
+                for (Map.Entry<String, Set<String>> entry : index.entrySet()) {
+                    writer.write(entry.getKey());
+                    writer.write('=');
+                    writer.write(String.join(",", entry.getValue()));
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "unable to write " + INDEX_LOCATION + ": " + e);
+        }
+    }
+
+    /*
+     * incremental compilation only hands the changed classes to the processor, so entries from
+     * a previous run are kept as long as the class they refer to still exists
+     */
+    private void mergePreviousIndex() {
+        final Map<String, Set<String>> previousIndex;
+
+        try {
+            FileObject resource = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION);
+
+            try (Reader reader = new InputStreamReader(resource.openInputStream(), StandardCharsets.UTF_8)) {
+                previousIndex = read(reader);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            //no previous index
+            return;
+        }
+
+        for (Map.Entry<String, Set<String>> entry : previousIndex.entrySet()) {
+            for (String className : entry.getValue()) {
+                if (processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null) {
+                    index.computeIfAbsent(entry.getKey(), s -> new TreeSet<>()).add(className);
+                }
+            }
+        }
+    }
+
+    /**
+     * reads an index in the format written by this processor
+     */
+    public static Map<String, Set<String>> read(Reader reader) throws IOException {
+        Map<String, Set<String>> index = new TreeMap<>();
+
+        BufferedReader bufferedReader = new BufferedReader(reader);
+
+        String line;
+
+        while ((line = bufferedReader.readLine()) != null) {
+            line = line.trim();
+
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            final int indexOfSeparator = line.indexOf('=');
+
+            if (indexOfSeparator == -1) {
+                continue;
+            }
+
+            final Set<String> classNames = index.computeIfAbsent(line.substring(0, indexOfSeparator).trim(), s -> new TreeSet<>());
+
+            for (String className : line.substring(indexOfSeparator + 1).split(",")) {
+                if (!className.trim().isEmpty()) {
+                    classNames.add(className.trim());
+                }
+            }
+        }
+
+        return index;
+    }
+}
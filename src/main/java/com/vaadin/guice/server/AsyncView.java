@@ -0,0 +1,74 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.ProgressBar;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link View} that loads it's data asynchronously, so navigating to it does not block the
+ * request-thread. When a {@link GuiceNavigator} navigates to an AsyncView, it shows the {@link
+ * #getPlaceholder() placeholder} right away and calls {@link #load(ViewChangeEvent)} on a
+ * background-thread within the view's {@link ScopeContext}. Once the returned stage completes,
+ * {@link #show(Object)} is called via {@link com.vaadin.ui.UI#access(Runnable)} and the view
+ * replaces the placeholder. If the user navigated somewhere else in the meantime, the result is
+ * discarded. The UI needs server-push for the view to appear without waiting for the next
+ * round-trip.
+ *
+ * <pre>
+ * &#064;GuiceView("orders")
+ * public class OrdersView extends Grid&lt;Order&gt; implements AsyncView&lt;List&lt;Order&gt;&gt; {
+ *
+ *    &#064;Inject
+ *    private OrderService orderService;
+ *
+ *    public CompletionStage&lt;List&lt;Order&gt;&gt; load(ViewChangeEvent event) {
+ *        return CompletableFuture.completedFuture(orderService.findAll());
+ *    }
+ *
+ *    public void show(List&lt;Order&gt; orders) {
+ *        setItems(orders);
+ *    }
+ * }
+ * </pre>
+ *
+ * {@link #enter(ViewChangeEvent)} is still called on the request-thread while the placeholder is
+ * shown, and load is called on every navigation to the view.
+ *
+ * @param <T> the type of the loaded data
+ */
+public interface AsyncView<T> extends View {
+
+    /**
+     * called on a background-thread without the session being locked, so no components must be
+     * changed here
+     */
+    CompletionStage<T> load(ViewChangeEvent event);
+
+    /**
+     * called with the loaded data while the session is locked, right before the view replaces the
+     * placeholder
+     */
+    void show(T data);
+
+    /**
+     * the component shown while the data is loading, an indeterminate progress-bar by default
+     */
+    default Component getPlaceholder() {
+        ProgressBar progressBar = new ProgressBar();
+
+        progressBar.setIndeterminate(true);
+
+        return progressBar;
+    }
+
+    /**
+     * called while the session is locked if loading failed. The default passes the failure on to
+     * the error-handler of the UI.
+     */
+    default void loadFailed(Throwable throwable) {
+        throw new IllegalStateException("loading data of " + getClass() + " failed", throwable);
+    }
+}
@@ -0,0 +1,26 @@
+package com.vaadin.guice.server;
+
+/**
+ * Singletons implementing CheckpointAware are notified when the JVM running a {@link
+ * GuiceVaadinServlet} is checkpointed and restored via CRaC (Coordinated Restore at Checkpoint).
+ * Resources that can't survive a checkpoint, like open files, sockets or connection-pools, are
+ * to be released in {@link #beforeCheckpoint()} and acquired again in {@link #afterRestore()},
+ * which is also the place to revalidate state that depends on time or on the host. Singletons
+ * are notified of the checkpoint in reverse order of their bindings and of the restore in the
+ * order of their bindings.
+ */
+public interface CheckpointAware {
+
+    /**
+     * called before the checkpoint, after all UI-, View- and VaadinSession-scopes were cleared.
+     * Throwing an exception aborts the checkpoint.
+     */
+    default void beforeCheckpoint() throws Exception {
+    }
+
+    /**
+     * called after the JVM was restored, before the servlet handles the first request
+     */
+    default void afterRestore() throws Exception {
+    }
+}
@@ -0,0 +1,205 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Scopes;
+import com.google.inject.spi.ConstructorBinding;
+import com.google.inject.spi.InstanceBinding;
+import com.google.inject.spi.LinkedKeyBinding;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * connects a {@link GuiceVaadinServlet} to CRaC without a compile-time dependency. Either the
+ * org.crac compatibility-library or the jdk.crac-module of a CRaC-enabled JDK is used, whichever
+ * is found first. Without them, checkpoints are not supported and nothing is registered.
+ */
+final class CheckpointRestore {
+
+    private static final Logger logger = Logger.getLogger(CheckpointRestore.class.getName());
+
+    private static final String[] CRAC_PACKAGES = {"org.crac", "jdk.crac"};
+
+    private CheckpointRestore() {
+    }
+
+    /**
+     * registers the callback in CRaC's global context
+     *
+     * @return the registered resource, which CRaC only references weakly so the caller needs to
+     * keep it, or null if CRaC is not available
+     */
+    static Object register(CheckpointAware checkpointAware, ClassLoader classLoader) {
+        for (String cracPackage : CRAC_PACKAGES) {
+            final Class<?> coreClass;
+            final Class<?> contextClass;
+            final Class<?> resourceClass;
+
+            try {
+                coreClass = Class.forName(cracPackage + ".Core", true, classLoader);
+                contextClass = Class.forName(cracPackage + ".Context", false, classLoader);
+                resourceClass = Class.forName(cracPackage + ".Resource", false, classLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                continue;
+            }
+
+            final Object resource = Proxy.newProxyInstance(classLoader, new Class<?>[]{resourceClass}, new ResourceHandler(checkpointAware));
+
+            try {
+                final Object globalContext = coreClass.getMethod("getGlobalContext").invoke(null);
+
+                contextClass.getMethod("register", resourceClass).invoke(globalContext, resource);
+            } catch (ReflectiveOperationException e) {
+                logger.log(Level.WARNING, "unable to register for checkpoint/restore with " + cracPackage, e);
+                return null;
+            }
+
+            return resource;
+        }
+
+        return null;
+    }
+
+    /**
+     * notifies the {@link CheckpointAware} singletons of the injector, but not those of it's
+     * parent, which is notified once for all it's children
+     */
+    static CheckpointAware forSingletonsOf(Injector injector) {
+        return new CheckpointAware() {
+            @Override
+            public void beforeCheckpoint() throws Exception {
+                CheckpointRestore.beforeCheckpoint(getCheckpointAwareSingletons(injector));
+            }
+
+            @Override
+            public void afterRestore() throws Exception {
+                CheckpointRestore.afterRestore(getCheckpointAwareSingletons(injector));
+            }
+
+            @Override
+            public String toString() {
+                return "singletons of " + injector;
+            }
+        };
+    }
+
+    /**
+     * notifies all in reverse order, the first exception is thrown after all were notified
+     */
+    static void beforeCheckpoint(List<? extends CheckpointAware> checkpointAwares) throws Exception {
+        Exception failure = null;
+
+        for (int i = checkpointAwares.size() - 1; i >= 0; i--) {
+            try {
+                checkpointAwares.get(i).beforeCheckpoint();
+            } catch (Exception e) {
+                failure = addFailure(failure, e);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * notifies all in order, the first exception is thrown after all were notified
+     */
+    static void afterRestore(List<? extends CheckpointAware> checkpointAwares) throws Exception {
+        Exception failure = null;
+
+        for (CheckpointAware checkpointAware : checkpointAwares) {
+            try {
+                checkpointAware.afterRestore();
+            } catch (Exception e) {
+                failure = addFailure(failure, e);
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Exception addFailure(Exception failure, Exception e) {
+        if (failure == null) {
+            return e;
+        }
+
+        failure.addSuppressed(e);
+
+        return failure;
+    }
+
+    /**
+     * all singletons of the injector that implement {@link CheckpointAware}, in the order of their
+     * bindings. Singletons that were not created yet are created, bindings of parent-injectors
+     * are not included.
+     */
+    static ImmutableList<CheckpointAware> getCheckpointAwareSingletons(Injector injector) {
+        ImmutableList.Builder<CheckpointAware> singletons = ImmutableList.builder();
+
+        for (Binding<?> binding : injector.getAllBindings().values()) {
+            if (!Scopes.isSingleton(binding) || !CheckpointAware.class.isAssignableFrom(getImplementationType(binding))) {
+                continue;
+            }
+
+            final Object instance = binding.getProvider().get();
+
+            if (instance instanceof CheckpointAware) {
+                singletons.add((CheckpointAware) instance);
+            }
+        }
+
+        return singletons.build();
+    }
+
+    //the type of the instance without creating it, as far as the binding tells
+    private static Class<?> getImplementationType(Binding<?> binding) {
+        if (binding instanceof InstanceBinding) {
+            final Object instance = ((InstanceBinding<?>) binding).getInstance();
+            return instance != null ? instance.getClass() : Object.class;
+        } else if (binding instanceof LinkedKeyBinding) {
+            return ((LinkedKeyBinding<?>) binding).getLinkedKey().getTypeLiteral().getRawType();
+        } else if (binding instanceof ConstructorBinding) {
+            return ((ConstructorBinding<?>) binding).getConstructor().getDeclaringType().getRawType();
+        }
+
+        return binding.getKey().getTypeLiteral().getRawType();
+    }
+
+    private static final class ResourceHandler implements InvocationHandler {
+
+        private final CheckpointAware checkpointAware;
+
+        ResourceHandler(CheckpointAware checkpointAware) {
+            this.checkpointAware = checkpointAware;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "beforeCheckpoint":
+                    checkpointAware.beforeCheckpoint();
+                    return null;
+                case "afterRestore":
+                    checkpointAware.afterRestore();
+                    return null;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CheckpointRestore[" + checkpointAware + "]";
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        }
+    }
+}
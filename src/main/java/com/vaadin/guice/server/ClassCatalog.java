@@ -0,0 +1,15 @@
+package com.vaadin.guice.server;
+
+import java.lang.annotation.Annotation;
+import java.util.Set;
+
+/**
+ * the source of all classes that {@link GuiceVaadinServlet} wires up, either a classpath-scan or a
+ * pre-computed index
+ */
+interface ClassCatalog {
+
+    <T> Set<Class<? extends T>> getSubTypesOf(Class<T> type);
+
+    Set<Class<?>> getTypesAnnotatedWith(Class<? extends Annotation> annotation);
+}
@@ -0,0 +1,113 @@
+package com.vaadin.guice.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * the {@link ScopedObjects} of an idle session that were written to a {@link
+ * SessionScopeStorage}. When the session itself is serialized while it's scope is externalized,
+ * the stored data is written with it, since the storage is local to the node.
+ */
+final class ExternalizedScopedObjects implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+    private transient SessionScopeStorage storage;
+    //only set after deserialization, when the storage of the originating node is not reachable
+    private transient byte[] replicatedData;
+
+    private ExternalizedScopedObjects(String id, SessionScopeStorage storage) {
+        this.id = id;
+        this.storage = storage;
+    }
+
+    /**
+     * serializes the scoped objects into the storage, which must be done while the session is
+     * locked
+     */
+    static ExternalizedScopedObjects store(ScopedObjects scopedObjects, SessionScopeStorage storage) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(scopedObjects);
+        }
+
+        final String id = UUID.randomUUID().toString();
+
+        storage.store(id, bytes.toByteArray());
+
+        return new ExternalizedScopedObjects(id, storage);
+    }
+
+    /**
+     * reads the scoped objects back, they still need to be bound to their scope via {@link
+     * ScopedObjects#rebind(ScopeStatistics, ScopeSlots, java.util.function.Consumer)}
+     */
+    ScopedObjects load() throws IOException, ClassNotFoundException {
+        final byte[] data = read();
+
+        if (data == null) {
+            throw new IOException("no data stored for externalized session-scope " + id);
+        }
+
+        try (ObjectInputStream in = new ContextClassLoaderObjectInputStream(new ByteArrayInputStream(data))) {
+            return (ScopedObjects) in.readObject();
+        }
+    }
+
+    void remove() throws IOException {
+        replicatedData = null;
+
+        if (storage != null) {
+            storage.remove(id);
+        }
+    }
+
+    private byte[] read() throws IOException {
+        return replicatedData != null || storage == null ? replicatedData : storage.load(id);
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(read());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        replicatedData = (byte[]) in.readObject();
+    }
+
+    /*
+     * session-scoped instances are application-classes, which the class-loader of this library
+     * may not see if it is shared between web-applications
+     */
+    private static final class ContextClassLoaderObjectInputStream extends ObjectInputStream {
+
+        ContextClassLoaderObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+            if (classLoader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, classLoader);
+                } catch (ClassNotFoundException e) {
+                    //fall through to the default resolution
+                }
+            }
+
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.vaadin.guice.server;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link SessionScopeStorage} that keeps every entry in a file of it's own in a local directory.
+ * The default constructor uses a new temporary directory that is deleted on {@link #close()} and
+ * created again when the JVM is restored from a checkpoint.
+ */
+public class FileSessionScopeStorage implements SessionScopeStorage, CheckpointAware {
+
+    private static final String SUFFIX = ".session-scope";
+
+    private final Path directory;
+    private final boolean deleteDirectoryOnClose;
+
+    public FileSessionScopeStorage() throws IOException {
+        this(Files.createTempDirectory("vaadin-guice-session-scopes"), true);
+    }
+
+    /**
+     * @param directory an existing directory, only files written by this storage are deleted
+     *                  from it on {@link #close()}
+     */
+    public FileSessionScopeStorage(Path directory) {
+        this(directory, false);
+    }
+
+    private FileSessionScopeStorage(Path directory, boolean deleteDirectoryOnClose) {
+        checkArgument(Files.isDirectory(checkNotNull(directory)), "%s is not a directory", directory);
+        this.directory = directory;
+        this.deleteDirectoryOnClose = deleteDirectoryOnClose;
+    }
+
+    @Override
+    public void store(String id, byte[] data) throws IOException {
+        Files.write(fileOf(id), data);
+    }
+
+    @Override
+    public byte[] load(String id) throws IOException {
+        try {
+            return Files.readAllBytes(fileOf(id));
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void remove(String id) throws IOException {
+        Files.deleteIfExists(fileOf(id));
+    }
+
+    @Override
+    public void close() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        if (deleteDirectoryOnClose) {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    /**
+     * the temporary directory may not exist on the host the JVM is restored on
+     */
+    @Override
+    public void afterRestore() throws IOException {
+        Files.createDirectories(directory);
+    }
+
+    private Path fileOf(String id) {
+        //ids are generated by the scope, this only guards against leaving the directory
+        checkArgument(id.indexOf('/') == -1 && id.indexOf('\\') == -1 && !id.startsWith("."), "invalid id %s", id);
+
+        return directory.resolve(id + SUFFIX);
+    }
+}
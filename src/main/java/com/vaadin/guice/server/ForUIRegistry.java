@@ -0,0 +1,148 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import com.vaadin.guice.annotation.Controller;
+import com.vaadin.guice.annotation.ForUI;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.ui.UI;
+
+import java.util.BitSet;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * which views and ViewChangeListeners apply to which UI according to {@link ForUI}, and which
+ * controllers are attached to which UI, computed once at startup. Every UI gets an index, and
+ * every registered class a bitset of the indices of the UIs it applies to, so lookups after the
+ * startup need neither reflection nor locking.
+ */
+final class ForUIRegistry {
+
+    private final ImmutableMap<Class<? extends UI>, Integer> uiIndices;
+    private final ImmutableMap<Class<?>, BitSet> applicableUIs;
+    private final ImmutableMap<Class<? extends UI>, Set<Class<? extends View>>> viewClassesByUI;
+    private final ImmutableMap<Class<? extends UI>, Set<Class<? extends ViewChangeListener>>> viewChangeListenersByUI;
+    private final ImmutableMap<Class<? extends UI>, Set<Class<?>>> controllersByUI;
+
+    ForUIRegistry(
+            Set<Class<? extends UI>> uiClasses,
+            Set<Class<? extends View>> viewClasses,
+            Set<Class<? extends ViewChangeListener>> viewChangeListenerClasses,
+            Set<Class<?>> controllerClasses
+    ) {
+        ImmutableMap.Builder<Class<? extends UI>, Integer> uiIndices = ImmutableMap.builder();
+
+        int index = 0;
+
+        for (Class<? extends UI> uiClass : uiClasses) {
+            uiIndices.put(uiClass, index++);
+        }
+
+        this.uiIndices = uiIndices.build();
+
+        ImmutableMap.Builder<Class<?>, BitSet> applicableUIs = ImmutableMap.builder();
+
+        ImmutableSet.<Class<?>>builder()
+                .addAll(viewClasses)
+                .addAll(viewChangeListenerClasses)
+                .build()
+                .forEach(cls -> applicableUIs.put(cls, computeApplicableUIs(cls)));
+
+        this.applicableUIs = applicableUIs.build();
+
+        ImmutableMap.Builder<Class<? extends UI>, Set<Class<? extends View>>> viewClassesByUI = ImmutableMap.builder();
+        ImmutableMap.Builder<Class<? extends UI>, Set<Class<? extends ViewChangeListener>>> viewChangeListenersByUI = ImmutableMap.builder();
+        ImmutableMap.Builder<Class<? extends UI>, Set<Class<?>>> controllersByUI = ImmutableMap.builder();
+
+        for (Class<? extends UI> uiClass : uiClasses) {
+            viewClassesByUI.put(uiClass, filter(uiClass, viewClasses));
+            viewChangeListenersByUI.put(uiClass, filter(uiClass, viewChangeListenerClasses));
+
+            controllersByUI.put(
+                    uiClass,
+                    ImmutableSet.copyOf(
+                            controllerClasses
+                                    .stream()
+                                    .filter(controllerClass -> controllerClass.getAnnotation(Controller.class).value().equals(uiClass))
+                                    .iterator()
+                    )
+            );
+        }
+
+        this.viewClassesByUI = viewClassesByUI.build();
+        this.viewChangeListenersByUI = viewChangeListenersByUI.build();
+        this.controllersByUI = controllersByUI.build();
+    }
+
+    private BitSet computeApplicableUIs(Class<?> cls) {
+        final BitSet bits = new BitSet(uiIndices.size());
+
+        final ForUI forUI = cls.getAnnotation(ForUI.class);
+
+        if (forUI == null) {
+            bits.set(0, uiIndices.size());
+            return bits;
+        }
+
+        checkArgument(forUI.value().length != 0, "@ForUI#value() must not be empty at %s", cls);
+
+        for (Class<? extends UI> uiClass : forUI.value()) {
+            final Integer uiIndex = uiIndices.get(uiClass);
+
+            //UIs that are not scanned never apply
+            if (uiIndex != null) {
+                bits.set(uiIndex);
+            }
+        }
+
+        return bits;
+    }
+
+    private <T> Set<Class<? extends T>> filter(Class<? extends UI> uiClass, Set<Class<? extends T>> classes) {
+        return ImmutableSet.copyOf(
+                classes
+                        .stream()
+                        .filter(cls -> appliesForUI(uiClass, cls))
+                        .iterator()
+        );
+    }
+
+    boolean appliesForUI(Class<? extends UI> uiClass, Class<?> cls) {
+        final Integer uiIndex = uiIndices.get(uiClass);
+
+        checkState(uiIndex != null, "ui class not registered: %s", uiClass);
+
+        final BitSet bits = applicableUIs.get(cls);
+
+        checkArgument(bits != null, "neither a view nor a ViewChangeListener: %s", cls);
+
+        return bits.get(uiIndex);
+    }
+
+    Set<Class<? extends View>> getViewClasses(Class<? extends UI> uiClass) {
+        return checkRegistered(viewClassesByUI.get(uiClass), uiClass);
+    }
+
+    Set<Class<? extends ViewChangeListener>> getViewChangeListeners(Class<? extends UI> uiClass) {
+        return checkRegistered(viewChangeListenersByUI.get(uiClass), uiClass);
+    }
+
+    /**
+     * the controllers attached to the given UI, which may also be a UI that was not scanned
+     */
+    Set<Class<?>> getControllerClasses(Class<? extends UI> uiClass) {
+        return controllersByUI.getOrDefault(uiClass, ImmutableSet.of());
+    }
+
+    private static <T> T checkRegistered(T value, Class<? extends UI> uiClass) {
+        checkState(value != null, "ui class not registered: %s", uiClass);
+
+        return value;
+    }
+}
@@ -2,19 +2,48 @@ package com.vaadin.guice.server;
 
 import com.vaadin.guice.annotation.GuiceUI;
 import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
 import com.vaadin.navigator.ViewDisplay;
+import com.vaadin.ui.Component;
 import com.vaadin.ui.ComponentContainer;
+import com.vaadin.ui.CustomComponent;
 import com.vaadin.ui.SingleComponentContainer;
 import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 /**
- * GuiceNavigator is the default {@link Navigator} for GuiceVaadinServlet
+ * GuiceNavigator is the default {@link Navigator} for GuiceVaadinServlet. Views implementing
+ * {@link AsyncView} are loaded in the background while a placeholder is shown.
  *
  * @see Navigator
  * @see GuiceUI#navigator()
  */
 public class GuiceNavigator extends Navigator {
 
+    private static final Logger logger = Logger.getLogger(GuiceNavigator.class.getName());
+
+    private GuiceVaadinServlet guiceVaadinServlet;
+    private AsyncViewDisplay asyncViewDisplay;
+
+    //counts the navigations that took place, so a result is discarded once the user navigated
+    //somewhere else, even if the user came back to the same view in the meantime. Only accessed
+    //while the session is locked
+    private long navigations;
+
+    void setGuiceVaadinServlet(GuiceVaadinServlet guiceVaadinServlet) {
+        this.guiceVaadinServlet = guiceVaadinServlet;
+    }
+
     void init(UI ui, ComponentContainer container) {
         init(ui, new ComponentContainerViewDisplay(container));
     }
@@ -24,6 +53,92 @@ public class GuiceNavigator extends Navigator {
     }
 
     void init(UI ui, ViewDisplay display) {
-        init(ui, new UriFragmentManager(ui.getPage()), display);
+        this.asyncViewDisplay = new AsyncViewDisplay(display);
+        init(ui, new UriFragmentManager(ui.getPage()), asyncViewDisplay);
+    }
+
+    @Override
+    protected void navigateTo(View view, String viewName, String parameters) {
+        final View previousView = getCurrentView();
+        final long navigationsBefore = navigations;
+
+        super.navigateTo(view, viewName, parameters);
+
+        //a ViewChangeListener may have vetoed the navigation, or the view navigated elsewhere
+        //in enter()
+        if (view instanceof AsyncView && navigations == navigationsBefore + 1) {
+            load((AsyncView<?>) view, new ViewChangeEvent(this, previousView, view, viewName, parameters), navigations);
+        }
+    }
+
+    @Override
+    protected void switchView(ViewChangeEvent event) {
+        navigations++;
+        super.switchView(event);
+    }
+
+    private <T> void load(AsyncView<T> view, ViewChangeEvent event, long navigation) {
+        checkState(guiceVaadinServlet != null && asyncViewDisplay != null, "GuiceNavigator is not initialized");
+
+        final UI ui = getUI();
+
+        final CompletableFuture<T> loading;
+
+        try {
+            loading = CompletableFuture
+                    .supplyAsync(() -> checkNotNull(view.load(event), "%s returned null in load()", view.getClass()), guiceVaadinServlet.getScopePropagatingExecutor())
+                    .thenCompose(stage -> stage);
+        } catch (RejectedExecutionException e) {
+            //the servlet is being destroyed
+            return;
+        }
+
+        loading.whenComplete((data, throwable) -> {
+            try {
+                ui.access(() -> {
+                    //navigated somewhere else in the meantime
+                    if (navigations != navigation) {
+                        return;
+                    }
+
+                    if (throwable != null) {
+                        view.loadFailed(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+                    } else {
+                        view.show(data);
+                        asyncViewDisplay.delegate.showView(view);
+                    }
+                });
+            } catch (UIDetachedException e) {
+                logger.log(Level.FINE, "UI was detached while loading " + view.getClass(), e);
+            }
+        });
+    }
+
+    /**
+     * shows the placeholder of AsyncViews, the view itself is shown by the navigator once it's
+     * data is loaded
+     */
+    private static final class AsyncViewDisplay implements ViewDisplay {
+        private final ViewDisplay delegate;
+
+        AsyncViewDisplay(ViewDisplay delegate) {
+            this.delegate = checkNotNull(delegate);
+        }
+
+        @Override
+        public void showView(View view) {
+            delegate.showView(view instanceof AsyncView ? new Placeholder(((AsyncView<?>) view).getPlaceholder()) : view);
+        }
+    }
+
+    private static final class Placeholder extends CustomComponent implements View {
+        Placeholder(Component placeholder) {
+            super(placeholder);
+            setSizeFull();
+        }
+
+        @Override
+        public void enter(ViewChangeEvent event) {
+        }
     }
 }
@@ -6,10 +6,10 @@ import com.vaadin.guice.annotation.GuiceUI;
 import com.vaadin.server.UIClassSelectionEvent;
 import com.vaadin.server.UICreateEvent;
 import com.vaadin.server.UIProvider;
+import com.vaadin.server.VaadinSession;
 import com.vaadin.ui.UI;
 
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.ObjectStreamException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -26,7 +26,7 @@ import static com.google.common.base.Preconditions.checkState;
  */
 class GuiceUIProvider extends UIProvider {
 
-    private final Map<String, Class<? extends UI>> pathToUIMap;
+    private final PathTrie<Class<? extends UI>> routes;
     private final GuiceVaadinServlet guiceVaadinServlet;
 
     GuiceUIProvider(GuiceVaadinServlet guiceVaadinServlet) {
@@ -35,7 +35,7 @@ class GuiceUIProvider extends UIProvider {
 
         logger.info("Checking the application context for Vaadin UIs");
 
-        pathToUIMap = new ConcurrentHashMap<>();
+        routes = new PathTrie<>();
 
         for (Class<? extends UI> uiClass : guiceVaadinServlet.getUiClasses()) {
 
@@ -49,28 +49,33 @@ class GuiceUIProvider extends UIProvider {
                 path = "/" + path;
             }
 
-            if (path.endsWith("/")) {
+            //'/admin/*' matches '/admin' and everything below it
+            final boolean wildcard = path.endsWith("/*");
+
+            if (wildcard) {
+                path = path.substring(0, path.length() - 2);
+            } else if (path.endsWith("/")) {
                 path = path.substring(0, path.length() - 1);
             }
 
             path = path.toLowerCase();
 
-            Class<? extends UI> existingUiForPath = pathToUIMap.get(path);
+            logger.log(Level.INFO, "Mapping Vaadin UI [{0}] to path [{1}]",
+                    new Object[]{uiClass.getCanonicalName(), wildcard ? path + "/*" : path});
+
+            final Class<? extends UI> existingUiForPath = wildcard
+                    ? routes.putPrefix(path, uiClass)
+                    : routes.put(path, uiClass);
 
             checkState(
                     existingUiForPath == null,
                     "[%s] is already mapped to the path [%s]",
                     existingUiForPath,
-                    path
+                    annotation.path()
             );
-
-            logger.log(Level.INFO, "Mapping Vaadin UI [{0}] to path [{1}]",
-                    new Object[]{uiClass.getCanonicalName(), path});
-
-            checkArgument(pathToUIMap.put(path, uiClass) == null, "multiple ui's mapped to the same path %s", path);
         }
 
-        if (pathToUIMap.isEmpty()) {
+        if (routes.isEmpty()) {
             logger.log(Level.WARNING, "Found no Vaadin UIs in the application context");
         }
     }
@@ -78,48 +83,60 @@ class GuiceUIProvider extends UIProvider {
     @Override
     public Class<? extends UI> getUIClass(
             UIClassSelectionEvent uiClassSelectionEvent) {
-        String path = getPath(uiClassSelectionEvent);
-
-        return pathToUIMap.get(path);
-    }
-
-    private String getPath(UIClassSelectionEvent uiClassSelectionEvent) {
-        String path = uiClassSelectionEvent.getRequest().getPathInfo();
+        final String path = uiClassSelectionEvent.getRequest().getPathInfo();
 
-        if(path == null){
-            return "";
+        if (path == null) {
+            return routes.get("");
         }
 
+        return routes.get(path, 0, getPathEnd(path));
+    }
+
+    /*
+     * the path is matched up to the first '!' or without a trailing '/', the region is matched
+     * in place so no substrings have to be created
+     */
+    static int getPathEnd(String path) {
         final int indexOfBang = path.indexOf('!');
 
         if (indexOfBang > -1) {
-            path = path.substring(0, indexOfBang);
-        } else if (path.endsWith("/")) {
-            path = path.substring(0, path.length() - 1);
+            return indexOfBang;
         }
 
-        return path.toLowerCase();
+        return path.endsWith("/") ? path.length() - 1 : path.length();
     }
 
     @Override
-    public synchronized UI createInstance(UICreateEvent event) {
+    public UI createInstance(UICreateEvent event) {
         final UIScope uiScoper = guiceVaadinServlet.getUiScope();
         final Injector injector = guiceVaadinServlet.getInjector();
 
-        synchronized (uiScoper) {
-            try {
-                final Class<? extends UI> uiClass = event.getUIClass();
+        final long start = System.nanoTime();
 
-                uiScoper.startScopeInit(uiClass);
+        final Class<? extends UI> uiClass = event.getUIClass();
 
-                UI ui = injector.getInstance(uiClass);
+        try {
+            uiScoper.startScopeInit(uiClass);
 
-                uiScoper.flushInitialScopeSet(ui);
+            UI ui = injector.getInstance(uiClass);
 
-                return ui;
-            } finally {
-                uiScoper.endScopeInit();
-            }
+            uiScoper.flushInitialScopeSet(ui);
+
+            final VaadinSession vaadinSession = VaadinSession.getCurrent();
+
+            //release everything scoped to the UI right away instead of waiting for the garbage-collector
+            ui.addDetachListener(detachEvent -> guiceVaadinServlet.destroyScopes(vaadinSession, ui));
+
+            guiceVaadinServlet.getGuiceVaadinMetrics().uiCreated(uiClass, System.nanoTime() - start);
+
+            return ui;
+        } finally {
+            uiScoper.endScopeInit();
         }
     }
+
+    //sessions refer to this provider, which holds on to the servlet, see ServletReference
+    private Object writeReplace() throws ObjectStreamException {
+        return new ServletReference(guiceVaadinServlet, ServletReference.Target.UI_PROVIDER);
+    }
 }
@@ -0,0 +1,186 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+
+import com.vaadin.navigator.View;
+import com.vaadin.ui.UI;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import static java.util.Collections.emptyMap;
+
+class GuiceVaadinMetrics implements GuiceVaadinMetricsMXBean {
+
+    private final Logger logger = Logger.getLogger(GuiceVaadinMetrics.class.getName());
+    private final GuiceVaadinServlet guiceVaadinServlet;
+    private final List<MetricsListener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder uiCreations = new LongAdder();
+    private final LongAdder viewCreations = new LongAdder();
+    private volatile Map<String, Long> startupPhaseNanos = emptyMap();
+    private volatile Map<String, Integer> scannedClasses = emptyMap();
+    private volatile int bindings;
+    private volatile Map<String, Integer> warmupResults = emptyMap();
+    private ObjectName objectName;
+
+    GuiceVaadinMetrics(GuiceVaadinServlet guiceVaadinServlet) {
+        this.guiceVaadinServlet = guiceVaadinServlet;
+    }
+
+    void startupCompleted(Map<String, Long> startupPhaseNanos, Map<String, Integer> scannedClasses, int bindings) {
+        this.startupPhaseNanos = ImmutableMap.copyOf(startupPhaseNanos);
+        this.scannedClasses = ImmutableMap.copyOf(scannedClasses);
+        this.bindings = bindings;
+
+        listeners.forEach(listener -> listener.startupCompleted(this.startupPhaseNanos, this.scannedClasses, bindings));
+    }
+
+    void warmupCompleted(Map<String, Integer> warmupResults) {
+        this.warmupResults = ImmutableMap.copyOf(warmupResults);
+    }
+
+    /**
+     * adds a listener, listeners added after the startup are informed about it immediately
+     */
+    void addListener(MetricsListener listener) {
+        listeners.add(listener);
+
+        if (!startupPhaseNanos.isEmpty()) {
+            listener.startupCompleted(startupPhaseNanos, scannedClasses, bindings);
+        }
+    }
+
+    void uiCreated(Class<? extends UI> uiClass, long nanos) {
+        uiCreations.increment();
+
+        for (MetricsListener listener : listeners) {
+            listener.uiCreated(uiClass, nanos);
+        }
+    }
+
+    void viewCreated(Class<? extends View> viewClass, long nanos) {
+        viewCreations.increment();
+
+        for (MetricsListener listener : listeners) {
+            listener.viewCreated(viewClass, nanos);
+        }
+    }
+
+    void registerMBean(String servletName) {
+        try {
+            final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+            objectName = objectName("GuiceVaadinMetrics", servletName, this);
+
+            mBeanServer.registerMBean(this, objectName);
+        } catch (JMException | RuntimeException e) {
+            //metrics must never prevent the application from starting, e.g. when the servlet-name is taken
+            logger.log(Level.WARNING, "unable to register metrics for " + servletName + " in JMX", e);
+            objectName = null;
+        }
+    }
+
+    /**
+     * the name of an MBean of the servlet, servlets without a name get one that is unique to the
+     * MBean-instance
+     */
+    static ObjectName objectName(String type, String servletName, Object mBean) throws MalformedObjectNameException {
+        final String name = servletName != null
+                ? servletName
+                : "unnamed-" + Integer.toHexString(System.identityHashCode(mBean));
+
+        return new ObjectName("com.vaadin.guice:type=" + type + ",name=" + ObjectName.quote(name));
+    }
+
+    void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "unable to unregister metrics " + objectName, e);
+        }
+
+        objectName = null;
+    }
+
+    @Override
+    public Map<String, Long> getStartupPhaseMillis() {
+        ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+
+        startupPhaseNanos.forEach((phase, nanos) -> builder.put(phase, TimeUnit.NANOSECONDS.toMillis(nanos)));
+
+        return builder.build();
+    }
+
+    @Override
+    public Map<String, Integer> getScannedClasses() {
+        return scannedClasses;
+    }
+
+    @Override
+    public Map<String, Integer> getWarmupResults() {
+        return warmupResults;
+    }
+
+    @Override
+    public int getBindings() {
+        return bindings;
+    }
+
+    @Override
+    public long getUICreations() {
+        return uiCreations.sum();
+    }
+
+    @Override
+    public long getViewCreations() {
+        return viewCreations.sum();
+    }
+
+    @Override
+    public Map<String, Long> getScopeHits() {
+        return ImmutableMap.of(
+                "UIScope", guiceVaadinServlet.getUiScope().getStatistics().getHits(),
+                "ViewScope", guiceVaadinServlet.getViewScope().getStatistics().getHits(),
+                "VaadinSessionScope", guiceVaadinServlet.getVaadinSessionScoper().getStatistics().getHits()
+        );
+    }
+
+    @Override
+    public Map<String, Long> getScopeMisses() {
+        return ImmutableMap.of(
+                "UIScope", guiceVaadinServlet.getUiScope().getStatistics().getMisses(),
+                "ViewScope", guiceVaadinServlet.getViewScope().getStatistics().getMisses(),
+                "VaadinSessionScope", guiceVaadinServlet.getVaadinSessionScoper().getStatistics().getMisses()
+        );
+    }
+
+    @Override
+    public int getExternalizedSessions() {
+        return guiceVaadinServlet.getVaadinSessionScoper().getExternalizedSessions();
+    }
+
+    @Override
+    public long getSessionExternalizations() {
+        return guiceVaadinServlet.getVaadinSessionScoper().getExternalizations();
+    }
+
+    @Override
+    public LatencySnapshot getRehydrationLatency() {
+        return guiceVaadinServlet.getVaadinSessionScoper().getRehydrationLatency();
+    }
+}
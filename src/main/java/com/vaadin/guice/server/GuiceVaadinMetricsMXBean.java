@@ -0,0 +1,65 @@
+package com.vaadin.guice.server;
+
+import java.util.Map;
+
+/**
+ * Metrics of a {@link GuiceVaadinServlet}, registered in the platform-MBeanServer as
+ * 'com.vaadin.guice:type=GuiceVaadinMetrics,name=&lt;servlet-name&gt;' and available via {@link
+ * GuiceVaadinServlet#getMetrics()}.
+ */
+public interface GuiceVaadinMetricsMXBean {
+
+    /**
+     * the duration of every phase of the servlet's startup in milliseconds
+     */
+    Map<String, Long> getStartupPhaseMillis();
+
+    /**
+     * the number of classes found per category, like "UI" or "View"
+     */
+    Map<String, Integer> getScannedClasses();
+
+    /**
+     * the number of resolved bindings, created singletons, synthetic UIs and Views and failures of
+     * the warmup, empty if there was none
+     *
+     * @see com.vaadin.guice.annotation.Warmup
+     */
+    Map<String, Integer> getWarmupResults();
+
+    /**
+     * the number of bindings in the injector
+     */
+    int getBindings();
+
+    long getUICreations();
+
+    long getViewCreations();
+
+    /**
+     * the number of lookups per scope that returned an existing instance
+     */
+    Map<String, Long> getScopeHits();
+
+    /**
+     * the number of lookups per scope that created a new instance
+     */
+    Map<String, Long> getScopeMisses();
+
+    /**
+     * the number of sessions whose VaadinSessionScope is currently externalized
+     *
+     * @see com.vaadin.guice.annotation.ExternalizeIdleSessions
+     */
+    int getExternalizedSessions();
+
+    /**
+     * the number of times the VaadinSessionScope of an idle session was externalized
+     */
+    long getSessionExternalizations();
+
+    /**
+     * the time it took to read externalized VaadinSessionScopes back on their next access
+     */
+    LatencySnapshot getRehydrationLatency();
+}
@@ -1,16 +1,27 @@
 package com.vaadin.guice.server;
 
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Binding;
 import com.google.inject.Injector;
+import com.google.inject.Key;
 import com.google.inject.Module;
 import com.google.inject.Provider;
-import com.google.inject.TypeLiteral;
+import com.google.inject.Stage;
+import com.google.inject.spi.Element;
+import com.google.inject.spi.Elements;
 
 import com.vaadin.guice.annotation.Controller;
-import com.vaadin.guice.annotation.ForUI;
+import com.vaadin.guice.annotation.ExternalizeIdleSessions;
 import com.vaadin.guice.annotation.Import;
+import com.vaadin.guice.annotation.InjectorStage;
 import com.vaadin.guice.annotation.OverrideBindings;
 import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.ParallelStartup;
+import com.vaadin.guice.annotation.SharedBindings;
+import com.vaadin.guice.annotation.Warmup;
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewChangeListener;
 import com.vaadin.server.BootstrapListener;
@@ -31,15 +42,29 @@ import com.vaadin.ui.UI;
 
 import org.reflections.Reflections;
 
+import java.io.IOException;
+import java.io.ObjectStreamException;
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -48,12 +73,15 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.base.Suppliers.memoize;
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static com.google.inject.Guice.createInjector;
 import static com.google.inject.util.Modules.override;
 import static java.lang.reflect.Modifier.isAbstract;
-import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
 /**
@@ -65,14 +93,24 @@ import static java.util.stream.Collectors.toSet;
 @SuppressWarnings("unused")
 public class GuiceVaadinServlet extends VaadinServlet implements SessionInitListener {
 
-    private static final Class<? super Provider<Injector>> injectorProviderType = new TypeLiteral<Provider<Injector>>() {
-    }.getRawType();
-    private final Map<Class<? extends UI>, Set<Class<? extends ViewChangeListener>>> viewChangeListenerCache = new HashMap<>();
-    private final Map<Class<? extends UI>, Set<Class<?>>> controllerCache = new HashMap<>();
+    private static final Logger logger = Logger.getLogger(GuiceVaadinServlet.class.getName());
+    private final GuiceVaadinMetrics metrics = new GuiceVaadinMetrics(this);
+    private final ScopeFootprint scopeFootprint = new ScopeFootprint(this);
+    private ProvisioningStatistics provisioningStatistics;
     private GuiceViewProvider viewProvider;
     private GuiceUIProvider guiceUIProvider;
     private UIScope uiScope;
     private ViewScope viewScope;
+    private ExecutorService backgroundExecutor;
+    private ExecutorService scopePropagatingExecutor;
+    private ScheduledExecutorService sessionExternalizer;
+    private SessionScopeStorage sessionScopeStorage;
+    //CRaC only keeps a weak reference
+    private Object checkpointResource;
+    private Set<Class<? extends Module>> sharedModuleClasses;
+    private Map<Class<? extends Module>, ModuleFactory> moduleFactories = ImmutableMap.of();
+    //set while this servlet holds a parent-injector of it
+    private SharedStartupState acquiredSharedStartupState;
     private Injector injector;
     private VaadinSessionScope vaadinSessionScoper;
     private Set<Class<?>> controllerClasses;
@@ -86,9 +124,30 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
     private Set<Class<? extends RequestHandler>> requestHandlerClasses;
     private Set<Class<? extends VaadinServiceInitListener>> vaadinServiceInitListenerClasses;
     private Class<? extends UidlRequestHandler> customUidlRequestHandlerClass;
+    private Set<Class<? extends MetricsListener>> metricsListenerClasses;
+    private ForUIRegistry forUIRegistry;
 
     @Override
     public void init(ServletConfig servletConfig) throws ServletException {
+        final SharedStartupState sharedStartupState = SharedStartupState.of(servletConfig.getServletContext());
+
+        boolean initialized = false;
+
+        try {
+            init(servletConfig, sharedStartupState);
+            initialized = true;
+        } finally {
+            //destroy() is not called for a servlet that failed to initialize
+            if (!initialized) {
+                releaseParentInjector();
+            }
+
+            //the shared class-catalogs are dropped once no servlet needs them anymore
+            sharedStartupState.servletInitialized(servletConfig, getClass().getClassLoader());
+        }
+    }
+
+    private void init(ServletConfig servletConfig, SharedStartupState sharedStartupState) throws ServletException {
         final String initParameter = servletConfig.getInitParameter("packagesToScan");
 
         final String[] packagesToScan;
@@ -108,45 +167,344 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
             throw new IllegalStateException("no packagesToScan-initParameter found and no @PackagesToScan-annotation present, please configure the packages to be scanned");
         }
 
-        Reflections reflections = new Reflections((Object[]) packagesToScan);
-
         final Set<Annotation> importAnnotations = stream(getClass().getAnnotations())
                 .filter(annotation -> annotation.annotationType().isAnnotationPresent(Import.class))
                 .collect(toSet());
 
         //import packages
-        importAnnotations
+        final String[] allPackagesToScan = Stream
+                .concat(
+                        stream(packagesToScan),
+                        importAnnotations
+                                .stream()
+                                .flatMap(annotation -> stream(annotation.annotationType().getAnnotation(Import.class).packagesToScan()))
+                )
+                .map(String::trim)
+                .toArray(String[]::new);
+
+        final StartupTimer startupTimer = new StartupTimer();
+
+        final Stage stage = getStage(servletConfig);
+
+        final int warmupRounds = getWarmupRounds(servletConfig);
+
+        final ForkJoinPool forkJoinPool = isParallelStartup(servletConfig) ? new ForkJoinPool() : null;
+
+        final Executor executor = forkJoinPool != null ? forkJoinPool : directExecutor();
+
+        //servlets scanning the same packages share the result
+        final SharedStartupState.Catalog catalog = sharedStartupState.getCatalog(
+                ImmutableSet.copyOf(allPackagesToScan),
+                packages -> createCatalog(allPackagesToScan, startupTimer)
+        );
+
+        final ClassCatalog classCatalog = catalog.classCatalog;
+        final Supplier<Reflections> reflectionsSupplier = catalog.reflectionsSupplier;
+
+        final SharedBindings sharedBindings = getClass().getAnnotation(SharedBindings.class);
+
+        this.sharedModuleClasses = sharedBindings != null ? ImmutableSet.copyOf(sharedBindings.value()) : ImmutableSet.of();
+
+        this.moduleFactories = startupTimer.time("module-factory loading", () -> ModuleFactories.load(getClass().getClassLoader()));
+
+        final Module combinedModules;
+
+        try {
+            combinedModules = startupTimer.time(
+                    "module construction",
+                    () -> createModules(importAnnotations, classCatalog, reflectionsSupplier, executor)
+            );
+
+            startupTimer.time("class sorting", () -> sortClasses(classCatalog, executor));
+        } finally {
+            if (forkJoinPool != null) {
+                forkJoinPool.shutdown();
+            }
+        }
+
+        this.uiScope = new UIScope(this::injectTransientMembers);
+        this.viewScope = new ViewScope(this::injectTransientMembers);
+        this.vaadinSessionScoper = new VaadinSessionScope(this::injectTransientMembers);
+        this.viewProvider = new GuiceViewProvider(this);
+        this.guiceUIProvider = new GuiceUIProvider(this);
+        final int backgroundThreads = getBackgroundThreads(servletConfig);
+
+        //bounded, so a burst of background-tasks queues up instead of starting a thread per task
+        final ThreadPoolExecutor backgroundExecutor = new ThreadPoolExecutor(
+                backgroundThreads,
+                backgroundThreads,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("vaadin-guice-background-%d").setDaemon(true).build()
+        );
+
+        backgroundExecutor.allowCoreThreadTimeOut(true);
+
+        this.backgroundExecutor = backgroundExecutor;
+
+        //injected into beans, which must not be able to shut it down for the whole servlet
+        this.scopePropagatingExecutor = ScopeContext.propagating(new NonShutdownableExecutorService(backgroundExecutor));
+
+        if (sharedModuleClasses.isEmpty()) {
+            //sets up the basic vaadin stuff like UISetup
+            VaadinModule vaadinModule = new VaadinModule(this, ImmutableSet.of());
+
+            this.injector = startupTimer.time("injector creation", () -> createInjector(stage, vaadinModule, combinedModules));
+        } else {
+            final Injector parentInjector = startupTimer.time(
+                    "shared injector creation",
+                    () -> sharedStartupState.acquireParentInjector(sharedModuleClasses, moduleClasses -> createSharedInjector(stage, moduleClasses, reflectionsSupplier))
+            );
+
+            this.acquiredSharedStartupState = sharedStartupState;
+
+            //configure() of the modules runs once, the child-injector replays what was recorded
+            final List<Element> elements = Elements.getElements(stage, combinedModules);
+
+            VaadinModule vaadinModule = new VaadinModule(this, getClassesToBindInChildInjector(elements));
+
+            this.injector = startupTimer.time("injector creation", () -> parentInjector.createChildInjector(vaadinModule, Elements.getModule(elements)));
+        }
+
+        final long vaadinInitStart = System.nanoTime();
+
+        try {
+            super.init(servletConfig);
+        } finally {
+            startupTimer.record("vaadin servlet initialization", System.nanoTime() - vaadinInitStart);
+        }
+
+        //after servletInitialized(), so the VaadinService exists for synthetic sessions
+        if (warmupRounds != -1) {
+            metrics.warmupCompleted(startupTimer.time("warmup", () -> new StartupWarmup(this).run(warmupRounds)));
+        }
+
+        startupTimer.logSummary(getClass().getName());
+
+        metrics.startupCompleted(startupTimer.getDurations(), getScannedClassCounts(), injector.getAllBindings().size());
+
+        metricsListenerClasses
                 .stream()
-                .map(annotation -> annotation.annotationType().getAnnotation(Import.class))
-                .filter(i -> i.packagesToScan().length != 0)
-                .forEach(i -> reflections.merge(new Reflections((Object[]) i.packagesToScan())));
+                .map(getInjector()::getInstance)
+                .forEach(metrics::addListener);
+
+        startSessionExternalization();
+
+        metrics.registerMBean(servletConfig.getServletName());
+        scopeFootprint.registerMBean(servletConfig.getServletName());
 
+        ServletReference.register(this);
+
+        checkpointResource = CheckpointRestore.register(
+                new CheckpointAware() {
+                    @Override
+                    public void beforeCheckpoint() throws Exception {
+                        GuiceVaadinServlet.this.beforeCheckpoint();
+                    }
+
+                    @Override
+                    public void afterRestore() throws Exception {
+                        GuiceVaadinServlet.this.afterRestore();
+                    }
+                },
+                getClass().getClassLoader()
+        );
+
+        final Binding<ProvisioningStatistics> provisioningStatisticsBinding = injector.getExistingBinding(Key.get(ProvisioningStatistics.class));
+
+        if (provisioningStatisticsBinding != null) {
+            provisioningStatistics = provisioningStatisticsBinding.getProvider().get();
+            provisioningStatistics.registerMBean(servletConfig.getServletName());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        ServletReference.unregister(this);
+
+        checkpointResource = null;
+
+        metrics.unregisterMBean();
+        scopeFootprint.unregisterMBean();
+
+        if (viewProvider != null) {
+            viewProvider.shutdown();
+        }
+
+        if (provisioningStatistics != null) {
+            provisioningStatistics.unregisterMBean();
+        }
+
+        if (backgroundExecutor != null) {
+            backgroundExecutor.shutdownNow();
+        }
+
+        if (sessionExternalizer != null) {
+            sessionExternalizer.shutdownNow();
+        }
+
+        if (sessionScopeStorage != null) {
+            try {
+                sessionScopeStorage.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "unable to close " + sessionScopeStorage, e);
+            }
+        }
+
+        releaseParentInjector();
+
+        super.destroy();
+    }
+
+    private void releaseParentInjector() {
+        if (acquiredSharedStartupState != null) {
+            acquiredSharedStartupState.releaseParentInjector(sharedModuleClasses);
+            acquiredSharedStartupState = null;
+        }
+    }
+
+    /**
+     * prepares the servlet for a checkpoint of the JVM: the scopes of all sessions are destroyed,
+     * since sessions are not supposed to outlive a checkpoint, and {@link CheckpointAware}
+     * singletons are notified so they release resources of the host.
+     */
+    void beforeCheckpoint() throws Exception {
+        final long start = System.nanoTime();
+
+        Set<VaadinSession> vaadinSessions = new HashSet<>();
+
+        vaadinSessions.addAll(vaadinSessionScoper.getAllScopedObjects().keySet());
+        vaadinSessions.addAll(uiScope.getAllScopedObjects().keySet());
+        vaadinSessions.addAll(viewScope.getAllScopedObjects().keySet());
+
+        vaadinSessions.forEach(this::destroyScopes);
+
+        CheckpointRestore.beforeCheckpoint(getCheckpointAwares());
+
+        logger.log(
+                Level.INFO,
+                "{0} prepared for checkpoint in {1} ms, scopes of {2} sessions destroyed",
+                new Object[]{getClass().getName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), vaadinSessions.size()}
+        );
+    }
+
+    /**
+     * notifies {@link CheckpointAware} singletons after the JVM was restored from a checkpoint
+     */
+    void afterRestore() throws Exception {
+        final long start = System.nanoTime();
+
+        CheckpointRestore.afterRestore(getCheckpointAwares());
+
+        logger.log(
+                Level.INFO,
+                "{0} restored in {1} ms",
+                new Object[]{getClass().getName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)}
+        );
+    }
+
+    //singletons of a shared parent-injector are notified once for all servlets, see SharedStartupState
+    private List<CheckpointAware> getCheckpointAwares() {
+        List<CheckpointAware> checkpointAwares = new ArrayList<>(CheckpointRestore.getCheckpointAwareSingletons(injector));
+
+        //not necessarily a singleton, but needs to know about the restore as well
+        if (sessionScopeStorage instanceof CheckpointAware && !checkpointAwares.contains(sessionScopeStorage)) {
+            checkpointAwares.add((CheckpointAware) sessionScopeStorage);
+        }
+
+        return checkpointAwares;
+    }
+
+    private void startSessionExternalization() {
+        final ExternalizeIdleSessions annotation = getClass().getAnnotation(ExternalizeIdleSessions.class);
+
+        if (annotation == null) {
+            return;
+        }
+
+        final long idleTimeoutMillis = annotation.idleTimeoutUnit().toMillis(annotation.idleTimeout());
+
+        checkArgument(idleTimeoutMillis > 0, "idleTimeout of @ExternalizeIdleSessions must be positive");
+
+        sessionScopeStorage = injector.getInstance(annotation.storage());
+
+        vaadinSessionScoper.setStorage(sessionScopeStorage);
+
+        sessionExternalizer = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("vaadin-guice-session-externalizer-%d").setDaemon(true).build()
+        );
+
+        //sessions are externalized at most half an idleTimeout late
+        final long periodMillis = Math.max(1000, idleTimeoutMillis / 2);
+
+        sessionExternalizer.scheduleWithFixedDelay(
+                () -> {
+                    try {
+                        vaadinSessionScoper.externalizeIdleSessions(idleTimeoutMillis);
+                    } catch (RuntimeException e) {
+                        logger.log(Level.WARNING, "externalizing idle sessions failed", e);
+                    }
+                },
+                periodMillis,
+                periodMillis,
+                TimeUnit.MILLISECONDS
+        );
+    }
+
+    private Map<String, Integer> getScannedClassCounts() {
+        return ImmutableMap
+                .<String, Integer>builder()
+                .put("UI", uiClasses.size())
+                .put("View", viewClasses.size())
+                .put("ViewChangeListener", viewChangeListenerClasses.size())
+                .put("Controller", controllerClasses.size())
+                .put("BootstrapListener", bootStrapListenerClasses.size())
+                .put("VaadinServiceInitListener", vaadinServiceInitListenerClasses.size())
+                .put("RequestHandler", requestHandlerClasses.size())
+                .put("SessionInitListener", sessionInitListenerClasses.size())
+                .put("SessionDestroyListener", sessionDestroyListenerClasses.size())
+                .put("ServiceDestroyListener", serviceDestroyListeners.size())
+                .put("UidlRequestHandler", customUidlRequestHandlerClass != null ? 1 : 0)
+                .put("MetricsListener", metricsListenerClasses.size())
+                .build();
+    }
+
+    private Module createModules(
+            Set<Annotation> importAnnotations,
+            ClassCatalog classCatalog,
+            Supplier<Reflections> reflectionsSupplier,
+            Executor executor
+    ) {
         //import modules
-        final Set<Module> modulesFromAnnotations = importAnnotations
+        final List<CompletableFuture<Module>> modulesFromAnnotationsFutures = importAnnotations
                 .stream()
-                .map(annotation -> createModule(annotation.annotationType().getAnnotation(Import.class).value(), reflections, annotation))
-                .collect(toSet());
+                .map(annotation -> supplyAsync(() -> createModule(annotation.annotationType().getAnnotation(Import.class).value(), reflectionsSupplier, this::getInjector, annotation), executor))
+                .collect(toList());
 
-        Set<Class<? extends Module>> modulesFromAnnotationClasses = modulesFromAnnotations
+        final Set<Class<? extends Module>> modulesFromAnnotationClasses = importAnnotations
                 .stream()
-                .map(Module::getClass)
+                .map(annotation -> annotation.annotationType().getAnnotation(Import.class).value())
                 .collect(toSet());
 
-        final Set<Module> modulesFromPath = nonAbstractTypes(reflections.getSubTypesOf(Module.class))
+        final List<CompletableFuture<Module>> modulesFromPathFutures = nonAbstractTypes(classCatalog.getSubTypesOf(Module.class))
                 .stream()
                 .filter(moduleClass -> !modulesFromAnnotationClasses.contains(moduleClass))
-                .map(moduleClass -> createModule(moduleClass, reflections, null))
-                .collect(toSet());
+                .filter(moduleClass -> !sharedModuleClasses.contains(moduleClass))
+                .map(moduleClass -> supplyAsync(() -> createModule(moduleClass, reflectionsSupplier, this::getInjector, null), executor))
+                .collect(toList());
 
-        Iterable<Module> allModules = concat(
-                modulesFromAnnotations,
-                modulesFromPath
+        Iterable<CompletableFuture<Module>> allModules = concat(
+                modulesFromAnnotationsFutures,
+                modulesFromPathFutures
         );
 
         List<Module> nonOverrideModules = new ArrayList<>();
         List<Module> overrideModules = new ArrayList<>();
 
-        for (Module module : allModules) {
+        for (CompletableFuture<Module> moduleFuture : allModules) {
+            final Module module = join(moduleFuture);
+
             if (module.getClass().isAnnotationPresent(OverrideBindings.class)) {
                 overrideModules.add(module);
             } else {
@@ -159,21 +517,92 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
          * from dynamically loaded modules, see {@link RuntimeModule}.
          * This is done first so modules can install their own reflections.
          */
-        Module combinedModules = override(nonOverrideModules).with(overrideModules);
-
-        this.viewClasses = nonAbstractTypes(reflections.getSubTypesOf(View.class));
-        this.uiClasses = nonAbstractTypes(reflections.getSubTypesOf(UI.class));
-        this.bootStrapListenerClasses = nonAbstractTypes(reflections.getSubTypesOf(BootstrapListener.class));
-        this.vaadinServiceInitListenerClasses = nonAbstractTypes(reflections.getSubTypesOf(VaadinServiceInitListener.class));
-        this.requestHandlerClasses = nonAbstractTypes(reflections.getSubTypesOf(RequestHandler.class));
-        this.controllerClasses = nonAbstractTypes(reflections.getTypesAnnotatedWith(Controller.class));
-        this.sessionInitListenerClasses = nonAbstractTypes(reflections.getSubTypesOf(SessionInitListener.class))
+        return override(nonOverrideModules).with(overrideModules);
+    }
+
+    private SharedStartupState.Catalog createCatalog(String[] packagesToScan, StartupTimer startupTimer) {
+        final IndexedClassCatalog indexedClassCatalog = startupTimer.time(
+                "class-index loading",
+                () -> IndexedClassCatalog.load(getClass().getClassLoader(), packagesToScan)
+        );
+
+        if (indexedClassCatalog != null) {
+            //only needed for modules that want to do their own scanning
+            return new SharedStartupState.Catalog(indexedClassCatalog, memoize(() -> new Reflections((Object[]) packagesToScan)));
+        }
+
+        Reflections reflections = startupTimer.time("classpath scanning", () -> new Reflections((Object[]) packagesToScan));
+
+        return new SharedStartupState.Catalog(new ReflectionsClassCatalog(reflections), () -> reflections);
+    }
+
+    private Injector createSharedInjector(Stage stage, Set<Class<? extends Module>> moduleClasses, Supplier<Reflections> reflectionsSupplier) {
+        final AtomicReference<Injector> sharedInjector = new AtomicReference<>();
+
+        final List<Module> modules = moduleClasses
+                .stream()
+                .map(moduleClass -> createModule(moduleClass, reflectionsSupplier, () -> checkNotNull(sharedInjector.get(), "injector is not set up yet"), null))
+                .collect(toList());
+
+        sharedInjector.set(createInjector(stage, modules));
+
+        return sharedInjector.get();
+    }
+
+    /**
+     * guice creates just-in-time bindings in the parent-injector whenever possible, where neither
+     * UISetup nor the controller-listeners of VaadinModule apply, so UIs, Views and the classes
+     * controllers are attached to need to be bound in the child-injector, unless the modules of
+     * this servlet already do so.
+     */
+    private Set<Class<?>> getClassesToBindInChildInjector(List<Element> elements) {
+        final Set<Key<?>> boundKeys = elements
                 .stream()
-                .filter(cls -> !VaadinServlet.class.isAssignableFrom(cls))
+                .filter(element -> element instanceof Binding)
+                .map(element -> ((Binding<?>) element).getKey())
                 .collect(toSet());
 
-        List<Class<? extends UidlRequestHandler>> customUildRequestHandlers =
-                new ArrayList<>(nonAbstractTypes(reflections.getSubTypesOf(UidlRequestHandler.class)));
+        return Stream
+                .of(
+                        uiClasses.stream(),
+                        viewClasses.stream(),
+                        controllerClasses.stream().map(controllerClass -> controllerClass.getAnnotation(Controller.class).value())
+                )
+                .flatMap(classes -> classes)
+                .filter(cls -> !cls.isInterface() && !isAbstract(cls.getModifiers()))
+                .filter(cls -> !boundKeys.contains(Key.get(cls)))
+                .collect(toSet());
+    }
+
+    private void sortClasses(ClassCatalog classCatalog, Executor executor) {
+        final CompletableFuture<Set<Class<? extends View>>> viewClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(View.class)), executor);
+        final CompletableFuture<Set<Class<? extends UI>>> uiClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(UI.class)), executor);
+        final CompletableFuture<Set<Class<? extends BootstrapListener>>> bootStrapListenerClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(BootstrapListener.class)), executor);
+        final CompletableFuture<Set<Class<? extends VaadinServiceInitListener>>> vaadinServiceInitListenerClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(VaadinServiceInitListener.class)), executor);
+        final CompletableFuture<Set<Class<? extends RequestHandler>>> requestHandlerClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(RequestHandler.class)), executor);
+        final CompletableFuture<Set<Class<?>>> controllerClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getTypesAnnotatedWith(Controller.class)), executor);
+        final CompletableFuture<Set<Class<? extends SessionInitListener>>> sessionInitListenerClasses = supplyAsync(
+                () -> nonAbstractTypes(classCatalog.getSubTypesOf(SessionInitListener.class))
+                        .stream()
+                        .filter(cls -> !VaadinServlet.class.isAssignableFrom(cls))
+                        .collect(toSet()),
+                executor
+        );
+        final CompletableFuture<Set<Class<? extends UidlRequestHandler>>> customUidlRequestHandlers = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(UidlRequestHandler.class)), executor);
+        final CompletableFuture<Set<Class<? extends SessionDestroyListener>>> sessionDestroyListenerClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(SessionDestroyListener.class)), executor);
+        final CompletableFuture<Set<Class<? extends ServiceDestroyListener>>> serviceDestroyListeners = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(ServiceDestroyListener.class)), executor);
+        final CompletableFuture<Set<Class<? extends ViewChangeListener>>> viewChangeListenerClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(ViewChangeListener.class)), executor);
+        final CompletableFuture<Set<Class<? extends MetricsListener>>> metricsListenerClasses = supplyAsync(() -> nonAbstractTypes(classCatalog.getSubTypesOf(MetricsListener.class)), executor);
+
+        this.viewClasses = join(viewClasses);
+        this.uiClasses = join(uiClasses);
+        this.bootStrapListenerClasses = join(bootStrapListenerClasses);
+        this.vaadinServiceInitListenerClasses = join(vaadinServiceInitListenerClasses);
+        this.requestHandlerClasses = join(requestHandlerClasses);
+        this.controllerClasses = join(controllerClasses);
+        this.sessionInitListenerClasses = join(sessionInitListenerClasses);
+
+        List<Class<? extends UidlRequestHandler>> customUildRequestHandlers = new ArrayList<>(join(customUidlRequestHandlers));
 
         if (1 == customUildRequestHandlers.size()) {
             this.customUidlRequestHandlerClass = customUildRequestHandlers.get(0);
@@ -182,22 +611,113 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
                     "UildRequestHandler. Scanning the given packagesToScan returned '%s' classes.", customUildRequestHandlers.size()));
         }
 
-        this.sessionDestroyListenerClasses = nonAbstractTypes(reflections.getSubTypesOf(SessionDestroyListener.class));
-        this.serviceDestroyListeners = nonAbstractTypes(reflections.getSubTypesOf(ServiceDestroyListener.class));
-        this.uiScope = new UIScope();
-        this.viewScope = new ViewScope();
-        this.vaadinSessionScoper = new VaadinSessionScope();
-        this.viewProvider = new GuiceViewProvider(this);
-        this.guiceUIProvider = new GuiceUIProvider(this);
+        this.sessionDestroyListenerClasses = join(sessionDestroyListenerClasses);
+        this.serviceDestroyListeners = join(serviceDestroyListeners);
+        this.viewChangeListenerClasses = join(viewChangeListenerClasses);
+        this.metricsListenerClasses = join(metricsListenerClasses);
+
+        this.forUIRegistry = new ForUIRegistry(this.uiClasses, this.viewClasses, this.viewChangeListenerClasses, this.controllerClasses);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    private Stage getStage(ServletConfig servletConfig) {
+        final String initParameter = servletConfig.getInitParameter("injectorStage");
+
+        final InjectorStage annotation = getClass().getAnnotation(InjectorStage.class);
+
+        if (!isNullOrEmpty(initParameter)) {
+            checkState(
+                    annotation == null,
+                    "%s has both @InjectorStage-annotation and an 'injectorStage'-initParam",
+                    getClass()
+            );
+
+            return Stage.valueOf(initParameter.trim().toUpperCase());
+        }
+
+        return annotation != null ? annotation.value() : Stage.DEVELOPMENT;
+    }
+
+    private boolean isParallelStartup(ServletConfig servletConfig) {
+        final String initParameter = servletConfig.getInitParameter("parallelStartup");
+
+        final boolean annotationPresent = getClass().isAnnotationPresent(ParallelStartup.class);
+
+        if (!isNullOrEmpty(initParameter)) {
+            checkState(
+                    !annotationPresent,
+                    "%s has both @ParallelStartup-annotation and an 'parallelStartup'-initParam",
+                    getClass()
+            );
+
+            return Boolean.parseBoolean(initParameter.trim());
+        }
+
+        return annotationPresent;
+    }
+
+    private int getBackgroundThreads(ServletConfig servletConfig) {
+        final String initParameter = servletConfig.getInitParameter("backgroundThreads");
+
+        if (isNullOrEmpty(initParameter)) {
+            return Runtime.getRuntime().availableProcessors();
+        }
+
+        final int backgroundThreads = Integer.parseInt(initParameter.trim());
+
+        checkArgument(backgroundThreads > 0, "'backgroundThreads'-initParam must be positive, but is %s", backgroundThreads);
+
+        return backgroundThreads;
+    }
+
+    /**
+     * @return the number of synthetic rounds of the warmup, or -1 if there is no warmup
+     */
+    private int getWarmupRounds(ServletConfig servletConfig) {
+        final String initParameter = servletConfig.getInitParameter("warmup");
+
+        final Warmup annotation = getClass().getAnnotation(Warmup.class);
+
+        if (!isNullOrEmpty(initParameter)) {
+            checkState(
+                    annotation == null,
+                    "%s has both @Warmup-annotation and an 'warmup'-initParam",
+                    getClass()
+            );
 
-        this.viewChangeListenerClasses = nonAbstractTypes(reflections.getSubTypesOf(ViewChangeListener.class));
+            final String value = initParameter.trim();
 
-        //sets up the basic vaadin stuff like UISetup
-        VaadinModule vaadinModule = new VaadinModule(this);
+            if (value.equalsIgnoreCase("true")) {
+                return 0;
+            } else if (value.equalsIgnoreCase("false")) {
+                return -1;
+            }
+
+            final int rounds = Integer.parseInt(value);
+
+            checkArgument(rounds >= 0, "'warmup'-initParam must be true, false or a non-negative number of rounds, but is %s", value);
+
+            return rounds;
+        }
+
+        if (annotation == null) {
+            return -1;
+        }
 
-        this.injector = createInjector(vaadinModule, combinedModules);
+        checkArgument(annotation.rounds() >= 0, "rounds of @Warmup must not be negative");
 
-        super.init(servletConfig);
+        return annotation.rounds();
     }
 
     private <U> Set<Class<? extends U>> nonAbstractTypes(Set<Class<? extends U>> types) {
@@ -213,6 +733,8 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
 
         vaadinService.addSessionInitListener(this);
 
+        vaadinService.addSessionDestroyListener(event -> destroyScopes(event.getSession()));
+
         sessionInitListenerClasses
                 .stream()
                 .map(getInjector()::getInstance)
@@ -257,10 +779,76 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
                 .forEach(session::addRequestHandler);
     }
 
+    /**
+     * sessions refer to the servlet, which cannot be serialized, so a reference to the servlet of
+     * the same name is written instead
+     */
+    protected Object writeReplace() throws ObjectStreamException {
+        return new ServletReference(this, ServletReference.Target.SERVLET);
+    }
+
+    /**
+     * re-injects the transient fields of UIs and scoped instances restored after deserialization
+     */
+    void injectTransientMembers(Object instance) {
+        TransientMembers.inject(instance, getInjector());
+    }
+
+    /**
+     * ends the scopes of a UI, called when the UI is detached
+     */
+    void destroyScopes(VaadinSession vaadinSession, UI ui) {
+        viewProvider.removeUI(vaadinSession, ui);
+        viewScope.destroy(vaadinSession, ui);
+        uiScope.destroy(vaadinSession, ui);
+    }
+
+    /**
+     * ends the scopes of a view that was evicted from the view-cache
+     */
+    void destroyScopes(VaadinSession vaadinSession, UI ui, View view) {
+        viewScope.destroy(vaadinSession, ui, view);
+        //views live in the UIScope, see VaadinModule
+        uiScope.remove(vaadinSession, ui, Key.get(view.getClass()));
+    }
+
+    /**
+     * ends all scopes of a session, called when the session is destroyed
+     */
+    void destroyScopes(VaadinSession vaadinSession) {
+        viewProvider.removeSession(vaadinSession);
+        viewScope.destroy(vaadinSession);
+        uiScope.destroy(vaadinSession);
+        vaadinSessionScoper.destroy(vaadinSession);
+    }
+
+    /**
+     * the metrics of this servlet, also available via JMX
+     */
+    public GuiceVaadinMetricsMXBean getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * the number and estimated size of the instances in UIScope, ViewScope and VaadinSessionScope,
+     * also available via JMX
+     */
+    public ScopeFootprintMXBean getScopeFootprint() {
+        return scopeFootprint;
+    }
+
+    GuiceVaadinMetrics getGuiceVaadinMetrics() {
+        return metrics;
+    }
+
     GuiceViewProvider getViewProvider() {
         return viewProvider;
     }
 
+    ExecutorService getScopePropagatingExecutor() {
+        return scopePropagatingExecutor;
+    }
+
     GuiceUIProvider getGuiceUIProvider() {
         return guiceUIProvider;
     }
@@ -296,91 +884,38 @@ public class GuiceVaadinServlet extends VaadinServlet implements SessionInitList
     }
 
     Set<Class<? extends ViewChangeListener>> getViewChangeListeners(Class<? extends UI> uiClass) {
-        return viewChangeListenerCache.computeIfAbsent(uiClass, u -> getApplicable(u, viewChangeListenerClasses));
+        return forUIRegistry.getViewChangeListeners(uiClass);
     }
 
     Set<Class<?>> getControllerClasses(Class<? extends UI> uiClass) {
-        return controllerCache.computeIfAbsent(uiClass, uic -> getApplicableControllers(uic, controllerClasses));
+        return forUIRegistry.getControllerClasses(uiClass);
     }
 
     Set<Class<?>> getControllerClasses() {
         return controllerClasses;
     }
 
-    private <T> Set<Class<? extends T>> getApplicableControllers(Class<? extends UI> uiClass, Set<Class<? extends T>> classes) {
-        return ImmutableSet.copyOf(
-                classes
-                        .stream()
-                        .filter(t -> t.getAnnotation(Controller.class).value().equals(uiClass))
-                        .iterator()
-        );
-    }
-
-    private <T> Set<Class<? extends T>> getApplicable(Class<? extends UI> uiClass, Set<Class<? extends T>> classes) {
-        return ImmutableSet.copyOf(
-                classes
-                        .stream()
-                        .filter(t -> appliesForUI(uiClass, t))
-                        .iterator()
-        );
+    /**
+     * the views that are navigable from the given UI
+     */
+    Set<Class<? extends View>> getViewClasses(Class<? extends UI> uiClass) {
+        return forUIRegistry.getViewClasses(uiClass);
     }
 
     boolean appliesForUI(Class<? extends UI> uiClass, Class<?> clazz) {
-
-        checkState(uiClasses.contains(uiClass), "ui class not registered: %s", uiClass);
-
-        final ForUI forUI = clazz.getAnnotation(ForUI.class);
-
-        if (forUI == null) {
-            return true;
-        }
-
-        final List<Class<? extends UI>> applicableUIs = asList(forUI.value());
-
-        checkArgument(!applicableUIs.isEmpty(), "@ForUI#value() must not be empty at %s", uiClass);
-
-        return applicableUIs.contains(uiClass);
+        return forUIRegistry.appliesForUI(uiClass, clazz);
     }
 
-    private Module createModule(Class<? extends Module> moduleClass, Reflections reflections, Annotation annotation) {
-
-        for (Constructor<?> constructor : moduleClass.getDeclaredConstructors()) {
-
-            Object[] initArgs = new Object[constructor.getParameterCount()];
-
-            Class<?>[] parameterTypes = constructor.getParameterTypes();
-
-            boolean allParameterTypesResolved = true;
+    private Module createModule(Class<? extends Module> moduleClass, Supplier<Reflections> reflectionsSupplier, Provider<Injector> injectorProvider, Annotation annotation) {
 
-            for (int i = 0; i < parameterTypes.length; i++) {
-                Class<?> parameterType = parameterTypes[i];
+        //generated by ClassIndexProcessor, so no constructor needs to be looked up reflectively
+        final ModuleFactory moduleFactory = moduleFactories.get(moduleClass);
 
-                if (Reflections.class.equals(parameterType)) {
-                    initArgs[i] = reflections;
-                } else if (injectorProviderType.equals(parameterType)) {
-                    initArgs[i] = (Provider<Injector>) this::getInjector;
-                } else if (annotation != null && annotation.annotationType().equals(parameterType)) {
-                    initArgs[i] = annotation;
-                } else {
-                    allParameterTypesResolved = false;
-                    break;
-                }
-            }
-
-            if (!allParameterTypesResolved) {
-                continue;
-            }
-
-            constructor.setAccessible(true);
-
-            try {
-                return (Module) constructor.newInstance(initArgs);
-            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-                throw new RuntimeException(e);
-            }
+        if (moduleFactory != null) {
+            return moduleFactory.create(reflectionsSupplier, injectorProvider, annotation);
         }
 
-        throw new IllegalStateException("no suitable constructor found for %s" + moduleClass);
+        return ModuleFactories.createReflectively(moduleClass, reflectionsSupplier, injectorProvider, annotation);
     }
 
     protected Injector getInjector() {
@@ -1,17 +1,32 @@
 package com.vaadin.guice.server;
 
+import com.google.common.base.Ticker;
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.inject.Key;
+
 import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.guice.annotation.Pooled;
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewProvider;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
 
-import java.util.HashMap;
+import java.io.ObjectStreamException;
+import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.stream.Collectors.toMap;
 
 /**
@@ -26,18 +41,32 @@ import static java.util.stream.Collectors.toMap;
  */
 class GuiceViewProvider extends ViewProviderBase {
 
-    private final Map<VaadinSession, Map<UI, Map<String, View>>> viewCache = new WeakHashMap<>();
+    private static final Logger logger = Logger.getLogger(GuiceViewProvider.class.getName());
+
+    private final ConcurrentMap<VaadinSession, ConcurrentMap<UI, ViewCache>> viewCache = new MapMaker().weakKeys().makeMap();
     private final Map<Class<? extends UI>, Map<String, Class<? extends View>>> viewMap = new ConcurrentHashMap<>();
+    private final Map<Class<? extends UI>, PathTrie<String>> viewNames = new ConcurrentHashMap<>();
+    private final Map<Class<? extends UI>, ViewCachePolicy> uiCachePolicies = new ConcurrentHashMap<>();
+    private final Map<Class<? extends View>, ViewCachePolicy> viewCachePolicies = new ConcurrentHashMap<>();
+    private final Map<Class<? extends UI>, ViewPrefetcher> prefetchers = new ConcurrentHashMap<>();
+    private final Map<Class<? extends View>, Integer> viewPoolSizes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<VaadinSession, ConcurrentMap<Class<? extends View>, ViewPool>> viewPools = new MapMaker().weakKeys().makeMap();
+    private final Ticker ticker;
+    private final ExecutorService prefetchExecutor;
 
     GuiceViewProvider(GuiceVaadinServlet guiceVaadinServlet) {
+        this(guiceVaadinServlet, Ticker.systemTicker());
+    }
+
+    GuiceViewProvider(GuiceVaadinServlet guiceVaadinServlet, Ticker ticker) {
         super(guiceVaadinServlet);
+        this.ticker = ticker;
 
         for (Class<? extends UI> uiClass : guiceVaadinServlet.getUiClasses()) {
 
             Map<String, Class<? extends View>> uiSpecificViewMap = guiceVaadinServlet
-                    .getViewClasses()
+                    .getViewClasses(uiClass)
                     .stream()
-                    .filter(vc -> guiceVaadinServlet.appliesForUI(uiClass, vc))
                     .collect(
                             toMap(
                                     vc -> vc.getAnnotation(GuiceView.class).value().toLowerCase(),
@@ -46,28 +75,60 @@ class GuiceViewProvider extends ViewProviderBase {
                     );
 
             viewMap.put(uiClass, uiSpecificViewMap);
+
+            //every view-name also matches the names below it, so 'orders' matches 'orders/42'
+            final PathTrie<String> uiSpecificViewNames = new PathTrie<>();
+
+            for (String viewName : uiSpecificViewMap.keySet()) {
+                uiSpecificViewNames.putPrefix(viewName, viewName);
+            }
+
+            viewNames.put(uiClass, uiSpecificViewNames);
+
+            final ViewCachePolicy uiCachePolicy = ViewCachePolicy.forUI(uiClass);
+
+            uiCachePolicies.put(uiClass, uiCachePolicy);
+
+            for (Class<? extends View> viewClass : uiSpecificViewMap.values()) {
+                viewCachePolicies.put(viewClass, ViewCachePolicy.forView(viewClass, uiCachePolicy));
+
+                final Pooled pooled = viewClass.getAnnotation(Pooled.class);
+
+                if (pooled != null) {
+                    checkState(PooledView.class.isAssignableFrom(viewClass), "%s is annotated with @Pooled, but does not implement PooledView", viewClass);
+                    checkState(pooled.maxSize() > 0, "maxSize of @Pooled must be positive at %s", viewClass);
+
+                    viewPoolSizes.put(viewClass, pooled.maxSize());
+                }
+            }
+
+            final ViewPrefetcher prefetcher = ViewPrefetcher.forUI(uiClass, uiSpecificViewMap.keySet());
+
+            if (prefetcher != null) {
+                prefetchers.put(uiClass, prefetcher);
+            }
         }
+
+        //views are constructed on this thread without the session's lock and handed over via UI#access
+        prefetchExecutor = prefetchers.isEmpty()
+                ? null
+                : Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("vaadin-guice-view-prefetch-%d").setDaemon(true).build());
     }
 
+    /**
+     * returns the longest registered view-name that the given navigation-state starts with,
+     * followed by either the end of the state or a '/', so hierarchical view-names like
+     * 'orders/detail' are supported. Matching is case-insensitive and happens in place, the
+     * returned name is the registered one, so no strings are allocated.
+     */
     @Override
     public String getViewName(String viewNameAndParameters) {
         checkNotNull(viewNameAndParameters);
 
-        final int indexOfDelimiter = viewNameAndParameters.indexOf('/');
-
-        String viewName = indexOfDelimiter != -1
-                ? viewNameAndParameters.substring(0, indexOfDelimiter)
-                : viewNameAndParameters;
-
-        //view-names are case-insensitive
-        viewName = viewName.toLowerCase();
-
         final UI currentUI = checkNotNull(UI.getCurrent());
 
-        final Map<String, Class<? extends View>> uiSpecificViewMap = viewMap.get(currentUI.getClass());
-
         //if no view is registered under this name, null is to be returned
-        return uiSpecificViewMap.containsKey(viewName) ? viewName : null;
+        return viewNames.get(currentUI.getClass()).get(viewNameAndParameters);
     }
 
     @Override
@@ -78,13 +139,203 @@ class GuiceViewProvider extends ViewProviderBase {
             "VaadinSession is not set up yet"
         );
 
-        final Map<UI, Map<String, View>> uiToViewsMap = viewCache.computeIfAbsent(vaadinSession, s -> new HashMap<>());
+        final ConcurrentMap<UI, ViewCache> uiToViewCache = viewCache.computeIfAbsent(vaadinSession, s -> new MapMaker().weakKeys().makeMap());
 
         final UI ui = checkNotNull(UI.getCurrent(), "current UI is not set up yet");
 
-        final Map<String, View> viewMap = uiToViewsMap.computeIfAbsent(ui, u -> new HashMap<>());
+        final ViewCache viewCache = uiToViewCache.computeIfAbsent(ui, u -> new ViewCache(uiCachePolicies.get(u.getClass())));
+
+        final View currentView = ui.getNavigator() != null ? ui.getNavigator().getCurrentView() : null;
+
+        final long now = ticker.read();
+
+        release(vaadinSession, ui, viewCache.evict(now, currentView));
+
+        View view = viewCache.get(viewName, now);
+
+        if (view == null) {
+            view = takePrefetched(viewCache, viewName);
 
-        return viewMap.computeIfAbsent(viewName, vn -> createView(ui, viewName));
+            if (view == null) {
+                //a view may navigate to other views while being constructed, so the cache is not locked here
+                view = createView(ui, viewName);
+            }
+
+            viewCache.put(viewName, view, viewCachePolicies.get(view.getClass()), now);
+
+            release(vaadinSession, ui, viewCache.evict(now, currentView, view));
+        }
+
+        final ViewPrefetcher prefetcher = prefetchers.get(ui.getClass());
+
+        if (prefetcher != null) {
+            final String previousViewName = viewCache.navigatedTo(viewName);
+
+            for (String nextViewName : prefetcher.navigated(previousViewName, viewName)) {
+                schedulePrefetch(vaadinSession, ui, viewCache, nextViewName);
+            }
+        }
+
+        return view;
+    }
+
+    //a view that is being prefetched is waited for instead of being created a second time in the same UI-scope
+    private View takePrefetched(ViewCache viewCache, String viewName) {
+        final ViewCache.Prefetch prefetch = viewCache.removePrefetch(viewName);
+
+        //not started yet, so the prefetch will skip it
+        if (prefetch == null || prefetch.claim()) {
+            return null;
+        }
+
+        try {
+            return prefetch.view.join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    private void schedulePrefetch(VaadinSession vaadinSession, UI ui, ViewCache viewCache, String viewName) {
+        final Class<? extends View> viewClass = viewMap.get(ui.getClass()).get(viewName);
+
+        if (!viewCachePolicies.get(viewClass).isCaching() || !viewCache.isPrefetchable(viewName)) {
+            return;
+        }
+
+        final ViewCache.Prefetch prefetch = viewCache.startPrefetch(viewName);
+
+        final ScopeContext scopeContext = ScopeContext.capture();
+
+        try {
+            prefetchExecutor.execute(() -> {
+                //navigated to in the meantime
+                if (!prefetch.claim()) {
+                    return;
+                }
+
+                scopeContext.run(() -> {
+                    try {
+                        prefetch.view.complete(createView(ui, viewName));
+                    } catch (Throwable t) {
+                        logger.log(Level.FINE, "prefetching view " + viewName + " failed", t);
+                        prefetch.view.completeExceptionally(t);
+                    }
+                });
+
+                try {
+                    ui.access(() -> handOver(vaadinSession, ui, viewCache, viewName, prefetch));
+                } catch (UIDetachedException e) {
+                    discard(vaadinSession, ui, viewCache, viewName, prefetch);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //the servlet is being destroyed
+            viewCache.removePrefetch(viewName, prefetch);
+        }
+    }
+
+    private void handOver(VaadinSession vaadinSession, UI ui, ViewCache viewCache, String viewName, ViewCache.Prefetch prefetch) {
+        final ConcurrentMap<UI, ViewCache> uiToViewCache = this.viewCache.get(vaadinSession);
+
+        //the UI may have been detached in the meantime
+        if (uiToViewCache == null || uiToViewCache.get(ui) != viewCache) {
+            discard(vaadinSession, ui, viewCache, viewName, prefetch);
+            return;
+        }
+
+        //a navigation to the view took it over
+        if (!viewCache.removePrefetch(viewName, prefetch)) {
+            return;
+        }
+
+        if (prefetch.view.isCompletedExceptionally()) {
+            return;
+        }
+
+        final View view = prefetch.view.join();
+
+        final long now = ticker.read();
+
+        viewCache.put(viewName, view, viewCachePolicies.get(view.getClass()), now);
+
+        final View currentView = ui.getNavigator() != null ? ui.getNavigator().getCurrentView() : null;
+
+        release(vaadinSession, ui, viewCache.evict(now, currentView));
+    }
+
+    private void discard(VaadinSession vaadinSession, UI ui, ViewCache viewCache, String viewName, ViewCache.Prefetch prefetch) {
+        if (viewCache.removePrefetch(viewName, prefetch) && !prefetch.view.isCompletedExceptionally()) {
+            guiceVaadinServlet.destroyScopes(vaadinSession, ui, prefetch.view.join());
+        }
+    }
+
+    void shutdown() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
+    private void release(VaadinSession vaadinSession, UI ui, List<View> views) {
+        for (View view : views) {
+            final ViewPool viewPool = getViewPool(vaadinSession, view.getClass());
+
+            if (viewPool == null || viewPool.isFull()) {
+                guiceVaadinServlet.destroyScopes(vaadinSession, ui, view);
+                continue;
+            }
+
+            //the view itself survives, everything it got from it's ViewScope does not
+            guiceVaadinServlet.getViewScope().destroy(vaadinSession, ui, view);
+            guiceVaadinServlet.getUiScope().detach(vaadinSession, ui, Key.get(view.getClass()));
+
+            final PooledView pooledView = (PooledView) view;
+
+            pooledView.reset();
+
+            //the pool was filled by another UI of the session in the meantime
+            if (!viewPool.offer(pooledView)) {
+                ScopedObjects.preDestroy(pooledView);
+            }
+        }
+    }
+
+    private ViewPool getViewPool(VaadinSession vaadinSession, Class<? extends View> viewClass) {
+        final Integer viewPoolSize = viewPoolSizes.get(viewClass);
+
+        if (viewPoolSize == null) {
+            return null;
+        }
+
+        return viewPools
+                .computeIfAbsent(vaadinSession, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(viewClass, c -> new ViewPool(viewPoolSize));
+    }
+
+    void removeUI(VaadinSession vaadinSession, UI ui) {
+        final ConcurrentMap<UI, ViewCache> uiToViewCache = viewCache.get(vaadinSession);
+
+        if (uiToViewCache != null) {
+            uiToViewCache.remove(ui);
+        }
+    }
+
+    /**
+     * the number of views kept for all UIs of the given session
+     */
+    int getCachedViewCount(VaadinSession vaadinSession) {
+        final ConcurrentMap<UI, ViewCache> uiToViewCache = viewCache.get(vaadinSession);
+
+        return uiToViewCache != null ? uiToViewCache.values().stream().mapToInt(ViewCache::size).sum() : 0;
+    }
+
+    void removeSession(VaadinSession vaadinSession) {
+        viewCache.remove(vaadinSession);
+
+        final ConcurrentMap<Class<? extends View>, ViewPool> sessionViewPools = viewPools.remove(vaadinSession);
+
+        if (sessionViewPools != null) {
+            sessionViewPools.values().forEach(viewPool -> viewPool.clear().forEach(ScopedObjects::preDestroy));
+        }
     }
 
     private View createView(UI ui, String viewName) {
@@ -92,6 +343,15 @@ class GuiceViewProvider extends ViewProviderBase {
 
         final Class<? extends View> viewClass = checkNotNull(uiSpecificViewMap.get(viewName));
 
-        return getView(viewClass);
+        final ViewPool viewPool = getViewPool(VaadinSession.getCurrent(), viewClass);
+
+        final PooledView pooledView = viewPool != null ? viewPool.poll() : null;
+
+        return pooledView != null ? reuseView(pooledView) : getView(viewClass);
+    }
+
+    //sessions refer to this provider, which holds on to the servlet, see ServletReference
+    private Object writeReplace() throws ObjectStreamException {
+        return new ServletReference(guiceVaadinServlet, ServletReference.Target.VIEW_PROVIDER);
     }
 }
@@ -0,0 +1,147 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.processor.ClassIndexProcessor;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * {@link ClassCatalog} that is backed by the index written by {@link ClassIndexProcessor}, so no
+ * classpath-scanning is required at startup
+ */
+class IndexedClassCatalog implements ClassCatalog {
+
+    private static final Logger logger = Logger.getLogger(IndexedClassCatalog.class.getName());
+
+    private final Map<String, Set<String>> index;
+    private final String[] packagePrefixes;
+    private final ClassLoader classLoader;
+
+    private IndexedClassCatalog(Map<String, Set<String>> index, String[] packages, ClassLoader classLoader) {
+        this.index = index;
+        this.classLoader = classLoader;
+        this.packagePrefixes = new String[packages.length];
+
+        for (int i = 0; i < packages.length; i++) {
+            packagePrefixes[i] = packages[i] + ".";
+        }
+    }
+
+    /**
+     * loads and merges all indices on the classpath. Returns null if there is none or if one of
+     * the packages has no entries in it, since the index may then come from a library and the
+     * classes of the application were compiled without the processor.
+     */
+    static IndexedClassCatalog load(ClassLoader classLoader, String[] packages) {
+        final Enumeration<URL> resources;
+
+        try {
+            resources = classLoader.getResources(ClassIndexProcessor.INDEX_LOCATION);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        if (!resources.hasMoreElements()) {
+            return null;
+        }
+
+        Map<String, Set<String>> index = new HashMap<>();
+
+        while (resources.hasMoreElements()) {
+            final URL url = resources.nextElement();
+
+            try (Reader reader = new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)) {
+                ClassIndexProcessor
+                        .read(reader)
+                        .forEach((key, classNames) -> index.computeIfAbsent(key, k -> new HashSet<>()).addAll(classNames));
+            } catch (IOException e) {
+                throw new RuntimeException("unable to read class-index " + url, e);
+            }
+        }
+
+        final IndexedClassCatalog indexedClassCatalog = new IndexedClassCatalog(index, packages, classLoader);
+
+        for (String packagePrefix : indexedClassCatalog.packagePrefixes) {
+            if (!indexedClassCatalog.isIndexed(packagePrefix)) {
+                logger.log(Level.FINE, "no class in {0} is indexed, scanning the classpath", packagePrefix.substring(0, packagePrefix.length() - 1));
+                return null;
+            }
+        }
+
+        return indexedClassCatalog;
+    }
+
+    private boolean isIndexed(String packagePrefix) {
+        for (Set<String> classNames : index.values()) {
+            for (String className : classNames) {
+                if (className.startsWith(packagePrefix)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Set<Class<? extends T>> getSubTypesOf(Class<T> type) {
+        Set<Class<? extends T>> classes = new HashSet<>();
+
+        for (Class<?> clazz : load(type.getName())) {
+            checkArgument(type.isAssignableFrom(clazz), "class-index is outdated, %s is no subtype of %s", clazz, type);
+            classes.add((Class<? extends T>) clazz);
+        }
+
+        return classes;
+    }
+
+    @Override
+    public Set<Class<?>> getTypesAnnotatedWith(Class<? extends Annotation> annotation) {
+        return load(annotation.getName());
+    }
+
+    private Set<Class<?>> load(String key) {
+        final Set<String> classNames = index.getOrDefault(key, Collections.emptySet());
+
+        Set<Class<?>> classes = new HashSet<>();
+
+        for (String className : classNames) {
+            if (!isInScannedPackages(className)) {
+                continue;
+            }
+
+            try {
+                classes.add(Class.forName(className, false, classLoader));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("class-index is outdated, " + className + " cannot be loaded", e);
+            }
+        }
+
+        return classes;
+    }
+
+    private boolean isInScannedPackages(String className) {
+        for (String packagePrefix : packagePrefixes) {
+            if (className.startsWith(packagePrefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,82 @@
+package com.vaadin.guice.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * lock-free histogram of durations in nanoseconds with power-of-two buckets, so percentiles are
+ * accurate to a factor of two
+ */
+class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    //bucket 0 counts durations of 0, bucket i > 0 durations in [2^(i-1), 2^i)
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(nanos));
+        count.increment();
+        sum.add(nanos);
+
+        long currentMax;
+
+        while (nanos > (currentMax = max.get()) && !max.compareAndSet(currentMax, nanos)) {
+            //retry
+        }
+    }
+
+    LatencySnapshot snapshot() {
+        final long count = this.count.sum();
+
+        long[] counts = new long[BUCKETS];
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+
+        return new LatencySnapshot(
+                count,
+                count == 0 ? 0 : sum.sum() / count,
+                max.get(),
+                percentile(counts, 0.5),
+                percentile(counts, 0.9),
+                percentile(counts, 0.99)
+        );
+    }
+
+    private static long percentile(long[] counts, double percentile) {
+        long total = 0;
+
+        for (long c : counts) {
+            total += c;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long threshold = (long) Math.ceil(total * percentile);
+
+        long seen = 0;
+
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+
+            if (seen >= threshold) {
+                //upper bound of the bucket
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+
+        return Long.MAX_VALUE;
+    }
+}
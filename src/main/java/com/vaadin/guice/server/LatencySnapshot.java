@@ -0,0 +1,54 @@
+package com.vaadin.guice.server;
+
+/**
+ * point-in-time view of a latency histogram. Percentiles are upper bounds of power-of-two buckets,
+ * so they over-estimate by at most a factor of two.
+ */
+public final class LatencySnapshot {
+
+    private final long count;
+    private final long meanNanos;
+    private final long maxNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+
+    LatencySnapshot(long count, long meanNanos, long maxNanos, long p50Nanos, long p90Nanos, long p99Nanos) {
+        this.count = count;
+        this.meanNanos = meanNanos;
+        this.maxNanos = maxNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMeanNanos() {
+        return meanNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencySnapshot{count=" + count + ", mean=" + meanNanos + "ns, max=" + maxNanos
+                + "ns, p50=" + p50Nanos + "ns, p90=" + p90Nanos + "ns, p99=" + p99Nanos + "ns}";
+    }
+}
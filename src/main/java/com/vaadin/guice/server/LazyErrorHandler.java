@@ -0,0 +1,22 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.ErrorEvent;
+import com.vaadin.server.ErrorHandler;
+
+/**
+ * {@link ErrorHandler} that creates the actual error-handler on the first error, see {@link
+ * com.vaadin.guice.annotation.Lazy}
+ */
+class LazyErrorHandler implements ErrorHandler {
+
+    private final LazyUIScoped<? extends ErrorHandler> errorHandler;
+
+    LazyErrorHandler(LazyUIScoped<? extends ErrorHandler> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    @Override
+    public void error(ErrorEvent event) {
+        errorHandler.get().error(event);
+    }
+}
@@ -0,0 +1,58 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * an instance of a class that is created on first access, with the UI it belongs to being current
+ * while it is created so that UI- and session-scoped dependencies resolve to the right UI. Can be
+ * serialized with the UI, the servlet is serialized as a {@link ServletReference}.
+ */
+final class LazyUIScoped<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UI ui;
+    private final GuiceVaadinServlet guiceVaadinServlet;
+    private final Class<? extends T> type;
+    private volatile T instance;
+
+    LazyUIScoped(UI ui, GuiceVaadinServlet guiceVaadinServlet, Class<? extends T> type) {
+        this.ui = ui;
+        this.guiceVaadinServlet = guiceVaadinServlet;
+        this.type = type;
+    }
+
+    T get() {
+        T result = instance;
+
+        if (result == null) {
+            synchronized (this) {
+                result = instance;
+
+                if (result == null) {
+                    instance = result = create();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private T create() {
+        if (UI.getCurrent() == ui) {
+            return guiceVaadinServlet.getInjector().getInstance(type);
+        }
+
+        final Map<Class<?>, CurrentInstance> previousInstances = CurrentInstance.setCurrent(ui);
+
+        try {
+            return guiceVaadinServlet.getInjector().getInstance(type);
+        } finally {
+            CurrentInstance.restoreInstances(previousInstances);
+        }
+    }
+}
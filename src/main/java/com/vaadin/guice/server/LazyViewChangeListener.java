@@ -0,0 +1,26 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.ViewChangeListener;
+
+/**
+ * {@link ViewChangeListener} that creates the actual listener on the first navigation, see {@link
+ * com.vaadin.guice.annotation.Lazy}
+ */
+class LazyViewChangeListener implements ViewChangeListener {
+
+    private final LazyUIScoped<? extends ViewChangeListener> viewChangeListener;
+
+    LazyViewChangeListener(LazyUIScoped<? extends ViewChangeListener> viewChangeListener) {
+        this.viewChangeListener = viewChangeListener;
+    }
+
+    @Override
+    public boolean beforeViewChange(ViewChangeEvent event) {
+        return viewChangeListener.get().beforeViewChange(event);
+    }
+
+    @Override
+    public void afterViewChange(ViewChangeEvent event) {
+        viewChangeListener.get().afterViewChange(event);
+    }
+}
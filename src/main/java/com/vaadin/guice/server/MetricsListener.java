@@ -0,0 +1,48 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.View;
+import com.vaadin.ui.UI;
+
+import java.util.Map;
+
+/**
+ * Receives metrics of a {@link GuiceVaadinServlet}. Implementations in the scanned packages are
+ * created by guice after the injector was created, the metrics of the startup are reported to
+ * them right after that. All methods are no-ops by default, so only the interesting ones need to
+ * be implemented.
+ * <pre>
+ * public class MyMetricsListener implements MetricsListener {
+ *
+ *     &#064;Override
+ *     public void uiCreated(Class&lt;? extends UI&gt; uiClass, long nanos) {
+ *         myMetricsRegistry.timer("ui-creation").record(nanos, TimeUnit.NANOSECONDS);
+ *     }
+ * }
+ * </pre>
+ *
+ * @see GuiceVaadinMetricsMXBean
+ */
+public interface MetricsListener {
+
+    /**
+     * called once after the servlet was initialized
+     *
+     * @param phaseNanos the duration of every startup-phase in nanoseconds, in order of execution
+     * @param scannedClasses the number of classes found per category, like "UI" or "View"
+     * @param bindings the number of bindings in the injector
+     */
+    default void startupCompleted(Map<String, Long> phaseNanos, Map<String, Integer> scannedClasses, int bindings) {
+    }
+
+    /**
+     * called after a UI was created
+     */
+    default void uiCreated(Class<? extends UI> uiClass, long nanos) {
+    }
+
+    /**
+     * called after a View was created
+     */
+    default void viewCreated(Class<? extends View> viewClass, long nanos) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Provider;
+import com.google.inject.TypeLiteral;
+
+import org.reflections.Reflections;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * the {@link ModuleFactory}s on the classpath by the module they create
+ */
+final class ModuleFactories {
+
+    private static final Logger logger = Logger.getLogger(ModuleFactories.class.getName());
+    private static final Class<? super Provider<Injector>> injectorProviderType = new TypeLiteral<Provider<Injector>>() {
+    }.getRawType();
+
+    private ModuleFactories() {
+    }
+
+    static Map<Class<? extends Module>, ModuleFactory> load(ClassLoader classLoader) {
+        Map<Class<? extends Module>, ModuleFactory> factories = new HashMap<>();
+
+        final Iterator<ModuleFactory> iterator = ServiceLoader.load(ModuleFactory.class, classLoader).iterator();
+
+        while (true) {
+            final ModuleFactory moduleFactory;
+
+            try {
+                if (!iterator.hasNext()) {
+                    break;
+                }
+
+                moduleFactory = iterator.next();
+            } catch (ServiceConfigurationError e) {
+                //a stale entry only means the module is created reflectively
+                logger.log(Level.FINE, "skipping module-factory", e);
+                continue;
+            }
+
+            factories.putIfAbsent(moduleFactory.getModuleClass(), moduleFactory);
+        }
+
+        return ImmutableMap.copyOf(factories);
+    }
+
+    /**
+     * creates a module without a factory: the first declared constructor whose parameters are all
+     * either Reflections, guice's Provider of the Injector or the annotation the module is
+     * imported with is called. The generated factories choose the same constructor.
+     */
+    static Module createReflectively(Class<? extends Module> moduleClass, Supplier<Reflections> reflectionsSupplier, Provider<Injector> injectorProvider, Annotation annotation) {
+        for (Constructor<?> constructor : moduleClass.getDeclaredConstructors()) {
+
+            Object[] initArgs = new Object[constructor.getParameterCount()];
+
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+
+            boolean allParameterTypesResolved = true;
+
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Class<?> parameterType = parameterTypes[i];
+
+                if (Reflections.class.equals(parameterType)) {
+                    initArgs[i] = reflectionsSupplier.get();
+                } else if (injectorProviderType.equals(parameterType)) {
+                    initArgs[i] = injectorProvider;
+                } else if (annotation != null && annotation.annotationType().equals(parameterType)) {
+                    initArgs[i] = annotation;
+                } else {
+                    allParameterTypesResolved = false;
+                    break;
+                }
+            }
+
+            if (!allParameterTypesResolved) {
+                continue;
+            }
+
+            constructor.setAccessible(true);
+
+            try {
+                return (Module) constructor.newInstance(initArgs);
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        throw new IllegalStateException("no suitable constructor found for " + moduleClass);
+    }
+}
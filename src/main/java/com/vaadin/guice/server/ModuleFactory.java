@@ -0,0 +1,32 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Provider;
+
+import org.reflections.Reflections;
+
+import java.lang.annotation.Annotation;
+import java.util.function.Supplier;
+
+/**
+ * Creates a {@link Module} by calling it's constructor directly, so {@link GuiceVaadinServlet}
+ * does not need to find and invoke a suitable constructor reflectively at startup.
+ * Implementations are generated by {@link com.vaadin.guice.processor.ClassIndexProcessor} for
+ * every module it compiles and are found via {@link java.util.ServiceLoader}. Modules without a
+ * factory are still created reflectively.
+ */
+public interface ModuleFactory {
+
+    Class<? extends Module> getModuleClass();
+
+    /**
+     * @param reflections      the result of scanning packagesToScan, only to be called if the
+     *                         constructor takes a {@link Reflections}-parameter
+     * @param injectorProvider provides the injector once it is created
+     * @param annotation       the annotation the module was imported with, see {@link
+     *                         com.vaadin.guice.annotation.Import}, or null
+     * @throws IllegalStateException if the module has no constructor for the given annotation
+     */
+    Module create(Supplier<Reflections> reflections, Provider<Injector> injectorProvider, Annotation annotation);
+}
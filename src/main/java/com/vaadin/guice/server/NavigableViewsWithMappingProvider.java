@@ -47,9 +47,8 @@ class NavigableViewsWithMappingProvider implements Provider<Map<String, Class<?
         ImmutableMap.Builder<String, Class<? extends View>> builder = ImmutableMap.builder();
 
         guiceVaadinServlet
-                .getViewClasses()
+                .getViewClasses(uiClass)
                 .stream()
-                .filter(viewClass -> guiceVaadinServlet.appliesForUI(uiClass, viewClass))
                 .filter(viewClass -> !viewClass.equals(annotation.errorView()))
                 .forEach(c -> builder.put(c.getAnnotation(GuiceView.class).value(), c));
 
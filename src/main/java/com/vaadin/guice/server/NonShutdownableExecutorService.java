@@ -0,0 +1,50 @@
+package com.vaadin.guice.server;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * a view on an executor that is shut down by it's owner only, {@link #shutdown()} and {@link
+ * #shutdownNow()} do nothing. Injected beans may shut down executors they get, which must not
+ * stop the background-tasks of the whole servlet.
+ */
+final class NonShutdownableExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    NonShutdownableExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(command);
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -0,0 +1,147 @@
+package com.vaadin.guice.server;
+
+import java.util.Arrays;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * case-insensitive trie of '/'-separated paths. It is filled once at startup and then matched
+ * against regions of {@link CharSequence}s without any allocation, so no substrings or
+ * lower-case copies of request-paths or navigation-states are needed. Besides exact paths,
+ * prefixes can be registered that match the path itself and everything below it, where the
+ * longest registered path wins. Not thread-safe while being filled, read-only afterwards.
+ */
+final class PathTrie<V> {
+
+    private final Node<V> root = new Node<>();
+
+    /**
+     * binds the given path exactly, returns the value that was bound to it before or null
+     */
+    V put(CharSequence path, V value) {
+        final Node<V> node = nodeFor(path);
+
+        final V previousValue = node.value;
+
+        node.value = checkNotNull(value);
+
+        return previousValue;
+    }
+
+    /**
+     * binds the given path and all paths below it, like 'admin' for 'admin/users', returns the
+     * value that was bound as prefix to it before or null
+     */
+    V putPrefix(CharSequence path, V value) {
+        final Node<V> node = nodeFor(path);
+
+        final V previousValue = node.prefixValue;
+
+        node.prefixValue = checkNotNull(value);
+
+        return previousValue;
+    }
+
+    /**
+     * matches the region [start, end) of the given sequence. An exact match wins over a prefix,
+     * longer prefixes win over shorter ones. Returns null if nothing matches.
+     */
+    V get(CharSequence sequence, int start, int end) {
+        Node<V> node = root;
+        V longestPrefixValue = null;
+
+        for (int i = start; i < end; i++) {
+            final char c = sequence.charAt(i);
+
+            //a prefix only matches at the boundary of a segment
+            if (c == '/' && node.prefixValue != null) {
+                longestPrefixValue = node.prefixValue;
+            }
+
+            node = node.child(Character.toLowerCase(c));
+
+            if (node == null) {
+                return longestPrefixValue;
+            }
+        }
+
+        if (node.value != null) {
+            return node.value;
+        }
+
+        return node.prefixValue != null ? node.prefixValue : longestPrefixValue;
+    }
+
+    V get(CharSequence sequence) {
+        return get(sequence, 0, sequence.length());
+    }
+
+    boolean isEmpty() {
+        return root.isEmpty();
+    }
+
+    private Node<V> nodeFor(CharSequence path) {
+        checkNotNull(path);
+
+        Node<V> node = root;
+
+        for (int i = 0; i < path.length(); i++) {
+            node = node.getOrAddChild(Character.toLowerCase(path.charAt(i)));
+        }
+
+        return node;
+    }
+
+    private static final class Node<V> {
+        private static final char[] NO_CHARS = new char[0];
+
+        private char[] chars = NO_CHARS;
+        private Node<V>[] children = newArray(0);
+        private V value;
+        private V prefixValue;
+
+        @SuppressWarnings("unchecked")
+        private static <V> Node<V>[] newArray(int length) {
+            return (Node<V>[]) new Node<?>[length];
+        }
+
+        Node<V> child(char c) {
+            //paths branch rarely, so a linear scan beats hashing here
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] == c) {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+
+        Node<V> getOrAddChild(char c) {
+            Node<V> child = child(c);
+
+            if (child == null) {
+                child = new Node<>();
+                chars = Arrays.copyOf(chars, chars.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                chars[chars.length - 1] = c;
+                children[children.length - 1] = child;
+            }
+
+            return child;
+        }
+
+        boolean isEmpty() {
+            if (value != null || prefixValue != null) {
+                return false;
+            }
+
+            for (Node<V> child : children) {
+                if (!child.isEmpty()) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
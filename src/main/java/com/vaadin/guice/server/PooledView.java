@@ -0,0 +1,15 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.View;
+
+/**
+ * A {@link View} that can be reused, see {@link com.vaadin.guice.annotation.Pooled}.
+ */
+public interface PooledView extends View {
+
+    /**
+     * called when the view is put into the pool, to discard whatever the user entered or was
+     * shown. The view's scopes already ended at this point.
+     */
+    void reset();
+}
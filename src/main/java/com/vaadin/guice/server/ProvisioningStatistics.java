@@ -0,0 +1,138 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Binding;
+import com.google.inject.Key;
+import com.google.inject.Scope;
+import com.google.inject.Scopes;
+import com.google.inject.spi.BindingScopingVisitor;
+
+import java.lang.annotation.Annotation;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * provisioning latencies collected by a {@link ProvisioningTimingModule}. Latencies are inclusive,
+ * meaning the time for provisioning an instance contains the time for provisioning its
+ * dependencies. Scoped instances are only measured when they are actually created, lookups of
+ * existing instances are not recorded.
+ */
+public class ProvisioningStatistics implements ProvisioningStatisticsMXBean {
+
+    private static final Logger logger = Logger.getLogger(ProvisioningStatistics.class.getName());
+
+    private static final BindingScopingVisitor<String> scopeNameVisitor = new BindingScopingVisitor<String>() {
+        @Override
+        public String visitEagerSingleton() {
+            return "Singleton";
+        }
+
+        @Override
+        public String visitScope(Scope scope) {
+            return scope == Scopes.SINGLETON ? "Singleton" : scope.getClass().getSimpleName();
+        }
+
+        @Override
+        public String visitScopeAnnotation(Class<? extends Annotation> scopeAnnotation) {
+            return scopeAnnotation.getSimpleName();
+        }
+
+        @Override
+        public String visitNoScoping() {
+            return "NoScope";
+        }
+    };
+
+    private final ConcurrentMap<Key<?>, LatencyHistogram> byKey = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LatencyHistogram> byScope = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Key<?>, String> scopeNames = new ConcurrentHashMap<>();
+
+    private ObjectName objectName;
+
+    void record(Binding<?> binding, long nanos) {
+        final Key<?> key = binding.getKey();
+
+        byKey.computeIfAbsent(key, k -> new LatencyHistogram()).record(nanos);
+
+        final String scopeName = scopeNames.computeIfAbsent(key, k -> binding.acceptScopingVisitor(scopeNameVisitor));
+
+        byScope.computeIfAbsent(scopeName, s -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * returns the provisioning latencies of the given key or null, if no instance of it was
+     * provisioned yet
+     */
+    public LatencySnapshot get(Key<?> key) {
+        final LatencyHistogram histogram = byKey.get(key);
+
+        return histogram != null ? histogram.snapshot() : null;
+    }
+
+    /**
+     * returns the provisioning latencies of all keys that instances were provisioned for
+     */
+    public Map<Key<?>, LatencySnapshot> getSnapshotsByKey() {
+        ImmutableMap.Builder<Key<?>, LatencySnapshot> builder = ImmutableMap.builder();
+
+        byKey.forEach((key, histogram) -> builder.put(key, histogram.snapshot()));
+
+        return builder.build();
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getLatenciesByKey() {
+        ImmutableMap.Builder<String, LatencySnapshot> builder = ImmutableMap.builder();
+
+        byKey.forEach((key, histogram) -> builder.put(key.toString(), histogram.snapshot()));
+
+        return builder.build();
+    }
+
+    @Override
+    public Map<String, LatencySnapshot> getLatenciesByScope() {
+        ImmutableMap.Builder<String, LatencySnapshot> builder = ImmutableMap.builder();
+
+        byScope.forEach((scope, histogram) -> builder.put(scope, histogram.snapshot()));
+
+        return builder.build();
+    }
+
+    @Override
+    public void reset() {
+        byKey.clear();
+        byScope.clear();
+    }
+
+    void registerMBean(String servletName) {
+        try {
+            objectName = GuiceVaadinMetrics.objectName("ProvisioningStatistics", servletName, this);
+
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (JMException | RuntimeException e) {
+            logger.log(Level.WARNING, "unable to register provisioning statistics for " + servletName + " in JMX", e);
+            objectName = null;
+        }
+    }
+
+    void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "unable to unregister provisioning statistics " + objectName, e);
+        }
+
+        objectName = null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.vaadin.guice.server;
+
+import java.util.Map;
+
+/**
+ * JMX-view of the {@link ProvisioningStatistics} of a {@link GuiceVaadinServlet}
+ */
+public interface ProvisioningStatisticsMXBean {
+
+    /**
+     * provisioning latencies by {@link com.google.inject.Key}
+     */
+    Map<String, LatencySnapshot> getLatenciesByKey();
+
+    /**
+     * provisioning latencies by the scope of the provisioned bindings
+     */
+    Map<String, LatencySnapshot> getLatenciesByScope();
+
+    /**
+     * discards all measurements
+     */
+    void reset();
+}
@@ -0,0 +1,74 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
+import com.google.inject.matcher.AbstractMatcher;
+import com.google.inject.matcher.Matcher;
+import com.google.inject.matcher.Matchers;
+import com.google.inject.spi.ProvisionListener;
+
+import com.vaadin.guice.annotation.ProvisioningTiming;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * measures how long provisioning takes for every binding that matches a given {@link Matcher} and
+ * binds the results as {@link ProvisioningStatistics}. Usually installed via {@link
+ * ProvisioningTiming}, but can be used in any module list as well.
+ */
+public class ProvisioningTimingModule extends AbstractModule {
+
+    private final Matcher<? super Binding<?>> bindingMatcher;
+    private final ProvisioningStatistics statistics = new ProvisioningStatistics();
+
+    public ProvisioningTimingModule(ProvisioningTiming provisioningTiming) {
+        this(provisioningTiming.packages().length == 0 ? Matchers.any() : new InPackagesMatcher(provisioningTiming.packages()));
+    }
+
+    public ProvisioningTimingModule(Matcher<? super Binding<?>> bindingMatcher) {
+        this.bindingMatcher = checkNotNull(bindingMatcher);
+    }
+
+    @Override
+    protected void configure() {
+        bind(ProvisioningStatistics.class).toInstance(statistics);
+
+        bindListener(bindingMatcher, new ProvisionListener() {
+            @Override
+            public <T> void onProvision(ProvisionInvocation<T> provision) {
+                final long start = System.nanoTime();
+
+                try {
+                    provision.provision();
+                } finally {
+                    statistics.record(provision.getBinding(), System.nanoTime() - start);
+                }
+            }
+        });
+    }
+
+    private static class InPackagesMatcher extends AbstractMatcher<Binding<?>> {
+        private final String[] packagePrefixes;
+
+        InPackagesMatcher(String[] packages) {
+            packagePrefixes = new String[packages.length];
+
+            for (int i = 0; i < packages.length; i++) {
+                packagePrefixes[i] = packages[i] + ".";
+            }
+        }
+
+        @Override
+        public boolean matches(Binding<?> binding) {
+            final String typeName = binding.getKey().getTypeLiteral().getRawType().getName();
+
+            for (String packagePrefix : packagePrefixes) {
+                if (typeName.startsWith(packagePrefix)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+    }
+}
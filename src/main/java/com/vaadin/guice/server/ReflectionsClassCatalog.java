@@ -0,0 +1,25 @@
+package com.vaadin.guice.server;
+
+import org.reflections.Reflections;
+
+import java.lang.annotation.Annotation;
+import java.util.Set;
+
+class ReflectionsClassCatalog implements ClassCatalog {
+
+    private final Reflections reflections;
+
+    ReflectionsClassCatalog(Reflections reflections) {
+        this.reflections = reflections;
+    }
+
+    @Override
+    public <T> Set<Class<? extends T>> getSubTypesOf(Class<T> type) {
+        return reflections.getSubTypesOf(type);
+    }
+
+    @Override
+    public Set<Class<?>> getTypesAnnotatedWith(Class<? extends Annotation> annotation) {
+        return reflections.getTypesAnnotatedWith(annotation);
+    }
+}
@@ -0,0 +1,194 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import javax.servlet.ServletContext;
+
+/**
+ * estimates the memory retained by objects by walking their object-graph reflectively and summing
+ * up shallow sizes, assuming a 64-bit JVM with compressed references. Every object is counted only
+ * once per estimator, so objects shared by several roots are attributed to the root that was
+ * walked first. The walk stops at other roots, UIs, sessions and infrastructure like the
+ * injector, as these are either reported separately or not owned by any root. Fields that
+ * cannot be accessed, like in JDK-internal classes on newer JVMs, are not followed, so the result
+ * is a lower bound.
+ */
+final class RetainedSizeEstimator {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+
+    private static final List<Class<?>> NOT_OWNED_TYPES = ImmutableList.of(
+            Class.class,
+            ClassLoader.class,
+            Thread.class,
+            UI.class,
+            VaadinSession.class,
+            VaadinService.class,
+            ServletContext.class,
+            Injector.class,
+            GuiceVaadinServlet.class
+    );
+
+    private static final ClassValue<Layout> layouts = new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return new Layout(type);
+        }
+    };
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> roots = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final int maxObjects;
+
+    /**
+     * @param maxObjects the maximum number of objects to visit, so reporting on huge sessions
+     *                   stays bounded
+     */
+    RetainedSizeEstimator(int maxObjects) {
+        this.maxObjects = maxObjects;
+    }
+
+    /**
+     * roots are only counted when passed to {@link #estimate(Object)} themselves
+     */
+    void addRoot(Object root) {
+        roots.add(root);
+    }
+
+    long estimate(Object root) {
+        long size = 0;
+
+        Deque<Object> stack = new ArrayDeque<>();
+
+        stack.push(root);
+
+        while (!stack.isEmpty() && visited.size() < maxObjects) {
+            final Object object = stack.pop();
+
+            if (!visited.add(object)) {
+                continue;
+            }
+
+            final Class<?> type = object.getClass();
+
+            if (type.isArray()) {
+                final int length = Array.getLength(object);
+                final Class<?> componentType = type.getComponentType();
+
+                if (componentType.isPrimitive()) {
+                    size += align(ARRAY_HEADER + (long) length * primitiveSize(componentType));
+                } else {
+                    size += align(ARRAY_HEADER + (long) length * REFERENCE);
+
+                    for (Object element : (Object[]) object) {
+                        push(stack, element);
+                    }
+                }
+
+                continue;
+            }
+
+            final Layout layout = layouts.get(type);
+
+            size += layout.shallowSize;
+
+            for (Field field : layout.referenceFields) {
+                try {
+                    push(stack, field.get(object));
+                } catch (IllegalAccessException e) {
+                    //not followed
+                }
+            }
+        }
+
+        return size;
+    }
+
+    private void push(Deque<Object> stack, Object object) {
+        if (object == null || visited.contains(object) || roots.contains(object) || isNotOwned(object)) {
+            return;
+        }
+
+        stack.push(object);
+    }
+
+    private static boolean isNotOwned(Object object) {
+        for (Class<?> notOwnedType : NOT_OWNED_TYPES) {
+            if (notOwnedType.isInstance(object)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        } else if (type == int.class || type == float.class) {
+            return 4;
+        } else if (type == short.class || type == char.class) {
+            return 2;
+        } else {
+            return 1;
+        }
+    }
+
+    private static final class Layout {
+        final long shallowSize;
+        final List<Field> referenceFields;
+
+        Layout(Class<?> type) {
+            long fieldsSize = 0;
+
+            ImmutableList.Builder<Field> referenceFields = ImmutableList.builder();
+
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+
+                    if (field.getType().isPrimitive()) {
+                        fieldsSize += primitiveSize(field.getType());
+                        continue;
+                    }
+
+                    fieldsSize += REFERENCE;
+
+                    try {
+                        field.setAccessible(true);
+                        referenceFields.add(field);
+                    } catch (RuntimeException e) {
+                        //inaccessible on newer JVMs, e.g. fields of JDK-internal classes
+                    }
+                }
+            }
+
+            this.shallowSize = align(OBJECT_HEADER + fieldsSize);
+            this.referenceFields = referenceFields.build();
+        }
+    }
+}
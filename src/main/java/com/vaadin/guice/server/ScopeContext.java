@@ -0,0 +1,186 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * The VaadinSession, UI and View that {@link com.vaadin.guice.annotation.VaadinSessionScope},
+ * {@link com.vaadin.guice.annotation.UIScope} and {@link com.vaadin.guice.annotation.ViewScope}
+ * resolve against. These are thread-locals that are only set up on request-threads and in {@link
+ * UI#access(Runnable)}, so background-tasks that need scoped objects capture the context on the
+ * request-thread and run within it:
+ *
+ * <pre>
+ * ScopeContext scopeContext = ScopeContext.capture();
+ *
+ * CompletableFuture.runAsync(() -&gt; scopeContext.run(() -&gt; {
+ *     //UI-scoped objects of the capturing UI can be injected here
+ * }));
+ * </pre>
+ *
+ * Running a task within a context does not lock the session, so components must still be changed
+ * via UI#access. Only weak references to the session and UI are kept, a task whose UI was already
+ * garbage-collected fails just like it would on a thread without any context. The request and
+ * response of the capturing thread are not part of the context, they are recycled by the servlet
+ * container once the request is done. The view is the one
+ * that was current in the navigator when the context was captured, so view-scoped objects stay
+ * the same even if the user navigated away in the meantime.
+ *
+ * @see com.vaadin.guice.annotation.ScopePropagating
+ */
+public final class ScopeContext {
+
+    private static final ThreadLocal<View> currentView = new ThreadLocal<>();
+
+    private final WeakReference<VaadinService> vaadinService;
+    private final WeakReference<VaadinSession> vaadinSession;
+    private final WeakReference<UI> ui;
+    private final WeakReference<View> view;
+
+    private ScopeContext(VaadinService vaadinService, VaadinSession vaadinSession, UI ui, View view) {
+        this.vaadinService = weakReference(vaadinService);
+        this.vaadinSession = weakReference(vaadinSession);
+        this.ui = weakReference(ui);
+        this.view = weakReference(view);
+    }
+
+    /**
+     * captures the VaadinSession, UI and View of the current thread
+     *
+     * @throws IllegalStateException if no VaadinSession is set up for the current thread
+     */
+    public static ScopeContext capture() {
+        checkState(VaadinSession.getCurrent() != null, "VaadinSession is not set up yet.");
+
+        return new ScopeContext(VaadinService.getCurrent(), VaadinSession.getCurrent(), UI.getCurrent(), getCurrentView());
+    }
+
+    /**
+     * an executor that runs every task within the context of the thread that submitted it. Tasks
+     * that are submitted from threads without a VaadinSession run without a context.
+     */
+    public static ExecutorService propagating(ExecutorService executorService) {
+        return new ScopePropagatingExecutorService(checkNotNull(executorService));
+    }
+
+    /**
+     * runs the runnable on the current thread within this context and restores the context the
+     * thread had before afterwards
+     */
+    public void run(Runnable runnable) {
+        checkNotNull(runnable);
+
+        final Map<Class<?>, CurrentInstance> previousInstances = CurrentInstance.getInstances();
+        final View previousView = currentView.get();
+
+        enter();
+
+        try {
+            runnable.run();
+        } finally {
+            leave(previousInstances, previousView);
+        }
+    }
+
+    /**
+     * calls the callable on the current thread within this context and restores the context the
+     * thread had before afterwards
+     */
+    public <V> V call(Callable<V> callable) throws Exception {
+        checkNotNull(callable);
+
+        final Map<Class<?>, CurrentInstance> previousInstances = CurrentInstance.getInstances();
+        final View previousView = currentView.get();
+
+        enter();
+
+        try {
+            return callable.call();
+        } finally {
+            leave(previousInstances, previousView);
+        }
+    }
+
+    /**
+     * a runnable that runs the given one within this context, on whatever thread it is run on
+     */
+    public Runnable wrap(Runnable runnable) {
+        checkNotNull(runnable);
+
+        return () -> run(runnable);
+    }
+
+    /**
+     * a callable that calls the given one within this context, on whatever thread it is called on
+     */
+    public <V> Callable<V> wrap(Callable<V> callable) {
+        checkNotNull(callable);
+
+        return () -> call(callable);
+    }
+
+    private void enter() {
+        CurrentInstance.clearAll();
+
+        VaadinService.setCurrent(get(vaadinService));
+        VaadinSession.setCurrent(get(vaadinSession));
+        UI.setCurrent(get(ui));
+
+        final View view = get(this.view);
+
+        if (view != null) {
+            currentView.set(view);
+        } else {
+            currentView.remove();
+        }
+    }
+
+    private static void leave(Map<Class<?>, CurrentInstance> previousInstances, View previousView) {
+        CurrentInstance.clearAll();
+        CurrentInstance.restoreInstances(previousInstances);
+
+        if (previousView != null) {
+            currentView.set(previousView);
+        } else {
+            currentView.remove();
+        }
+    }
+
+    private static <T> WeakReference<T> weakReference(T referent) {
+        return referent != null ? new WeakReference<>(referent) : null;
+    }
+
+    private static <T> T get(WeakReference<T> reference) {
+        return reference != null ? reference.get() : null;
+    }
+
+    /**
+     * the view of the context the current thread runs in, or the current view of the current UI's
+     * navigator if there is none
+     */
+    static View getCurrentView() {
+        final View view = currentView.get();
+
+        if (view != null) {
+            return view;
+        }
+
+        final UI ui = UI.getCurrent();
+
+        final Navigator navigator = ui != null ? ui.getNavigator() : null;
+
+        return navigator != null ? navigator.getCurrentView() : null;
+    }
+}
@@ -0,0 +1,323 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.server.WrappedSession;
+import com.vaadin.ui.UI;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+final class ScopeFootprint implements ScopeFootprintMXBean {
+
+    private static final int MAX_OBJECTS_PER_SESSION = 1_000_000;
+
+    private static final Logger logger = Logger.getLogger(ScopeFootprint.class.getName());
+
+    private final GuiceVaadinServlet servlet;
+    private ObjectName objectName;
+
+    ScopeFootprint(GuiceVaadinServlet servlet) {
+        this.servlet = checkNotNull(servlet);
+    }
+
+    @Override
+    public int getSessions() {
+        return getSessionSet().size();
+    }
+
+    @Override
+    public String reportAsJson() {
+        final Map<String, Footprint> sessions = new TreeMap<>();
+        final Map<String, Footprint> uis = new TreeMap<>();
+        final Map<String, Footprint> views = new TreeMap<>();
+
+        for (VaadinSession vaadinSession : getSessionSet()) {
+            final Footprint sessionFootprint = new Footprint();
+
+            sessionFootprint.cachedViews = servlet.getViewProvider().getCachedViewCount(vaadinSession);
+
+            final SessionScopeData sessionScopeData = getSessionScopeData(vaadinSession);
+
+            //the instances are in the SessionScopeStorage, not on the heap
+            sessionFootprint.externalized = servlet.getVaadinSessionScoper().getAllExternalizedScopedObjects().containsKey(vaadinSession)
+                    || (sessionScopeData != null && sessionScopeData.externalizedSessionScopedObjects != null);
+
+            sessions.put(getSessionId(vaadinSession), sessionFootprint);
+
+            List<Context> contexts = collectContexts(vaadinSession, sessionScopeData, uis, views);
+
+            RetainedSizeEstimator estimator = new RetainedSizeEstimator(MAX_OBJECTS_PER_SESSION);
+
+            //all roots are known before the walk, so no root is attributed to another one
+            contexts.forEach(context -> context.entries.forEach(entry -> estimator.addRoot(entry.getValue())));
+
+            if (sessionFootprint.externalized) {
+                sessionFootprint.contexts++;
+            }
+
+            for (Context context : contexts) {
+                sessionFootprint.contexts++;
+                context.footprint.contexts++;
+
+                for (Map.Entry<String, Object> entry : context.entries) {
+                    final long retainedBytes = estimator.estimate(entry.getValue());
+
+                    sessionFootprint.add(entry.getKey(), retainedBytes);
+                    context.footprint.add(entry.getKey(), retainedBytes);
+                }
+            }
+        }
+
+        StringBuilder json = new StringBuilder();
+
+        json.append("{\"sessions\":");
+        appendFootprints(json, sessions);
+        json.append(",\"uis\":");
+        appendFootprints(json, uis);
+        json.append(",\"views\":");
+        appendFootprints(json, views);
+        json.append('}');
+
+        return json.toString();
+    }
+
+    private Set<VaadinSession> getSessionSet() {
+        Set<VaadinSession> sessions = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        sessions.addAll(servlet.getVaadinSessionScoper().getAllScopedObjects().keySet());
+        sessions.addAll(servlet.getUiScope().getAllScopedObjects().keySet());
+        sessions.addAll(servlet.getViewScope().getAllScopedObjects().keySet());
+        sessions.addAll(servlet.getVaadinSessionScoper().getAllExternalizedScopedObjects().keySet());
+
+        return sessions;
+    }
+
+    private List<Context> collectContexts(VaadinSession vaadinSession, SessionScopeData sessionScopeData, Map<String, Footprint> uis, Map<String, Footprint> views) {
+        List<Context> contexts = new ArrayList<>();
+
+        //a context may be known to both the servlet-level maps and the session's SessionScopeData
+        Set<ScopedObjects> collected = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        //the session's footprint is accumulated separately, this one is not reported
+        final Footprint sessionFootprint = new Footprint();
+
+        addContext(contexts, collected, sessionFootprint, servlet.getVaadinSessionScoper().getAllScopedObjects().get(vaadinSession));
+
+        if (sessionScopeData != null) {
+            addContext(contexts, collected, sessionFootprint, sessionScopeData.sessionScopedObjects);
+        }
+
+        final Map<UI, ScopedObjects> uiScopedObjects = servlet.getUiScope().getAllScopedObjects().get(vaadinSession);
+
+        if (uiScopedObjects != null) {
+            uiScopedObjects.forEach((ui, scopedObjects) -> addContext(contexts, collected, footprintOf(uis, ui), scopedObjects));
+        }
+
+        if (sessionScopeData != null) {
+            sessionScopeData.uiScopedObjects.forEach((ui, scopedObjects) -> addContext(contexts, collected, footprintOf(uis, ui), scopedObjects));
+        }
+
+        final Map<UI, ? extends Map<View, ScopedObjects>> viewScopedObjects = servlet.getViewScope().getAllScopedObjects().get(vaadinSession);
+
+        if (viewScopedObjects != null) {
+            viewScopedObjects.values().forEach(
+                    viewMap -> viewMap.forEach((view, scopedObjects) -> addContext(contexts, collected, footprintOf(views, view), scopedObjects))
+            );
+        }
+
+        if (sessionScopeData != null) {
+            sessionScopeData.viewScopedObjects.values().forEach(
+                    viewMap -> viewMap.forEach((view, scopedObjects) -> addContext(contexts, collected, footprintOf(views, view), scopedObjects))
+            );
+        }
+
+        return contexts;
+    }
+
+    private static void addContext(List<Context> contexts, Set<ScopedObjects> collected, Footprint footprint, ScopedObjects scopedObjects) {
+        if (scopedObjects != null && collected.add(scopedObjects)) {
+            contexts.add(new Context(footprint, scopedObjects.snapshot()));
+        }
+    }
+
+    private static Footprint footprintOf(Map<String, Footprint> footprints, Object owner) {
+        return footprints.computeIfAbsent(owner.getClass().getName(), c -> new Footprint());
+    }
+
+    /**
+     * the contexts of deserialized sessions are only known to their SessionScopeData until they
+     * are looked up, which can only be read while holding the session's lock
+     */
+    private static SessionScopeData getSessionScopeData(VaadinSession vaadinSession) {
+        if (vaadinSession.hasLock()) {
+            return SessionScopeData.peek(vaadinSession);
+        }
+
+        final Lock lock = vaadinSession.getLockInstance();
+
+        //a session that is busy is not waited for, it's contexts are most likely looked up already
+        if (lock == null || !lock.tryLock()) {
+            return null;
+        }
+
+        try {
+            return SessionScopeData.peek(vaadinSession);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String getSessionId(VaadinSession vaadinSession) {
+        final WrappedSession wrappedSession = vaadinSession.getSession();
+
+        if (wrappedSession != null) {
+            try {
+                return wrappedSession.getId();
+            } catch (IllegalStateException e) {
+                //invalidated
+            }
+        }
+
+        return "session@" + Integer.toHexString(System.identityHashCode(vaadinSession));
+    }
+
+    private static void appendFootprints(StringBuilder json, Map<String, Footprint> footprints) {
+        json.append('{');
+
+        boolean first = true;
+
+        for (Map.Entry<String, Footprint> entry : footprints.entrySet()) {
+            if (!first) {
+                json.append(',');
+            }
+
+            first = false;
+
+            appendString(json, entry.getKey());
+            json.append(':');
+            entry.getValue().appendTo(json);
+        }
+
+        json.append('}');
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+
+        json.append('"');
+    }
+
+    void registerMBean(String servletName) {
+        try {
+            objectName = GuiceVaadinMetrics.objectName("ScopeFootprint", servletName, this);
+
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        } catch (JMException | RuntimeException e) {
+            logger.log(Level.WARNING, "unable to register scope-footprint for " + servletName + " in JMX", e);
+            objectName = null;
+        }
+    }
+
+    void unregisterMBean() {
+        if (objectName == null) {
+            return;
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "unable to unregister scope-footprint " + objectName, e);
+        }
+
+        objectName = null;
+    }
+
+    private static final class Context {
+        final Footprint footprint;
+        final List<Map.Entry<String, Object>> entries;
+
+        Context(Footprint footprint, List<Map.Entry<String, Object>> entries) {
+            this.footprint = footprint;
+            this.entries = entries;
+        }
+    }
+
+    private static final class Footprint {
+        final Map<String, long[]> byKey = new TreeMap<>();
+        int contexts;
+        int instances;
+        long retainedBytes;
+        int cachedViews = -1;
+        //only reported for sessions
+        Boolean externalized;
+
+        void add(String key, long bytes) {
+            instances++;
+            retainedBytes += bytes;
+
+            final long[] keyFootprint = byKey.computeIfAbsent(key, k -> new long[2]);
+
+            keyFootprint[0]++;
+            keyFootprint[1] += bytes;
+        }
+
+        void appendTo(StringBuilder json) {
+            json.append("{\"contexts\":").append(contexts);
+            json.append(",\"instances\":").append(instances);
+            json.append(",\"retainedBytes\":").append(retainedBytes);
+
+            if (cachedViews != -1) {
+                json.append(",\"cachedViews\":").append(cachedViews);
+            }
+
+            if (externalized != null) {
+                json.append(",\"externalized\":").append(externalized);
+            }
+
+            json.append(",\"byKey\":{");
+
+            boolean first = true;
+
+            for (Map.Entry<String, long[]> entry : byKey.entrySet()) {
+                if (!first) {
+                    json.append(',');
+                }
+
+                first = false;
+
+                appendString(json, entry.getKey());
+                json.append(":{\"instances\":").append(entry.getValue()[0]);
+                json.append(",\"retainedBytes\":").append(entry.getValue()[1]).append('}');
+            }
+
+            json.append("}}");
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.vaadin.guice.server;
+
+/**
+ * Report on the instances kept in UIScope, ViewScope and VaadinSessionScope, registered in the
+ * platform-MBeanServer as 'com.vaadin.guice:type=ScopeFootprint,name=&lt;servlet-name&gt;' and
+ * available via {@link GuiceVaadinServlet#getScopeFootprint()}.
+ */
+public interface ScopeFootprintMXBean {
+
+    /**
+     * the number of sessions that currently have scoped instances
+     */
+    int getSessions();
+
+    /**
+     * walks all scoped instances and reports their number and estimated retained size in bytes per
+     * session, per UI-class and per view-class, each broken down by key. Instances shared between
+     * several scope-contexts are counted for the first one walked, in the order session, UI, view.
+     * The walk reads the instances without locking their sessions, so the report is a snapshot that
+     * may be slightly inconsistent for sessions that are in use. Sessions whose session-scope is
+     * externalized, see {@link com.vaadin.guice.annotation.ExternalizeIdleSessions}, are reported
+     * with 'externalized' set and without the externalized instances, as they are not on the heap.
+     *
+     * @return the report as a JSON-object
+     */
+    String reportAsJson();
+}
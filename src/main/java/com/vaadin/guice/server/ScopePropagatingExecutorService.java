@@ -0,0 +1,51 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.server.VaadinSession;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * captures the {@link ScopeContext} on every {@link #execute(Runnable)}, which {@link
+ * AbstractExecutorService} routes all submissions through
+ */
+final class ScopePropagatingExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+
+    ScopePropagatingExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(VaadinSession.getCurrent() != null ? ScopeContext.capture().wrap(command) : command);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
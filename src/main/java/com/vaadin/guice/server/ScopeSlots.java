@@ -0,0 +1,46 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * assigns a dense index to every {@link Key} a scope is asked to scope. Guice does so while the
+ * injector is built and for just-in-time bindings later on, so the instances of a scope-context
+ * can be kept in an array that is indexed by slot instead of a map that is keyed by {@link Key}.
+ */
+final class ScopeSlots {
+
+    private final ConcurrentMap<Key<?>, Integer> slots = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, Key<?>> keys = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    int slotOf(Key<?> key) {
+        return slots.computeIfAbsent(key, k -> {
+            final int slot = size.getAndIncrement();
+
+            keys.put(slot, k);
+
+            return slot;
+        });
+    }
+
+    Key<?> keyOf(int slot) {
+        return keys.get(slot);
+    }
+
+    /**
+     * returns the slot of the given key or -1, if the key was never scoped
+     */
+    int existingSlotOf(Key<?> key) {
+        final Integer slot = slots.get(key);
+
+        return slot != null ? slot : -1;
+    }
+
+    int size() {
+        return size.get();
+    }
+}
@@ -0,0 +1,28 @@
+package com.vaadin.guice.server;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * hit- and miss-counters of a scope
+ */
+class ScopeStatistics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    void hit() {
+        hits.increment();
+    }
+
+    void miss() {
+        misses.increment();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+}
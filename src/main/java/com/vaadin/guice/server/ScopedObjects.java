@@ -0,0 +1,416 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.Reflection;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * the instances of one scope-context, like a single UI or View. Safe to be accessed concurrently.
+ * When serialized with it's session, all serializable instances are written by the name of their
+ * {@link com.google.inject.Key}. After deserialization, they are put back in place when they are
+ * requested for the first time, see {@link #rebind(ScopeStatistics, ScopeSlots, Consumer)}.
+ */
+class ScopedObjects implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger logger = Logger.getLogger(ScopedObjects.class.getName());
+
+    //never written to, so it can be shared. Slots are global to a scope and most contexts only use
+    //a few of them, so the arrays are grown on demand rather than sized for all slots up front
+    private static final AtomicReferenceArray<Object> NO_INSTANCES = new AtomicReferenceArray<>(0);
+
+    private static final ClassValue<List<Method>> preDestroyMethods = new ClassValue<List<Method>>() {
+        @Override
+        protected List<Method> computeValue(Class<?> type) {
+            List<Method> methods = new ArrayList<>();
+
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Method method : c.getDeclaredMethods()) {
+                    if (!method.isAnnotationPresent(PreDestroy.class)) {
+                        continue;
+                    }
+
+                    checkState(method.getParameterCount() == 0, "@PreDestroy-method %s must not have parameters", method);
+
+                    //invoking an overridden method calls the override, which is called on it's own already
+                    if (isOverridden(method, methods)) {
+                        continue;
+                    }
+
+                    method.setAccessible(true);
+
+                    methods.add(method);
+                }
+            }
+
+            return ImmutableList.copyOf(methods);
+        }
+    };
+
+    /**
+     * whether one of the given methods of subclasses overrides the method
+     */
+    private static boolean isOverridden(Method method, List<Method> subclassMethods) {
+        final int modifiers = method.getModifiers();
+
+        if (Modifier.isPrivate(modifiers) || Modifier.isStatic(modifiers)) {
+            return false;
+        }
+
+        final boolean packagePrivate = !Modifier.isPublic(modifiers) && !Modifier.isProtected(modifiers);
+
+        for (Method subclassMethod : subclassMethods) {
+            if (!subclassMethod.getName().equals(method.getName()) || Modifier.isStatic(subclassMethod.getModifiers())) {
+                continue;
+            }
+
+            //package-private methods can only be overridden within the same package
+            if (!packagePrivate || Reflection.getPackageName(subclassMethod.getDeclaringClass()).equals(Reflection.getPackageName(method.getDeclaringClass()))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private transient ScopeStatistics statistics;
+    private transient ScopeSlots slots;
+    //indexed by ScopeSlots, only written while holding the lock on this
+    private transient volatile AtomicReferenceArray<Object> instances;
+    //creation-order, so dependents can be destroyed before their dependencies
+    private transient Deque<Object> creationOrder = new ArrayDeque<>();
+    //deserialized instances by the name of their key that were not requested since, guarded by this
+    private transient volatile Map<String, Object> restoredInstances;
+    private transient Consumer<Object> restoredInstanceListener;
+    private transient volatile boolean registered;
+
+    ScopedObjects(ScopeStatistics statistics, ScopeSlots slots) {
+        this.statistics = statistics;
+        this.slots = slots;
+        this.instances = NO_INSTANCES;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T get(int slot, Provider<T> provider) {
+        final AtomicReferenceArray<Object> instances = this.instances;
+
+        Object instance = slot < instances.length() ? instances.get(slot) : null;
+
+        if (instance != null) {
+            statistics.hit();
+            return (T) instance;
+        }
+
+        if (restoredInstances != null) {
+            instance = restore(slot);
+
+            if (instance != null) {
+                statistics.hit();
+                return (T) instance;
+            }
+        }
+
+        statistics.miss();
+
+        /*
+         * the provider is not called under the lock on purpose, it may very well need other
+         * objects from the same scope
+         */
+        T newInstance = provider.get();
+
+        if (newInstance == null) {
+            return null;
+        }
+
+        synchronized (this) {
+            final AtomicReferenceArray<Object> currentInstances = ensureCapacity(slot + 1);
+
+            instance = currentInstances.get(slot);
+
+            if (instance != null) {
+                return (T) instance;
+            }
+
+            currentInstances.set(slot, newInstance);
+
+            creationOrder.add(newInstance);
+        }
+
+        return newInstance;
+    }
+
+    private Object restore(int slot) {
+        final Object instance;
+
+        synchronized (this) {
+            final Map<String, Object> restoredInstances = this.restoredInstances;
+
+            if (restoredInstances == null) {
+                return null;
+            }
+
+            instance = restoredInstances.remove(slots.keyOf(slot).toString());
+
+            if (restoredInstances.isEmpty()) {
+                this.restoredInstances = null;
+            }
+        }
+
+        if (instance == null) {
+            return null;
+        }
+
+        //transient members are re-injected before the instance becomes visible to other threads
+        restoredInstanceListener.accept(instance);
+
+        synchronized (this) {
+            ensureCapacity(slot + 1).set(slot, instance);
+        }
+
+        return instance;
+    }
+
+    /**
+     * connects a deserialized instance to the scope it belongs to, the listener is called for
+     * every deserialized instance before it is handed out for the first time. Does nothing if
+     * this instance was not deserialized or is already bound.
+     */
+    synchronized void rebind(ScopeStatistics statistics, ScopeSlots slots, Consumer<Object> restoredInstanceListener) {
+        if (this.slots != null) {
+            return;
+        }
+
+        this.statistics = statistics;
+        this.slots = slots;
+        this.restoredInstanceListener = restoredInstanceListener;
+        this.instances = NO_INSTANCES;
+    }
+
+    /**
+     * whether this scope-context is stored in the {@link SessionScopeData} of it's session, so it
+     * is serialized with it. Contexts that were created while the session was not locked are
+     * registered by the next lookup that holds the lock.
+     */
+    boolean isRegistered() {
+        return registered;
+    }
+
+    void markRegistered() {
+        registered = true;
+    }
+
+    //slots are handed out for just-in-time bindings after this scope-context was created
+    private AtomicReferenceArray<Object> ensureCapacity(int capacity) {
+        AtomicReferenceArray<Object> instances = this.instances;
+
+        if (instances.length() < capacity) {
+            AtomicReferenceArray<Object> grown = new AtomicReferenceArray<>(Math.max(capacity, instances.length() * 2));
+
+            for (int i = 0; i < instances.length(); i++) {
+                grown.set(i, instances.get(i));
+            }
+
+            this.instances = instances = grown;
+        }
+
+        return instances;
+    }
+
+    /**
+     * removes the instance of a single slot and calls it's {@link PreDestroy}-methods
+     */
+    void destroy(int slot) {
+        final Object instance = detach(slot);
+
+        if (instance != null) {
+            preDestroy(instance);
+        }
+    }
+
+    /**
+     * removes the instance of the slot without calling it's {@link PreDestroy}-methods, so it can
+     * be reused elsewhere
+     */
+    Object detach(int slot) {
+        synchronized (this) {
+            if (restoredInstances != null) {
+                final Object restoredInstance = restoredInstances.remove(slots.keyOf(slot).toString());
+
+                if (restoredInstance != null) {
+                    creationOrder.remove(restoredInstance);
+                }
+            }
+
+            if (slot >= instances.length()) {
+                return null;
+            }
+
+            final Object instance = instances.getAndSet(slot, null);
+
+            if (instance != null) {
+                creationOrder.remove(instance);
+            }
+
+            return instance;
+        }
+    }
+
+    /**
+     * puts an existing instance into an empty slot
+     */
+    synchronized void attach(int slot, Object instance) {
+        final AtomicReferenceArray<Object> currentInstances = ensureCapacity(slot + 1);
+
+        checkState(currentInstances.get(slot) == null, "%s is already in scope", slots.keyOf(slot));
+
+        currentInstances.set(slot, instance);
+
+        creationOrder.add(instance);
+    }
+
+    /**
+     * removes all instances and calls their {@link PreDestroy}-methods, last created first
+     */
+    void destroy() {
+        final List<Object> destroyed;
+
+        synchronized (this) {
+            destroyed = new ArrayList<>(creationOrder);
+
+            creationOrder.clear();
+
+            instances = NO_INSTANCES;
+
+            restoredInstances = null;
+        }
+
+        for (int i = destroyed.size() - 1; i >= 0; i--) {
+            preDestroy(destroyed.get(i));
+        }
+    }
+
+    /**
+     * whether all instances would survive serialization, so they don't have to be created again
+     * after being deserialized
+     */
+    synchronized boolean isSerializable() {
+        for (Object instance : creationOrder) {
+            if (!(instance instanceof Serializable)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * the instances of this scope-context with a description of their key, for diagnostics
+     */
+    synchronized List<Map.Entry<String, Object>> snapshot() {
+        List<Map.Entry<String, Object>> snapshot = new ArrayList<>();
+
+        for (int slot = 0; slot < instances.length(); slot++) {
+            final Object instance = instances.get(slot);
+
+            if (instance != null) {
+                snapshot.add(new AbstractMap.SimpleImmutableEntry<>(describe(slots.keyOf(slot)), instance));
+            }
+        }
+
+        if (restoredInstances != null) {
+            snapshot.addAll(restoredInstances.entrySet());
+        }
+
+        return snapshot;
+    }
+
+    private static String describe(Key<?> key) {
+        return key.getAnnotationType() != null
+                ? key.getTypeLiteral() + " @" + key.getAnnotationType().getSimpleName()
+                : key.getTypeLiteral().toString();
+    }
+
+    private synchronized void writeObject(ObjectOutputStream out) throws IOException {
+        Map<Object, String> keyNames = new IdentityHashMap<>();
+
+        if (restoredInstances != null) {
+            restoredInstances.forEach((keyName, instance) -> keyNames.put(instance, keyName));
+        }
+
+        for (int slot = 0; slot < instances.length(); slot++) {
+            final Object instance = instances.get(slot);
+
+            if (instance != null) {
+                keyNames.put(instance, slots.keyOf(slot).toString());
+            }
+        }
+
+        //creation-order is kept, so @PreDestroy-methods are called in the right order on the other node, too
+        Map<String, Object> serializableInstances = new LinkedHashMap<>();
+
+        for (Object instance : creationOrder) {
+            final String keyName = keyNames.get(instance);
+
+            if (keyName == null) {
+                continue;
+            }
+
+            if (instance instanceof Serializable) {
+                serializableInstances.put(keyName, instance);
+            } else {
+                logger.log(Level.FINE, "{0} is not serializable and will be created again after deserialization", keyName);
+            }
+        }
+
+        out.defaultWriteObject();
+        out.writeObject(serializableInstances);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        final Map<String, Object> serializableInstances = (Map<String, Object>) in.readObject();
+
+        creationOrder = new ArrayDeque<>(serializableInstances.values());
+        instances = NO_INSTANCES;
+        restoredInstances = serializableInstances.isEmpty() ? null : new HashMap<>(serializableInstances);
+    }
+
+    static void preDestroy(Object instance) {
+        for (Method method : preDestroyMethods.get(instance.getClass())) {
+            try {
+                method.invoke(instance);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                logger.log(Level.WARNING, "@PreDestroy-method " + method + " failed", e);
+            }
+        }
+    }
+}
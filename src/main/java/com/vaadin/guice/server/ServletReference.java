@@ -0,0 +1,63 @@
+package com.vaadin.guice.server;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * serialized form of a {@link GuiceVaadinServlet} and the UI- and view-provider that belong to
+ * it. Sessions refer to these via UIs, navigators and listeners, but the servlet and it's injector
+ * cannot be serialized. Running servlets are registered by context-path and servlet-name, so a
+ * session that is deserialized on another node refers to the servlet of that node.
+ */
+final class ServletReference implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final ConcurrentMap<String, GuiceVaadinServlet> servlets = new ConcurrentHashMap<>();
+
+    enum Target {
+        SERVLET, UI_PROVIDER, VIEW_PROVIDER
+    }
+
+    private final String servletKey;
+    private final Target target;
+
+    ServletReference(GuiceVaadinServlet servlet, Target target) {
+        this.servletKey = keyOf(servlet);
+        this.target = target;
+    }
+
+    static void register(GuiceVaadinServlet servlet) {
+        servlets.put(keyOf(servlet), servlet);
+    }
+
+    static void unregister(GuiceVaadinServlet servlet) {
+        servlets.remove(keyOf(servlet), servlet);
+    }
+
+    private static String keyOf(GuiceVaadinServlet servlet) {
+        return servlet.getServletContext().getContextPath() + "/" + servlet.getServletName();
+    }
+
+    private Object readResolve() throws ObjectStreamException {
+        final GuiceVaadinServlet servlet = servlets.get(servletKey);
+
+        if (servlet == null) {
+            throw new InvalidObjectException("no GuiceVaadinServlet " + servletKey + " is running");
+        }
+
+        switch (target) {
+            case SERVLET:
+                return servlet;
+            case UI_PROVIDER:
+                return servlet.getGuiceUIProvider();
+            case VIEW_PROVIDER:
+                return servlet.getViewProvider();
+            default:
+                throw new InvalidObjectException("unknown target " + target);
+        }
+    }
+}
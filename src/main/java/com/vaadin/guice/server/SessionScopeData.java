@@ -0,0 +1,54 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import java.io.Serializable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * the {@link ScopedObjects} of a {@link VaadinSession}, stored as an attribute of the session so
+ * they are serialized with it. The scopes look their contexts up in servlet-level maps that are
+ * not serialized and only fall back to this data when these maps do not know a session or UI,
+ * which is the case after the session was deserialized on another node.
+ */
+final class SessionScopeData implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    volatile ScopedObjects sessionScopedObjects;
+    //set instead of sessionScopedObjects while the session is idle, see ExternalizeIdleSessions
+    volatile ExternalizedScopedObjects externalizedSessionScopedObjects;
+    final ConcurrentMap<UI, ScopedObjects> uiScopedObjects = new ConcurrentHashMap<>();
+    final ConcurrentMap<UI, ConcurrentMap<View, ScopedObjects>> viewScopedObjects = new ConcurrentHashMap<>();
+
+    /**
+     * returns the data of the given session, which is created if it does not exist yet. Session
+     * attributes can only be accessed while holding the session's lock, so null is returned if
+     * the current thread does not hold it.
+     */
+    static SessionScopeData of(VaadinSession vaadinSession) {
+        if (!vaadinSession.hasLock()) {
+            return null;
+        }
+
+        SessionScopeData sessionScopeData = vaadinSession.getAttribute(SessionScopeData.class);
+
+        if (sessionScopeData == null) {
+            sessionScopeData = new SessionScopeData();
+            vaadinSession.setAttribute(SessionScopeData.class, sessionScopeData);
+        }
+
+        return sessionScopeData;
+    }
+
+    /**
+     * returns the data of the given session without creating it, or null if there is none or the
+     * current thread does not hold the session's lock
+     */
+    static SessionScopeData peek(VaadinSession vaadinSession) {
+        return vaadinSession.hasLock() ? vaadinSession.getAttribute(SessionScopeData.class) : null;
+    }
+}
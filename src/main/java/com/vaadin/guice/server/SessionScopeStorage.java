@@ -0,0 +1,28 @@
+package com.vaadin.guice.server;
+
+import java.io.IOException;
+
+/**
+ * Storage for the serialized {@link com.vaadin.guice.annotation.VaadinSessionScope}s of idle
+ * sessions, see {@link com.vaadin.guice.annotation.ExternalizeIdleSessions}. Every entry is
+ * written once under an id that is unique for the servlet, read when the session is accessed
+ * again and removed afterwards. Implementations need to be thread-safe.
+ */
+public interface SessionScopeStorage {
+
+    void store(String id, byte[] data) throws IOException;
+
+    /**
+     * @return the data stored under the id, or null if there is none
+     */
+    byte[] load(String id) throws IOException;
+
+    void remove(String id) throws IOException;
+
+    /**
+     * called when the servlet is destroyed, entries that were not removed yet are not needed
+     * anymore at this point
+     */
+    default void close() throws IOException {
+    }
+}
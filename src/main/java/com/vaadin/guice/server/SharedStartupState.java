@@ -0,0 +1,187 @@
+package com.vaadin.guice.server;
+
+import com.google.common.base.Supplier;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+
+import org.reflections.Reflections;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRegistration;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * what {@link GuiceVaadinServlet}s in the same ServletContext can share at startup: the class-
+ * catalog of a set of packages and the parent-injector of a set of shared modules, see {@link
+ * com.vaadin.guice.annotation.SharedBindings}. Kept as an attribute of the ServletContext, so it
+ * lives as long as the web-application.
+ */
+final class SharedStartupState {
+
+    private static final String ATTRIBUTE = SharedStartupState.class.getName();
+
+    private static final Logger logger = Logger.getLogger(SharedStartupState.class.getName());
+
+    private final Map<Set<String>, Catalog> catalogs = new HashMap<>();
+    private final Map<Set<Class<? extends Module>>, ParentInjector> parentInjectors = new HashMap<>();
+    private final Set<String> initializedServlets = new HashSet<>();
+
+    private SharedStartupState() {
+    }
+
+    static SharedStartupState of(ServletContext servletContext) {
+        synchronized (servletContext) {
+            SharedStartupState sharedStartupState = (SharedStartupState) servletContext.getAttribute(ATTRIBUTE);
+
+            if (sharedStartupState == null) {
+                sharedStartupState = new SharedStartupState();
+                servletContext.setAttribute(ATTRIBUTE, sharedStartupState);
+            }
+
+            return sharedStartupState;
+        }
+    }
+
+    /**
+     * the catalog of the given packages, created by the first servlet that scans exactly these
+     * packages
+     */
+    synchronized Catalog getCatalog(Set<String> packages, Function<Set<String>, Catalog> catalogFactory) {
+        return catalogs.computeIfAbsent(packages, catalogFactory);
+    }
+
+    /**
+     * called by every servlet once it's initialization is done, successfully or not. Catalogs
+     * are only needed by servlets that are still to be initialized, so they are dropped once all
+     * GuiceVaadinServlets registered in the ServletContext are, rather than keeping the
+     * Reflections of the scanned packages for the lifetime of the web-application.
+     */
+    synchronized void servletInitialized(ServletConfig servletConfig, ClassLoader classLoader) {
+        initializedServlets.add(servletConfig.getServletName());
+
+        if (initializedServlets.containsAll(getGuiceVaadinServletNames(servletConfig.getServletContext(), classLoader))) {
+            catalogs.clear();
+        }
+    }
+
+    /**
+     * the number of catalogs that are kept, for tests
+     */
+    synchronized int getCatalogCount() {
+        return catalogs.size();
+    }
+
+    private static Set<String> getGuiceVaadinServletNames(ServletContext servletContext, ClassLoader classLoader) {
+        final Map<String, ? extends ServletRegistration> servletRegistrations;
+
+        try {
+            servletRegistrations = servletContext.getServletRegistrations();
+        } catch (UnsupportedOperationException e) {
+            //servlets the container does not tell about can't be waited for
+            return new HashSet<>();
+        }
+
+        final Set<String> servletNames = new HashSet<>();
+
+        if (servletRegistrations == null) {
+            return servletNames;
+        }
+
+        for (Map.Entry<String, ? extends ServletRegistration> entry : servletRegistrations.entrySet()) {
+            final String className = entry.getValue().getClassName();
+
+            if (className == null) {
+                continue;
+            }
+
+            try {
+                if (GuiceVaadinServlet.class.isAssignableFrom(Class.forName(className, false, classLoader))) {
+                    servletNames.add(entry.getKey());
+                }
+            } catch (ClassNotFoundException | LinkageError e) {
+                logger.log(Level.FINE, "unable to load servlet-class " + className, e);
+            }
+        }
+
+        return servletNames;
+    }
+
+    /**
+     * the parent-injector of the given modules, created by the first servlet that shares exactly
+     * these modules. Every call needs to be paired with a call to {@link
+     * #releaseParentInjector(Set)}.
+     */
+    synchronized Injector acquireParentInjector(Set<Class<? extends Module>> moduleClasses, Function<Set<Class<? extends Module>>, Injector> injectorFactory) {
+        final ParentInjector parentInjector = parentInjectors.computeIfAbsent(
+                moduleClasses,
+                classes -> new ParentInjector(injectorFactory.apply(classes))
+        );
+
+        parentInjector.usages++;
+
+        return parentInjector.injector;
+    }
+
+    /**
+     * the parent-injector is dropped once no servlet uses it anymore, so redeploying a servlet
+     * creates it again
+     */
+    synchronized void releaseParentInjector(Set<Class<? extends Module>> moduleClasses) {
+        final ParentInjector parentInjector = parentInjectors.get(moduleClasses);
+
+        if (parentInjector != null && --parentInjector.usages <= 0) {
+            parentInjectors.remove(moduleClasses);
+        }
+    }
+
+    /**
+     * the checkpoint-callbacks of all parent-injectors in use, for tests
+     */
+    synchronized List<CheckpointAware> getParentInjectorCheckpoints() {
+        return parentInjectors
+                .values()
+                .stream()
+                .map(parentInjector -> parentInjector.checkpoint)
+                .collect(toList());
+    }
+
+    /*
+     * singletons of a parent-injector are notified of a checkpoint once, not by every servlet
+     * sharing it. It is registered when the injector is created, so CRaC notifies it after the
+     * servlets before a checkpoint and before them after the restore.
+     */
+    private static final class ParentInjector {
+        final Injector injector;
+        final CheckpointAware checkpoint;
+        //CRaC only keeps a weak reference
+        final Object checkpointResource;
+        int usages;
+
+        ParentInjector(Injector injector) {
+            this.injector = injector;
+            this.checkpoint = CheckpointRestore.forSingletonsOf(injector);
+            this.checkpointResource = CheckpointRestore.register(checkpoint, SharedStartupState.class.getClassLoader());
+        }
+    }
+
+    static final class Catalog {
+        final ClassCatalog classCatalog;
+        final Supplier<Reflections> reflectionsSupplier;
+
+        Catalog(ClassCatalog classCatalog, Supplier<Reflections> reflectionsSupplier) {
+            this.classCatalog = classCatalog;
+            this.reflectionsSupplier = reflectionsSupplier;
+        }
+    }
+}
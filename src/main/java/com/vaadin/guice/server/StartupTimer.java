@@ -0,0 +1,64 @@
+package com.vaadin.guice.server;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * measures the phases of {@link GuiceVaadinServlet#init(javax.servlet.ServletConfig)}
+ */
+class StartupTimer {
+
+    private final Logger logger = Logger.getLogger(GuiceVaadinServlet.class.getName());
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+    private final long start = System.nanoTime();
+
+    <T> T time(String phase, Supplier<T> supplier) {
+        final long phaseStart = System.nanoTime();
+
+        try {
+            return supplier.get();
+        } finally {
+            record(phase, System.nanoTime() - phaseStart);
+        }
+    }
+
+    void time(String phase, Runnable runnable) {
+        time(phase, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    synchronized void record(String phase, long nanos) {
+        durations.merge(phase, nanos, Long::sum);
+
+        logger.log(Level.FINE, "{0} took {1} ms", new Object[]{phase, TimeUnit.NANOSECONDS.toMillis(nanos)});
+    }
+
+    synchronized Map<String, Long> getDurations() {
+        return new LinkedHashMap<>(durations);
+    }
+
+    synchronized void logSummary(String servletName) {
+        StringBuilder sb = new StringBuilder();
+
+        sb
+                .append(servletName)
+                .append(" started in ")
+                .append(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .append(" ms");
+
+        durations.forEach((phase, nanos) -> sb
+                .append(", ")
+                .append(phase)
+                .append(": ")
+                .append(TimeUnit.NANOSECONDS.toMillis(nanos))
+                .append(" ms"));
+
+        logger.info(sb.toString());
+    }
+}
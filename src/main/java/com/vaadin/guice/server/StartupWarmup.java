@@ -0,0 +1,218 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Binding;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Scopes;
+import com.google.inject.spi.Dependency;
+import com.google.inject.spi.HasDependencies;
+
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * resolves the bindings reachable from UIs and Views and optionally creates them in synthetic
+ * sessions, see {@link com.vaadin.guice.annotation.Warmup}
+ */
+final class StartupWarmup {
+
+    private static final Logger logger = Logger.getLogger(StartupWarmup.class.getName());
+
+    private final GuiceVaadinServlet guiceVaadinServlet;
+    private final Injector injector;
+    private final Set<Key<?>> resolvedKeys = new HashSet<>();
+    private int createdSingletons;
+    private int syntheticUIs;
+    private int syntheticViews;
+    private int failures;
+
+    StartupWarmup(GuiceVaadinServlet guiceVaadinServlet) {
+        this.guiceVaadinServlet = guiceVaadinServlet;
+        this.injector = guiceVaadinServlet.getInjector();
+    }
+
+    /**
+     * @throws com.google.inject.ConfigurationException if a reachable binding cannot be resolved
+     */
+    Map<String, Integer> run(int rounds) {
+        guiceVaadinServlet.getUiClasses().forEach(uiClass -> resolve(Key.get(uiClass)));
+        guiceVaadinServlet.getViewClasses().forEach(viewClass -> resolve(Key.get(viewClass)));
+
+        for (int i = 0; i < rounds; i++) {
+            runSyntheticRound();
+        }
+
+        final Map<String, Integer> results = ImmutableMap.of(
+                "resolvedBindings", resolvedKeys.size(),
+                "createdSingletons", createdSingletons,
+                "syntheticUIs", syntheticUIs,
+                "syntheticViews", syntheticViews,
+                "failures", failures
+        );
+
+        logger.log(
+                failures == 0 ? Level.INFO : Level.WARNING,
+                "warmup of {0} completed: {1}{2}",
+                new Object[]{guiceVaadinServlet.getClass().getName(), results, failures == 0 ? "" : ", see FINE-level log for the failures"}
+        );
+
+        return results;
+    }
+
+    private void resolve(Key<?> root) {
+        Deque<Key<?>> keys = new ArrayDeque<>();
+
+        keys.push(root);
+
+        while (!keys.isEmpty()) {
+            final Key<?> key = withoutProvider(keys.pop());
+
+            if (!resolvedKeys.add(key)) {
+                continue;
+            }
+
+            //creates just-in-time bindings as well
+            final Binding<?> binding = injector.getBinding(key);
+
+            if (binding instanceof HasDependencies) {
+                for (Dependency<?> dependency : ((HasDependencies) binding).getDependencies()) {
+                    keys.push(dependency.getKey());
+                }
+            }
+
+            if (Scopes.isSingleton(binding)) {
+                try {
+                    binding.getProvider().get();
+                    createdSingletons++;
+                } catch (RuntimeException e) {
+                    //e.g. singletons that need a UI-scoped object in their constructor
+                    failures++;
+                    logger.log(Level.FINE, "unable to create singleton " + key + " during warmup", e);
+                }
+            }
+        }
+    }
+
+    //Provider<T> is always bound, but what's interesting is T
+    private static Key<?> withoutProvider(Key<?> key) {
+        final Class<?> rawType = key.getTypeLiteral().getRawType();
+
+        final Type type = key.getTypeLiteral().getType();
+
+        if ((rawType != com.google.inject.Provider.class && rawType != javax.inject.Provider.class) || !(type instanceof ParameterizedType)) {
+            return key;
+        }
+
+        final Type providedType = ((ParameterizedType) type).getActualTypeArguments()[0];
+
+        if (key.getAnnotation() != null) {
+            return Key.get(providedType, key.getAnnotation());
+        } else if (key.getAnnotationType() != null) {
+            return Key.get(providedType, key.getAnnotationType());
+        } else {
+            return Key.get(providedType);
+        }
+    }
+
+    private void runSyntheticRound() {
+        final Map<Class<?>, CurrentInstance> previousInstances = CurrentInstance.getInstances();
+
+        final VaadinSession vaadinSession = new SyntheticSession(guiceVaadinServlet.getService());
+
+        CurrentInstance.clearAll();
+        VaadinSession.setCurrent(vaadinSession);
+
+        //like in a request, so scopes register their contexts in the session
+        vaadinSession.getLockInstance().lock();
+
+        try {
+            for (Class<? extends UI> uiClass : guiceVaadinServlet.getUiClasses()) {
+                createSyntheticUI(uiClass);
+            }
+        } finally {
+            try {
+                guiceVaadinServlet.destroyScopes(vaadinSession);
+            } finally {
+                vaadinSession.getLockInstance().unlock();
+
+                CurrentInstance.clearAll();
+                CurrentInstance.restoreInstances(previousInstances);
+            }
+        }
+    }
+
+    private void createSyntheticUI(Class<? extends UI> uiClass) {
+        final UIScope uiScope = guiceVaadinServlet.getUiScope();
+
+        final UI ui;
+
+        uiScope.startScopeInit(uiClass);
+
+        try {
+            ui = injector.getInstance(uiClass);
+            uiScope.flushInitialScopeSet(ui);
+            syntheticUIs++;
+        } catch (RuntimeException e) {
+            failures++;
+            logger.log(Level.FINE, "unable to create " + uiClass + " during warmup", e);
+            return;
+        } finally {
+            uiScope.endScopeInit();
+        }
+
+        UI.setCurrent(ui);
+
+        final ViewScope viewScope = guiceVaadinServlet.getViewScope();
+
+        for (Class<? extends View> viewClass : guiceVaadinServlet.getViewClasses(uiClass)) {
+            viewScope.startScopeInit(viewClass);
+
+            try {
+                viewScope.flushInitialScopeSet(injector.getInstance(viewClass));
+                syntheticViews++;
+            } catch (RuntimeException e) {
+                failures++;
+                logger.log(Level.FINE, "unable to create " + viewClass + " during warmup", e);
+            } finally {
+                viewScope.endScopeInit();
+            }
+        }
+    }
+
+    /*
+     * a session that is not stored in a wrapped session has no lock, this one brings it's own.
+     * It is only unlocked via it's lock-instance, since VaadinSession#unlock() would run
+     * pending access-tasks
+     */
+    private static final class SyntheticSession extends VaadinSession {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Lock lock = new ReentrantLock();
+
+        SyntheticSession(VaadinService service) {
+            super(service);
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+}
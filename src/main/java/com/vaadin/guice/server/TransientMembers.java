@@ -0,0 +1,80 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.BindingAnnotation;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+import javax.inject.Qualifier;
+
+/**
+ * injects the transient fields annotated with {@link com.google.inject.Inject} or {@link
+ * javax.inject.Inject} of deserialized instances again, as they were not serialized. Other
+ * members are left alone, injector-methods are not called again.
+ */
+final class TransientMembers {
+
+    private static final ClassValue<List<InjectedField>> transientInjectedFields = new ClassValue<List<InjectedField>>() {
+        @Override
+        protected List<InjectedField> computeValue(Class<?> type) {
+            ImmutableList.Builder<InjectedField> fields = ImmutableList.builder();
+
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    final boolean injected = field.isAnnotationPresent(com.google.inject.Inject.class)
+                            || field.isAnnotationPresent(javax.inject.Inject.class);
+
+                    if (!injected || !Modifier.isTransient(field.getModifiers()) || Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+
+                    field.setAccessible(true);
+
+                    fields.add(new InjectedField(field, keyOf(field)));
+                }
+            }
+
+            return fields.build();
+        }
+    };
+
+    private TransientMembers() {
+    }
+
+    static void inject(Object instance, Injector injector) {
+        for (InjectedField injectedField : transientInjectedFields.get(instance.getClass())) {
+            try {
+                injectedField.field.set(instance, injector.getInstance(injectedField.key));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static Key<?> keyOf(Field field) {
+        for (Annotation annotation : field.getAnnotations()) {
+            final Class<? extends Annotation> annotationType = annotation.annotationType();
+
+            if (annotationType.isAnnotationPresent(BindingAnnotation.class) || annotationType.isAnnotationPresent(Qualifier.class)) {
+                return Key.get(field.getGenericType(), annotation);
+            }
+        }
+
+        return Key.get(field.getGenericType());
+    }
+
+    private static final class InjectedField {
+        final Field field;
+        final Key<?> key;
+
+        InjectedField(Field field, Key<?> key) {
+            this.field = field;
+            this.key = key;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.vaadin.guice.server;
 
+import com.google.common.collect.MapMaker;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
@@ -7,9 +8,10 @@ import com.google.inject.Scope;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.ui.UI;
 
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -17,59 +19,247 @@ import static com.google.common.base.Preconditions.checkState;
 
 class UIScope implements Scope {
 
-    private final Map<VaadinSession, Map<UI, Map<Key<?>, Object>>> scopesBySession = new WeakHashMap<>();
-    private Map<Key<?>, Object> initializationScopeSet;
-    private Class<? extends UI> currentlyCreatedUIClass;
+    private final ScopeStatistics statistics = new ScopeStatistics();
+    private final ScopeSlots slots = new ScopeSlots();
+    private final ConcurrentMap<VaadinSession, ConcurrentMap<UI, ScopedObjects>> scopesBySession = new MapMaker().weakKeys().makeMap();
+    //UIs of different sessions are created in parallel, so the UI currently being created is per thread
+    private final ThreadLocal<Initialization> initialization = new ThreadLocal<>();
+    private final Consumer<Object> restoredInstanceListener;
+
+    UIScope() {
+        this(instance -> {
+        });
+    }
+
+    /**
+     * @param restoredInstanceListener called for UIs and UI-scoped instances that were restored
+     *                                 after their session was deserialized
+     */
+    UIScope(Consumer<Object> restoredInstanceListener) {
+        this.restoredInstanceListener = restoredInstanceListener;
+    }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T> Provider<T> scope(Key<T> key, Provider<T> provider) {
+        final int slot = slots.slotOf(key);
+
         return () -> {
             final VaadinSession vaadinSession = checkNotNull(
                 VaadinSession.getCurrent(),
                 "VaadinSession is not set up yet."
             );
 
-            Map<UI, Map<Key<?>, Object>> uisToScopedObjects = scopesBySession.computeIfAbsent(vaadinSession, session -> new WeakHashMap<>());
+            final ScopedObjects scopedObjects = getScopedObjects(vaadinSession);
 
-            final Map<Key<?>, Object> scopedObjects = getScopedObjects(uisToScopedObjects);
-
-            return (T) scopedObjects.computeIfAbsent(key, k -> provider.get());
+            return scopedObjects.get(slot, provider);
         };
     }
 
-    private Map<Key<?>, Object> getScopedObjects(Map<UI, Map<Key<?>, Object>> uisToScopedObjects) {
-        if (initializationScopeSet != null) {
-            return initializationScopeSet;
+    private ScopedObjects getScopedObjects(VaadinSession vaadinSession) {
+        final Initialization initialization = this.initialization.get();
+
+        if (initialization != null) {
+            return initialization.scopedObjects;
         } else {
             final UI currentUI = checkNotNull(UI.getCurrent(), "current UI is not set up yet");
 
-            return checkNotNull(uisToScopedObjects.get(currentUI));
+            final ScopedObjects scopedObjects = getUisToScopedObjects(vaadinSession).get(currentUI);
+
+            if (scopedObjects == null) {
+                return checkNotNull(restore(vaadinSession, currentUI));
+            }
+
+            if (!scopedObjects.isRegistered()) {
+                register(vaadinSession, currentUI, scopedObjects);
+            }
+
+            return scopedObjects;
+        }
+    }
+
+    //does nothing without the session's lock, the next lookup that holds it will register the scope
+    private void register(VaadinSession vaadinSession, UI ui, ScopedObjects scopedObjects) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        if (sessionScopeData != null) {
+            sessionScopeData.uiScopedObjects.put(ui, scopedObjects);
+            scopedObjects.markRegistered();
+        }
+    }
+
+    //the session was deserialized, so the servlet-level map does not know it's UIs
+    private ScopedObjects restore(VaadinSession vaadinSession, UI ui) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        final ScopedObjects scopedObjects = sessionScopeData != null ? sessionScopeData.uiScopedObjects.get(ui) : null;
+
+        if (scopedObjects == null) {
+            return null;
         }
+
+        scopedObjects.rebind(statistics, slots, restoredInstanceListener);
+        scopedObjects.markRegistered();
+
+        final ScopedObjects existingScopedObjects = getUisToScopedObjects(vaadinSession).putIfAbsent(ui, scopedObjects);
+
+        if (existingScopedObjects != null) {
+            return existingScopedObjects;
+        }
+
+        restoredInstanceListener.accept(ui);
+
+        return scopedObjects;
+    }
+
+    private ConcurrentMap<UI, ScopedObjects> getUisToScopedObjects(VaadinSession vaadinSession) {
+        final ConcurrentMap<UI, ScopedObjects> uisToScopedObjects = scopesBySession.get(vaadinSession);
+
+        return uisToScopedObjects != null
+                ? uisToScopedObjects
+                : scopesBySession.computeIfAbsent(vaadinSession, session -> new MapMaker().weakKeys().makeMap());
     }
 
     Class<? extends UI> currentlyCreatedUIClass() {
-        return currentlyCreatedUIClass;
+        final Initialization initialization = this.initialization.get();
+
+        return initialization != null ? initialization.uiClass : null;
     }
 
     void startScopeInit(Class<? extends UI> currentlyCreatedUIClass) {
-        checkState(initializationScopeSet == null);
-        initializationScopeSet = new HashMap<>();
-        this.currentlyCreatedUIClass = currentlyCreatedUIClass;
+        checkState(initialization.get() == null);
+        initialization.set(new Initialization(currentlyCreatedUIClass, new ScopedObjects(statistics, slots)));
     }
 
     void flushInitialScopeSet(UI ui) {
         checkNotNull(ui);
-        checkState(initializationScopeSet != null);
-        checkArgument(ui.getClass().equals(currentlyCreatedUIClass));
+        final Initialization initialization = this.initialization.get();
+        checkState(initialization != null);
+        checkArgument(ui.getClass().equals(initialization.uiClass));
 
-        final Map<UI, Map<Key<?>, Object>> uiToScopedObjects = scopesBySession.computeIfAbsent(VaadinSession.getCurrent(), session -> new WeakHashMap<>());
+        final VaadinSession vaadinSession = VaadinSession.getCurrent();
 
-        checkState(uiToScopedObjects.put(ui, initializationScopeSet) == null);
+        final ConcurrentMap<UI, ScopedObjects> uiToScopedObjects = getUisToScopedObjects(vaadinSession);
+
+        checkState(uiToScopedObjects.putIfAbsent(ui, initialization.scopedObjects) == null);
+
+        initialization.flushed = true;
+
+        register(vaadinSession, ui, initialization.scopedObjects);
     }
 
+    /**
+     * ends the initialization, UI-scoped objects created for a UI that could not be created are
+     * destroyed
+     */
     void endScopeInit() {
-        initializationScopeSet = null;
-        currentlyCreatedUIClass = null;
+        final Initialization initialization = this.initialization.get();
+
+        this.initialization.remove();
+
+        if (initialization != null && !initialization.flushed) {
+            initialization.scopedObjects.destroy();
+        }
+    }
+
+    ScopeStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * a live view on the scope-contexts of all UIs, for diagnostics
+     */
+    Map<VaadinSession, ? extends Map<UI, ScopedObjects>> getAllScopedObjects() {
+        return Collections.unmodifiableMap(scopesBySession);
+    }
+
+    void destroy(VaadinSession vaadinSession, UI ui) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        //after deserialization, the UI may not have been accessed yet
+        final ScopedObjects serializedScopedObjects = sessionScopeData != null ? sessionScopeData.uiScopedObjects.remove(ui) : null;
+
+        final ConcurrentMap<UI, ScopedObjects> uisToScopedObjects = scopesBySession.get(vaadinSession);
+
+        ScopedObjects scopedObjects = uisToScopedObjects != null ? uisToScopedObjects.remove(ui) : null;
+
+        if (scopedObjects == null) {
+            scopedObjects = serializedScopedObjects;
+        }
+
+        if (scopedObjects != null) {
+            scopedObjects.destroy();
+        }
+    }
+
+    /**
+     * removes a single instance from the scope of a UI, so a new one will be created when it is
+     * requested again
+     */
+    void remove(VaadinSession vaadinSession, UI ui, Key<?> key) {
+        final int slot = slots.existingSlotOf(key);
+
+        if (slot == -1) {
+            return;
+        }
+
+        final ConcurrentMap<UI, ScopedObjects> uisToScopedObjects = scopesBySession.get(vaadinSession);
+
+        final ScopedObjects scopedObjects = uisToScopedObjects != null ? uisToScopedObjects.get(ui) : null;
+
+        if (scopedObjects != null) {
+            scopedObjects.destroy(slot);
+        }
+    }
+
+    /**
+     * removes the instance of the key from the scope of the UI without destroying it
+     */
+    Object detach(VaadinSession vaadinSession, UI ui, Key<?> key) {
+        final int slot = slots.existingSlotOf(key);
+
+        if (slot == -1) {
+            return null;
+        }
+
+        final ConcurrentMap<UI, ScopedObjects> uisToScopedObjects = scopesBySession.get(vaadinSession);
+
+        final ScopedObjects scopedObjects = uisToScopedObjects != null ? uisToScopedObjects.get(ui) : null;
+
+        return scopedObjects != null ? scopedObjects.detach(slot) : null;
+    }
+
+    /**
+     * puts an existing instance into the scope of the current UI, so it is returned for the key
+     * from now on
+     */
+    void attach(VaadinSession vaadinSession, Key<?> key, Object instance) {
+        getScopedObjects(vaadinSession).attach(slots.slotOf(key), instance);
+    }
+
+    void destroy(VaadinSession vaadinSession) {
+        final ConcurrentMap<UI, ScopedObjects> uisToScopedObjects = scopesBySession.remove(vaadinSession);
+
+        if (uisToScopedObjects != null) {
+            uisToScopedObjects.values().forEach(ScopedObjects::destroy);
+        }
+
+        //UIs that were not accessed since the session was deserialized, destroying twice does no harm
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        if (sessionScopeData != null) {
+            sessionScopeData.uiScopedObjects.values().forEach(ScopedObjects::destroy);
+            sessionScopeData.uiScopedObjects.clear();
+        }
+    }
+
+    private static final class Initialization {
+        final Class<? extends UI> uiClass;
+        final ScopedObjects scopedObjects;
+        boolean flushed;
+
+        Initialization(Class<? extends UI> uiClass, ScopedObjects scopedObjects) {
+            this.uiClass = uiClass;
+            this.scopedObjects = scopedObjects;
+        }
     }
 }
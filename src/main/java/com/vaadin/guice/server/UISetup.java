@@ -5,8 +5,10 @@ import com.google.inject.matcher.AbstractMatcher;
 import com.google.inject.spi.ProvisionListener;
 
 import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.guice.annotation.Lazy;
 import com.vaadin.guice.annotation.UIScope;
 import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
 import com.vaadin.navigator.ViewDisplay;
 import com.vaadin.server.ErrorHandler;
 import com.vaadin.ui.Component;
@@ -14,6 +16,9 @@ import com.vaadin.ui.ComponentContainer;
 import com.vaadin.ui.SingleComponentContainer;
 import com.vaadin.ui.UI;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 import static java.lang.reflect.Modifier.isAbstract;
@@ -64,6 +69,8 @@ class UISetup extends AbstractMatcher<Binding<?>> implements ProvisionListener {
 
             GuiceNavigator navigator = guiceVaadinServlet.getInjector().getInstance(annotation.navigator());
 
+            navigator.setGuiceVaadinServlet(guiceVaadinServlet);
+
             if (defaultView instanceof ViewDisplay) {
                 navigator.init(ui, (ViewDisplay) defaultView);
             } else if (defaultView instanceof ComponentContainer) {
@@ -84,11 +91,13 @@ class UISetup extends AbstractMatcher<Binding<?>> implements ProvisionListener {
                 navigator.setErrorProvider(new ErrorViewProvider(guiceVaadinServlet, annotation.errorView()));
             }
 
-            guiceVaadinServlet
-                    .getViewChangeListeners(uiClass)
-                    .stream()
-                    .map(guiceVaadinServlet.getInjector()::getInstance)
-                    .forEach(navigator::addViewChangeListener);
+            for (Class<? extends ViewChangeListener> viewChangeListenerClass : guiceVaadinServlet.getViewChangeListeners(uiClass)) {
+                final ViewChangeListener viewChangeListener = viewChangeListenerClass.isAnnotationPresent(Lazy.class)
+                        ? new LazyViewChangeListener(new LazyUIScoped<>(ui, guiceVaadinServlet, viewChangeListenerClass))
+                        : guiceVaadinServlet.getInjector().getInstance(viewChangeListenerClass);
+
+                navigator.addViewChangeListener(viewChangeListener);
+            }
 
             navigator.addProvider(guiceVaadinServlet.getViewProvider());
 
@@ -123,13 +132,27 @@ class UISetup extends AbstractMatcher<Binding<?>> implements ProvisionListener {
                     uiClass
             );
 
-            ErrorHandler errorHandler = guiceVaadinServlet.getInjector().getInstance(annotation.errorHandler());
+            ErrorHandler errorHandler = annotation.errorHandler().isAnnotationPresent(Lazy.class)
+                    ? new LazyErrorHandler(new LazyUIScoped<>(ui, guiceVaadinServlet, annotation.errorHandler()))
+                    : guiceVaadinServlet.getInjector().getInstance(annotation.errorHandler());
 
             ui.setErrorHandler(errorHandler);
         }
 
-        guiceVaadinServlet
-                .getControllerClasses(uiClass)
-                .forEach(guiceVaadinServlet.getInjector()::getInstance);
+        List<LazyUIScoped<?>> lazyControllers = new ArrayList<>();
+
+        for (Class<?> controllerClass : guiceVaadinServlet.getControllerClasses(uiClass)) {
+            if (controllerClass.isAnnotationPresent(Lazy.class)) {
+                lazyControllers.add(new LazyUIScoped<>(ui, guiceVaadinServlet, controllerClass));
+            } else {
+                guiceVaadinServlet.getInjector().getInstance(controllerClass);
+            }
+        }
+
+        if (!lazyControllers.isEmpty()) {
+            //the UI is attached to it's session right after it was created, access() then runs
+            //the task once the current request releases the session-lock
+            ui.addAttachListener(attachEvent -> ui.access(() -> lazyControllers.forEach(LazyUIScoped::get)));
+        }
     }
 }
@@ -9,6 +9,7 @@ import com.google.inject.spi.ProvisionListener;
 import com.vaadin.guice.annotation.Controller;
 import com.vaadin.guice.annotation.GuiceView;
 import com.vaadin.guice.annotation.NavigableViewClasses;
+import com.vaadin.guice.annotation.ScopePropagating;
 import com.vaadin.guice.annotation.UIScope;
 import com.vaadin.guice.annotation.VaadinSessionScope;
 import com.vaadin.guice.annotation.ViewScope;
@@ -17,6 +18,7 @@ import com.vaadin.ui.UI;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 class VaadinModule extends AbstractModule {
 
@@ -26,8 +28,15 @@ class VaadinModule extends AbstractModule {
     private final TypeLiteral<Map<String, Class<? extends View>>> mapOfViewClassesToStringsType = new TypeLiteral<Map<String, Class<? extends View>>>() {
     };
 
-    VaadinModule(GuiceVaadinServlet GuiceVaadinServlet) {
+    private final Set<Class<?>> explicitlyBoundClasses;
+
+    /**
+     * @param explicitlyBoundClasses classes that need to be bound explicitly, because guice would
+     *                               otherwise create their bindings in a shared parent-injector
+     */
+    VaadinModule(GuiceVaadinServlet GuiceVaadinServlet, Set<Class<?>> explicitlyBoundClasses) {
         this.guiceVaadinServlet = GuiceVaadinServlet;
+        this.explicitlyBoundClasses = explicitlyBoundClasses;
     }
 
     @Override
@@ -37,6 +46,10 @@ class VaadinModule extends AbstractModule {
         bindScope(ViewScope.class, guiceVaadinServlet.getViewScope());
         bindScope(VaadinSessionScope.class, guiceVaadinServlet.getVaadinSessionScoper());
 
+        for (Class<?> explicitlyBoundClass : explicitlyBoundClasses) {
+            bind(explicitlyBoundClass);
+        }
+
         UISetup uiSetup = new UISetup(guiceVaadinServlet);
 
         bindListener(uiSetup, uiSetup);
@@ -49,6 +62,10 @@ class VaadinModule extends AbstractModule {
                 .annotatedWith(NavigableViewClasses.class)
                 .toProvider(new NavigableViewsWithMappingProvider(guiceVaadinServlet));
 
+        bind(ExecutorService.class)
+                .annotatedWith(ScopePropagating.class)
+                .toInstance(guiceVaadinServlet.getScopePropagatingExecutor());
+
 
         for (Class<?> controllerClass : guiceVaadinServlet.getControllerClasses()) {
             final Controller annotation = controllerClass.getAnnotation(Controller.class);
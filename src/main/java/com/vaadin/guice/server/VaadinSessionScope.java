@@ -1,30 +1,303 @@
 package com.vaadin.guice.server;
 
+import com.google.common.collect.MapMaker;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
 
 import com.vaadin.server.VaadinSession;
 
-import java.util.HashMap;
+import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 class VaadinSessionScope implements Scope {
 
-    private final Map<VaadinSession, Map<Key<?>, Object>> scopeMapsBySession = new WeakHashMap<>();
+    private static final Logger logger = Logger.getLogger(VaadinSessionScope.class.getName());
+
+    private final ScopeStatistics statistics = new ScopeStatistics();
+    private final ScopeSlots slots = new ScopeSlots();
+    private final ConcurrentMap<VaadinSession, ScopedObjects> scopeMapsBySession = new MapMaker().weakKeys().makeMap();
+    //the scopes of idle sessions that are not on the heap, see ExternalizeIdleSessions
+    private final ConcurrentMap<VaadinSession, ExternalizedScopedObjects> externalizedBySession = new MapMaker().weakKeys().makeMap();
+    private final LatencyHistogram rehydrationLatency = new LatencyHistogram();
+    private final LongAdder externalizations = new LongAdder();
+    private final Consumer<Object> restoredInstanceListener;
+    private volatile SessionScopeStorage storage;
+
+    VaadinSessionScope() {
+        this(instance -> {
+        });
+    }
+
+    /**
+     * @param restoredInstanceListener called for session-scoped instances that were restored
+     *                                 after their session was deserialized
+     */
+    VaadinSessionScope(Consumer<Object> restoredInstanceListener) {
+        this.restoredInstanceListener = restoredInstanceListener;
+    }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T> Provider<T> scope(Key<T> key, Provider<T> provider) {
+        final int slot = slots.slotOf(key);
+
         return () -> {
             final VaadinSession vaadinSession = checkNotNull(VaadinSession.getCurrent());
 
-            final Map<Key<?>, Object> scopeMap = scopeMapsBySession.computeIfAbsent(vaadinSession, v -> new HashMap<>());
+            ScopedObjects scopedObjects = scopeMapsBySession.get(vaadinSession);
+
+            if (scopedObjects == null) {
+                scopedObjects = createOrRestore(vaadinSession);
+            } else if (!scopedObjects.isRegistered()) {
+                register(vaadinSession, scopedObjects);
+            }
 
-            return (T) scopeMap.computeIfAbsent(key, k -> provider.get());
+            return scopedObjects.get(slot, provider);
         };
     }
-}
\ No newline at end of file
+
+    private ScopedObjects createOrRestore(VaadinSession vaadinSession) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        ExternalizedScopedObjects externalizedScopedObjects = externalizedBySession.get(vaadinSession);
+
+        if (externalizedScopedObjects == null && sessionScopeData != null) {
+            externalizedScopedObjects = sessionScopeData.externalizedSessionScopedObjects;
+        }
+
+        if (externalizedScopedObjects != null) {
+            final long start = System.nanoTime();
+
+            final ScopedObjects rehydratedScopedObjects = rehydrate(vaadinSession, sessionScopeData, externalizedScopedObjects);
+
+            rehydrationLatency.record(System.nanoTime() - start);
+
+            return rehydratedScopedObjects;
+        }
+
+        //after deserialization, the servlet-level map does not know the session
+        final ScopedObjects serializedScopedObjects = sessionScopeData != null ? sessionScopeData.sessionScopedObjects : null;
+
+        final ScopedObjects scopedObjects;
+
+        if (serializedScopedObjects != null) {
+            serializedScopedObjects.rebind(statistics, slots, restoredInstanceListener);
+            serializedScopedObjects.markRegistered();
+            scopedObjects = serializedScopedObjects;
+        } else {
+            scopedObjects = new ScopedObjects(statistics, slots);
+        }
+
+        final ScopedObjects existingScopedObjects = scopeMapsBySession.putIfAbsent(vaadinSession, scopedObjects);
+
+        if (existingScopedObjects != null) {
+            if (!existingScopedObjects.isRegistered()) {
+                register(vaadinSession, existingScopedObjects);
+            }
+
+            return existingScopedObjects;
+        }
+
+        if (serializedScopedObjects == null) {
+            register(vaadinSession, scopedObjects);
+        }
+
+        return scopedObjects;
+    }
+
+    //does nothing without the session's lock, the next lookup that holds it will register the scope
+    private void register(VaadinSession vaadinSession, ScopedObjects scopedObjects) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        if (sessionScopeData != null) {
+            sessionScopeData.sessionScopedObjects = scopedObjects;
+            scopedObjects.markRegistered();
+        }
+    }
+
+    private ScopedObjects rehydrate(VaadinSession vaadinSession, SessionScopeData sessionScopeData, ExternalizedScopedObjects externalizedScopedObjects) {
+        //concurrent lookups of the same session must not read it twice
+        synchronized (externalizedScopedObjects) {
+            final ScopedObjects existingScopedObjects = scopeMapsBySession.get(vaadinSession);
+
+            if (existingScopedObjects != null) {
+                return existingScopedObjects;
+            }
+
+            ScopedObjects scopedObjects;
+
+            try {
+                scopedObjects = externalizedScopedObjects.load();
+                scopedObjects.rebind(statistics, slots, restoredInstanceListener);
+            } catch (IOException | ClassNotFoundException e) {
+                logger.log(Level.WARNING, "unable to read the externalized session-scope, instances will be created again", e);
+                scopedObjects = new ScopedObjects(statistics, slots);
+            }
+
+            scopeMapsBySession.put(vaadinSession, scopedObjects);
+            externalizedBySession.remove(vaadinSession, externalizedScopedObjects);
+
+            if (sessionScopeData != null) {
+                sessionScopeData.sessionScopedObjects = scopedObjects;
+                sessionScopeData.externalizedSessionScopedObjects = null;
+                scopedObjects.markRegistered();
+            }
+
+            try {
+                externalizedScopedObjects.remove();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "unable to remove an externalized session-scope from the storage", e);
+            }
+
+            return scopedObjects;
+        }
+    }
+
+    /**
+     * enables {@link #externalizeIdleSessions(long)}
+     */
+    void setStorage(SessionScopeStorage storage) {
+        this.storage = checkNotNull(storage);
+    }
+
+    /**
+     * writes the scopes of all sessions that did not receive a request in the given time to the
+     * storage and removes them from the heap. Sessions that are locked by another thread, still
+     * have UIs or hold instances that are not serializable are skipped, since rehydration hands out
+     * deserialized copies that anything still referencing the originals would not see.
+     *
+     * @return the number of externalized sessions
+     */
+    int externalizeIdleSessions(long idleTimeoutMillis) {
+        final SessionScopeStorage storage = checkNotNull(this.storage, "no storage set");
+
+        final long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+
+        int externalized = 0;
+
+        for (Map.Entry<VaadinSession, ScopedObjects> entry : scopeMapsBySession.entrySet()) {
+            final VaadinSession vaadinSession = entry.getKey();
+
+            if (vaadinSession.getLastRequestTimestamp() > idleSince || !entry.getValue().isSerializable()) {
+                continue;
+            }
+
+            final Lock lock = vaadinSession.getLockInstance();
+
+            //a session that is locked is not idle
+            if (lock == null || !lock.tryLock()) {
+                continue;
+            }
+
+            try {
+                /*
+                 * UIs and everything they reference may hold session-scoped instances, which
+                 * would diverge from the deserialized copies handed out after rehydration
+                 */
+                if (!vaadinSession.getUIs().isEmpty()) {
+                    continue;
+                }
+
+                if (externalize(vaadinSession, entry.getValue(), storage)) {
+                    externalized++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return externalized;
+    }
+
+    private boolean externalize(VaadinSession vaadinSession, ScopedObjects scopedObjects, SessionScopeStorage storage) {
+        final ExternalizedScopedObjects externalizedScopedObjects;
+
+        try {
+            externalizedScopedObjects = ExternalizedScopedObjects.store(scopedObjects, storage);
+        } catch (IOException e) {
+            logger.log(Level.FINE, "unable to externalize a session-scope, it is kept on the heap", e);
+            return false;
+        }
+
+        //registered before the scope is removed, so lookups in between still find the instances
+        externalizedBySession.put(vaadinSession, externalizedScopedObjects);
+        scopeMapsBySession.remove(vaadinSession, scopedObjects);
+
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        if (sessionScopeData != null) {
+            sessionScopeData.externalizedSessionScopedObjects = externalizedScopedObjects;
+            sessionScopeData.sessionScopedObjects = null;
+        }
+
+        externalizations.increment();
+
+        return true;
+    }
+
+    LatencySnapshot getRehydrationLatency() {
+        return rehydrationLatency.snapshot();
+    }
+
+    long getExternalizations() {
+        return externalizations.sum();
+    }
+
+    int getExternalizedSessions() {
+        return externalizedBySession.size();
+    }
+
+    ScopeStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * a live view on the scope-contexts of all sessions, for diagnostics
+     */
+    Map<VaadinSession, ScopedObjects> getAllScopedObjects() {
+        return Collections.unmodifiableMap(scopeMapsBySession);
+    }
+
+    /**
+     * a live view on the externalized scope-contexts of all sessions, for diagnostics
+     */
+    Map<VaadinSession, ExternalizedScopedObjects> getAllExternalizedScopedObjects() {
+        return Collections.unmodifiableMap(externalizedBySession);
+    }
+
+    void destroy(VaadinSession vaadinSession) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        ExternalizedScopedObjects externalizedScopedObjects = externalizedBySession.get(vaadinSession);
+
+        if (externalizedScopedObjects == null && sessionScopeData != null) {
+            externalizedScopedObjects = sessionScopeData.externalizedSessionScopedObjects;
+        }
+
+        //read back so @PreDestroy-methods are called, this is not counted as a rehydration
+        if (externalizedScopedObjects != null) {
+            rehydrate(vaadinSession, sessionScopeData, externalizedScopedObjects);
+        }
+
+        final ScopedObjects scopedObjects = scopeMapsBySession.remove(vaadinSession);
+
+        if (scopedObjects != null) {
+            scopedObjects.destroy();
+        }
+
+        //the session may not have been accessed since it was deserialized, destroying twice does no harm
+        if (sessionScopeData != null && sessionScopeData.sessionScopedObjects != null) {
+            sessionScopeData.sessionScopedObjects.destroy();
+            sessionScopeData.sessionScopedObjects = null;
+        }
+    }
+}
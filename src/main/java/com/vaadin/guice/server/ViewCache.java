@@ -0,0 +1,167 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.navigator.View;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * the views of a single UI, evicted according to {@link ViewCachePolicy}. The view that is
+ * currently displayed is never evicted.
+ */
+class ViewCache {
+
+    private final int maxSize;
+    //access-order, the least recently used view comes first
+    private final LinkedHashMap<String, CachedView> views = new LinkedHashMap<>(16, 0.75f, true);
+    private final List<View> uncachedViews = new ArrayList<>();
+    private final Map<String, Prefetch> prefetches = new HashMap<>();
+    private String lastViewName;
+
+    ViewCache(ViewCachePolicy uiPolicy) {
+        this.maxSize = uiPolicy.getMaxSize();
+    }
+
+    synchronized View get(String viewName, long now) {
+        final CachedView cachedView = views.get(viewName);
+
+        if (cachedView == null) {
+            return null;
+        }
+
+        cachedView.lastAccess = now;
+
+        return cachedView.view;
+    }
+
+    synchronized void put(String viewName, View view, ViewCachePolicy viewPolicy, long now) {
+        if (viewPolicy.isCaching()) {
+            views.put(viewName, new CachedView(view, viewPolicy.getIdleNanos(), now));
+        } else if (!uncachedViews.contains(view)) {
+            uncachedViews.add(view);
+        }
+    }
+
+    synchronized int size() {
+        return views.size() + uncachedViews.size();
+    }
+
+    /**
+     * remembers the name of the view navigated to and returns the one navigated to before, or null
+     */
+    synchronized String navigatedTo(String viewName) {
+        final String previousViewName = lastViewName;
+
+        lastViewName = viewName;
+
+        return previousViewName;
+    }
+
+    /**
+     * true if the view is neither cached nor being prefetched yet and there is room for it without
+     * evicting another view
+     */
+    synchronized boolean isPrefetchable(String viewName) {
+        return !views.containsKey(viewName)
+                && !prefetches.containsKey(viewName)
+                && (maxSize == 0 || views.size() + prefetches.size() < maxSize);
+    }
+
+    synchronized Prefetch startPrefetch(String viewName) {
+        final Prefetch prefetch = new Prefetch();
+
+        prefetches.put(viewName, prefetch);
+
+        return prefetch;
+    }
+
+    /**
+     * removes and returns the prefetch of the view, or null if it is not being prefetched
+     */
+    synchronized Prefetch removePrefetch(String viewName) {
+        return prefetches.remove(viewName);
+    }
+
+    /**
+     * @return false if the prefetch was already removed, like by a navigation to the view
+     */
+    synchronized boolean removePrefetch(String viewName, Prefetch prefetch) {
+        return prefetches.remove(viewName, prefetch);
+    }
+
+    /**
+     * removes and returns all views that are to be discarded
+     */
+    synchronized List<View> evict(long now, View currentView) {
+        return evict(now, currentView, currentView);
+    }
+
+    /**
+     * removes and returns all views that are to be discarded, except for the view that is
+     * navigated to, which is not the navigator's current view yet
+     */
+    synchronized List<View> evict(long now, View currentView, View nextView) {
+        List<View> evicted = new ArrayList<>();
+
+        for (Iterator<View> iterator = uncachedViews.iterator(); iterator.hasNext(); ) {
+            final View view = iterator.next();
+
+            if (view != currentView && view != nextView) {
+                iterator.remove();
+                evicted.add(view);
+            }
+        }
+
+        int size = views.size();
+
+        for (Iterator<Map.Entry<String, CachedView>> iterator = views.entrySet().iterator(); iterator.hasNext(); ) {
+            final CachedView cachedView = iterator.next().getValue();
+
+            if (cachedView.view == currentView || cachedView.view == nextView) {
+                continue;
+            }
+
+            final boolean overCapacity = maxSize != 0 && size > maxSize;
+            final boolean expired = cachedView.idleNanos != 0 && now - cachedView.lastAccess > cachedView.idleNanos;
+
+            if (overCapacity || expired) {
+                iterator.remove();
+                evicted.add(cachedView.view);
+                size--;
+            }
+        }
+
+        return evicted;
+    }
+
+    /**
+     * a view that is built in the background. It is built by whoever claims it first, either the
+     * background-thread or a navigation to the view, so it is never built twice for the same UI.
+     */
+    static final class Prefetch {
+        final CompletableFuture<View> view = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private static final class CachedView {
+        final View view;
+        final long idleNanos;
+        long lastAccess;
+
+        CachedView(View view, long idleNanos, long lastAccess) {
+            this.view = view;
+            this.idleNanos = idleNanos;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
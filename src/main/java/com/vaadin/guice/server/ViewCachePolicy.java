@@ -0,0 +1,79 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.ViewCaching;
+import com.vaadin.navigator.View;
+import com.vaadin.ui.UI;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * the resolved {@link ViewCaching} of a UI or a view
+ */
+final class ViewCachePolicy {
+
+    static final ViewCachePolicy DEFAULT = new ViewCachePolicy(ViewCaching.Mode.ALL, 0, 0);
+
+    private final ViewCaching.Mode mode;
+    private final int maxSize;
+    private final long idleNanos;
+
+    private ViewCachePolicy(ViewCaching.Mode mode, int maxSize, long idleNanos) {
+        this.mode = mode;
+        this.maxSize = maxSize;
+        this.idleNanos = idleNanos;
+    }
+
+    static ViewCachePolicy forUI(Class<? extends UI> uiClass) {
+        final ViewCaching viewCaching = uiClass.getAnnotation(ViewCaching.class);
+
+        return viewCaching != null ? of(viewCaching, uiClass) : DEFAULT;
+    }
+
+    static ViewCachePolicy forView(Class<? extends View> viewClass, ViewCachePolicy uiPolicy) {
+        final ViewCaching viewCaching = viewClass.getAnnotation(ViewCaching.class);
+
+        if (viewCaching == null) {
+            return uiPolicy;
+        }
+
+        checkState(
+                viewCaching.value() != ViewCaching.Mode.LRU,
+                "@ViewCaching(LRU) limits the number of views per UI and can therefore not be used on %s",
+                viewClass
+        );
+
+        return of(viewCaching, viewClass);
+    }
+
+    private static ViewCachePolicy of(ViewCaching viewCaching, Class<?> annotatedClass) {
+        switch (viewCaching.value()) {
+            case LRU:
+                checkArgument(viewCaching.maxSize() > 0, "@ViewCaching#maxSize() must be positive at %s", annotatedClass);
+                return new ViewCachePolicy(ViewCaching.Mode.LRU, viewCaching.maxSize(), 0);
+            case IDLE:
+                checkArgument(viewCaching.idleTimeout() > 0, "@ViewCaching#idleTimeout() must be positive at %s", annotatedClass);
+                return new ViewCachePolicy(ViewCaching.Mode.IDLE, 0, viewCaching.idleTimeoutUnit().toNanos(viewCaching.idleTimeout()));
+            default:
+                return new ViewCachePolicy(viewCaching.value(), 0, 0);
+        }
+    }
+
+    boolean isCaching() {
+        return mode != ViewCaching.Mode.NONE;
+    }
+
+    /**
+     * 0 if unlimited
+     */
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 0 if views never expire
+     */
+    long getIdleNanos() {
+        return idleNanos;
+    }
+}
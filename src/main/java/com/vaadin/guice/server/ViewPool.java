@@ -0,0 +1,49 @@
+package com.vaadin.guice.server;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * idle instances of one {@link com.vaadin.guice.annotation.Pooled} view-class in one session
+ */
+final class ViewPool {
+
+    private final int maxSize;
+    private final Deque<PooledView> views = new ArrayDeque<>();
+
+    ViewPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    synchronized boolean isFull() {
+        return views.size() >= maxSize;
+    }
+
+    /**
+     * @return false if the pool is full
+     */
+    synchronized boolean offer(PooledView view) {
+        if (views.size() >= maxSize) {
+            return false;
+        }
+
+        //the most recently used instance is taken first, it's the most likely to be in the cpu-cache
+        views.push(view);
+
+        return true;
+    }
+
+    synchronized PooledView poll() {
+        return views.poll();
+    }
+
+    synchronized List<PooledView> clear() {
+        List<PooledView> idleViews = new ArrayList<>(views);
+
+        views.clear();
+
+        return idleViews;
+    }
+}
@@ -0,0 +1,108 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.PrefetchViews;
+import com.vaadin.ui.UI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * the resolved {@link PrefetchViews} of a UI-class, including the learned transitions between
+ * views, which are shared by all UIs of that class
+ */
+final class ViewPrefetcher {
+
+    private final List<String> declaredViewNames;
+    private final boolean learn;
+    private final int maxLearned;
+    //view-name -> view-name navigated to next -> count
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> successors = new ConcurrentHashMap<>();
+
+    private ViewPrefetcher(List<String> declaredViewNames, boolean learn, int maxLearned) {
+        this.declaredViewNames = declaredViewNames;
+        this.learn = learn;
+        this.maxLearned = maxLearned;
+    }
+
+    /**
+     * returns null if the UI-class has no {@link PrefetchViews}
+     */
+    static ViewPrefetcher forUI(Class<? extends UI> uiClass, Set<String> viewNames) {
+        final PrefetchViews prefetchViews = uiClass.getAnnotation(PrefetchViews.class);
+
+        if (prefetchViews == null) {
+            return null;
+        }
+
+        checkArgument(prefetchViews.maxLearned() >= 0, "@PrefetchViews#maxLearned() must not be negative at %s", uiClass);
+
+        List<String> declaredViewNames = new ArrayList<>();
+
+        for (String viewName : prefetchViews.value()) {
+            final String normalizedViewName = viewName.toLowerCase();
+
+            checkArgument(
+                    viewNames.contains(normalizedViewName),
+                    "@PrefetchViews at %s refers to view '%s', which is not available for this UI",
+                    uiClass,
+                    viewName
+            );
+
+            declaredViewNames.add(normalizedViewName);
+        }
+
+        return new ViewPrefetcher(declaredViewNames, prefetchViews.learn(), prefetchViews.maxLearned());
+    }
+
+    /**
+     * records the navigation and returns the names of the views that are to be prefetched
+     * afterwards, the most likely first.
+     */
+    Set<String> navigated(String fromViewName, String toViewName) {
+        if (learn && fromViewName != null && !fromViewName.equals(toViewName)) {
+            successors
+                    .computeIfAbsent(fromViewName, v -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(toViewName, v -> new LongAdder())
+                    .increment();
+        }
+
+        final List<String> learnedViewNames = learn ? mostFrequentSuccessors(toViewName) : Collections.emptyList();
+
+        Set<String> viewNames = new LinkedHashSet<>(learnedViewNames);
+
+        viewNames.addAll(declaredViewNames);
+
+        viewNames.remove(toViewName);
+
+        return viewNames;
+    }
+
+    private List<String> mostFrequentSuccessors(String viewName) {
+        final Map<String, LongAdder> counts = successors.get(viewName);
+
+        if (counts == null || maxLearned == 0) {
+            return Collections.emptyList();
+        }
+
+        List<Map.Entry<String, LongAdder>> entries = new ArrayList<>(counts.entrySet());
+
+        entries.sort((a, b) -> Long.compare(b.getValue().sum(), a.getValue().sum()));
+
+        List<String> viewNames = new ArrayList<>(Math.min(maxLearned, entries.size()));
+
+        for (int i = 0; i < entries.size() && i < maxLearned; i++) {
+            viewNames.add(entries.get(i).getKey());
+        }
+
+        return viewNames;
+    }
+}
@@ -1,9 +1,11 @@
 package com.vaadin.guice.server;
 
 import com.google.inject.Injector;
+import com.google.inject.Key;
 
 import com.vaadin.navigator.View;
 import com.vaadin.navigator.ViewProvider;
+import com.vaadin.server.VaadinSession;
 
 abstract class ViewProviderBase implements ViewProvider {
     protected final GuiceVaadinServlet guiceVaadinServlet;
@@ -16,18 +18,43 @@ abstract class ViewProviderBase implements ViewProvider {
         final ViewScope viewScope = guiceVaadinServlet.getViewScope();
         final Injector injector = guiceVaadinServlet.getInjector();
 
-        synchronized (viewScope) {
-            try {
-                viewScope.startScopeInit(viewClass);
+        final long start = System.nanoTime();
 
-                View view = injector.getInstance(viewClass);
+        viewScope.startScopeInit(viewClass);
 
-                viewScope.flushInitialScopeSet(view);
+        try {
+            View view = injector.getInstance(viewClass);
 
-                return view;
-            } finally {
-                viewScope.endScopeInit();
-            }
+            viewScope.flushInitialScopeSet(view);
+
+            guiceVaadinServlet.getGuiceVaadinMetrics().viewCreated(viewClass, System.nanoTime() - start);
+
+            return view;
+        } finally {
+            viewScope.endScopeInit();
+        }
+    }
+
+    /**
+     * puts a view that was created for another UI of the current session into the current UI's
+     * scope and injects it's members again within a new ViewScope
+     */
+    View reuseView(View view) {
+        final ViewScope viewScope = guiceVaadinServlet.getViewScope();
+        final Class<? extends View> viewClass = view.getClass();
+
+        guiceVaadinServlet.getUiScope().attach(VaadinSession.getCurrent(), Key.get(viewClass), view);
+
+        viewScope.startScopeInit(viewClass);
+
+        try {
+            guiceVaadinServlet.getInjector().injectMembers(view);
+
+            viewScope.flushInitialScopeSet(view);
+
+            return view;
+        } finally {
+            viewScope.endScopeInit();
         }
     }
 }
@@ -1,17 +1,22 @@
 package com.vaadin.guice.server;
 
+import com.google.common.collect.MapMaker;
 import com.google.inject.Key;
 import com.google.inject.Provider;
 import com.google.inject.Scope;
 
-import com.vaadin.navigator.Navigator;
 import com.vaadin.navigator.View;
 import com.vaadin.server.VaadinSession;
 import com.vaadin.ui.UI;
 
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -19,62 +24,260 @@ import static com.google.common.base.Preconditions.checkState;
 
 class ViewScope implements Scope {
 
-    private final Map<VaadinSession, Map<UI, Map<View, Map<Key<?>, Object>>>> scopesBySession = new WeakHashMap<>();
-    private Map<Key<?>, Object> initializationScopeSet;
-    private Class<? extends View> currentlyCreatedViewClass;
+    private final ScopeStatistics statistics = new ScopeStatistics();
+    private final ScopeSlots slots = new ScopeSlots();
+    private final ConcurrentMap<VaadinSession, ConcurrentMap<UI, ConcurrentMap<View, ScopedObjects>>> scopesBySession = new MapMaker().weakKeys().makeMap();
+    //views are created in parallel across sessions and may create other views while being constructed,
+    //only set on threads that currently create a view
+    private final ThreadLocal<Deque<Initialization>> initializations = new ThreadLocal<>();
+    private final Consumer<Object> restoredInstanceListener;
+
+    ViewScope() {
+        this(instance -> {
+        });
+    }
+
+    /**
+     * @param restoredInstanceListener called for view-scoped instances that were restored after
+     *                                 their session was deserialized
+     */
+    ViewScope(Consumer<Object> restoredInstanceListener) {
+        this.restoredInstanceListener = restoredInstanceListener;
+    }
 
     @Override
-    @SuppressWarnings("unchecked")
     public <T> Provider<T> scope(Key<T> key, Provider<T> provider) {
+        final int slot = slots.slotOf(key);
+
         return () -> {
-            Map<Key<?>, Object> scopeMap = initializationScopeSet != null
-                    ? initializationScopeSet
-                    : getScopeMap();
+            final Initialization initialization = currentInitialization();
+
+            ScopedObjects scopedObjects = initialization != null
+                    ? initialization.scopedObjects
+                    : getScopedObjects();
 
-            return (T) scopeMap.computeIfAbsent(key, k -> provider.get());
+            return scopedObjects.get(slot, provider);
         };
     }
 
-    private Map<Key<?>, Object> getScopeMap() {
+    private ScopedObjects getScopedObjects() {
         final UI currentUI = checkNotNull(UI.getCurrent());
 
-        final Map<View, Map<Key<?>, Object>> viewScopeMap = getViewsToScopesMap(currentUI);
+        final ConcurrentMap<View, ScopedObjects> viewScopeMap = getViewsToScopesMap(currentUI);
+
+        //the view pinned by a ScopeContext takes precedence over the navigator's
+        final View currentView = checkNotNull(ScopeContext.getCurrentView(), "current view is not set up yet");
+
+        final VaadinSession vaadinSession = VaadinSession.getCurrent();
+
+        ScopedObjects scopedObjects = viewScopeMap.get(currentView);
+
+        if (scopedObjects != null) {
+            if (!scopedObjects.isRegistered()) {
+                register(vaadinSession, currentUI, currentView, scopedObjects);
+            }
+
+            return scopedObjects;
+        }
+
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        final ConcurrentMap<View, ScopedObjects> serializedViewScopes = sessionScopeData != null
+                ? sessionScopeData.viewScopedObjects.get(currentUI)
+                : null;
+
+        //the session was deserialized, so the servlet-level map does not know the view
+        final ScopedObjects serializedScopedObjects = serializedViewScopes != null ? serializedViewScopes.get(currentView) : null;
+
+        if (serializedScopedObjects != null) {
+            serializedScopedObjects.rebind(statistics, slots, restoredInstanceListener);
+            serializedScopedObjects.markRegistered();
+            scopedObjects = serializedScopedObjects;
+        } else {
+            scopedObjects = new ScopedObjects(statistics, slots);
+        }
+
+        final ScopedObjects existingScopedObjects = viewScopeMap.putIfAbsent(currentView, scopedObjects);
 
-        final Navigator navigator = checkNotNull(currentUI.getNavigator());
+        if (existingScopedObjects != null) {
+            if (!existingScopedObjects.isRegistered()) {
+                register(vaadinSession, currentUI, currentView, existingScopedObjects);
+            }
 
-        final View currentView = checkNotNull(navigator.getCurrentView());
+            return existingScopedObjects;
+        }
 
-        return viewScopeMap.computeIfAbsent(currentView, cv -> new HashMap<>());
+        if (serializedScopedObjects == null) {
+            register(vaadinSession, currentUI, currentView, scopedObjects);
+        }
+
+        return scopedObjects;
+    }
+
+    //does nothing without the session's lock, the next lookup that holds it will register the scope
+    private void register(VaadinSession vaadinSession, UI ui, View view, ScopedObjects scopedObjects) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        if (sessionScopeData != null) {
+            sessionScopeData.viewScopedObjects.computeIfAbsent(ui, u -> new ConcurrentHashMap<>()).put(view, scopedObjects);
+            scopedObjects.markRegistered();
+        }
     }
 
-    private Map<View, Map<Key<?>, Object>> getViewsToScopesMap(UI currentUI) {
+    private ConcurrentMap<View, ScopedObjects> getViewsToScopesMap(UI currentUI) {
         final VaadinSession vaadinSession = checkNotNull(VaadinSession.getCurrent());
 
-        Map<UI, Map<View, Map<Key<?>, Object>>> uisToScopedViews = scopesBySession.computeIfAbsent(vaadinSession, session -> new WeakHashMap<>());
+        ConcurrentMap<UI, ConcurrentMap<View, ScopedObjects>> uisToScopedViews = scopesBySession.get(vaadinSession);
+
+        if (uisToScopedViews == null) {
+            uisToScopedViews = scopesBySession.computeIfAbsent(vaadinSession, session -> new MapMaker().weakKeys().makeMap());
+        }
+
+        final ConcurrentMap<View, ScopedObjects> viewsToScopedObjects = uisToScopedViews.get(currentUI);
+
+        return viewsToScopedObjects != null
+                ? viewsToScopedObjects
+                : uisToScopedViews.computeIfAbsent(currentUI, ui -> new MapMaker().weakKeys().makeMap());
+    }
+
+    //lookups outside of view-creation do not allocate a deque
+    private Initialization currentInitialization() {
+        final Deque<Initialization> initializations = this.initializations.get();
 
-        return uisToScopedViews.computeIfAbsent(currentUI, ui -> new HashMap<>());
+        return initializations != null ? initializations.peek() : null;
     }
 
     void startScopeInit(Class<? extends View> currentlyCreatedViewClass) {
-        checkState(initializationScopeSet == null);
-        initializationScopeSet = new HashMap<>();
-        this.currentlyCreatedViewClass = currentlyCreatedViewClass;
+        Deque<Initialization> initializations = this.initializations.get();
+
+        if (initializations == null) {
+            initializations = new ArrayDeque<>();
+            this.initializations.set(initializations);
+        }
+
+        initializations.push(new Initialization(currentlyCreatedViewClass, new ScopedObjects(statistics, slots)));
     }
 
     void flushInitialScopeSet(View view) {
         checkNotNull(view);
-        checkState(initializationScopeSet != null);
-        checkArgument(view.getClass().equals(currentlyCreatedViewClass));
+        final Initialization initialization = currentInitialization();
+        checkState(initialization != null);
+        checkArgument(view.getClass().equals(initialization.viewClass));
 
         final UI currentUI = checkNotNull(UI.getCurrent());
 
-        final Map<View, Map<Key<?>, Object>> viewsToScopesMap = getViewsToScopesMap(currentUI);
+        final ConcurrentMap<View, ScopedObjects> viewsToScopesMap = getViewsToScopesMap(currentUI);
+
+        checkState(viewsToScopesMap.putIfAbsent(view, initialization.scopedObjects) == null);
 
-        checkState(viewsToScopesMap.put(view, initializationScopeSet) == null);
+        initialization.flushed = true;
+
+        register(VaadinSession.getCurrent(), currentUI, view, initialization.scopedObjects);
     }
 
     void endScopeInit() {
-        initializationScopeSet = null;
-        currentlyCreatedViewClass = null;
+        final Deque<Initialization> initializations = this.initializations.get();
+
+        checkState(initializations != null && !initializations.isEmpty());
+
+        final Initialization initialization = initializations.pop();
+
+        if (initializations.isEmpty()) {
+            this.initializations.remove();
+        }
+
+        //the view could not be created, so nothing else will destroy it's view-scoped objects
+        if (!initialization.flushed) {
+            initialization.scopedObjects.destroy();
+        }
+    }
+
+    ScopeStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * a live view on the scope-contexts of all views, for diagnostics
+     */
+    Map<VaadinSession, ? extends Map<UI, ? extends Map<View, ScopedObjects>>> getAllScopedObjects() {
+        return Collections.unmodifiableMap(scopesBySession);
+    }
+
+    void destroy(VaadinSession vaadinSession, UI ui) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        //after deserialization, views may not have been accessed yet
+        final Map<View, ScopedObjects> viewsToScopedObjects = new IdentityHashMap<>();
+
+        final ConcurrentMap<View, ScopedObjects> serializedViewsToScopedObjects = sessionScopeData != null
+                ? sessionScopeData.viewScopedObjects.remove(ui)
+                : null;
+
+        if (serializedViewsToScopedObjects != null) {
+            viewsToScopedObjects.putAll(serializedViewsToScopedObjects);
+        }
+
+        final ConcurrentMap<UI, ConcurrentMap<View, ScopedObjects>> uisToScopedViews = scopesBySession.get(vaadinSession);
+
+        final ConcurrentMap<View, ScopedObjects> activeViewsToScopedObjects = uisToScopedViews != null ? uisToScopedViews.remove(ui) : null;
+
+        if (activeViewsToScopedObjects != null) {
+            viewsToScopedObjects.putAll(activeViewsToScopedObjects);
+        }
+
+        viewsToScopedObjects.values().forEach(ScopedObjects::destroy);
+    }
+
+    void destroy(VaadinSession vaadinSession, UI ui, View view) {
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        final ConcurrentMap<View, ScopedObjects> serializedViewsToScopedObjects = sessionScopeData != null
+                ? sessionScopeData.viewScopedObjects.get(ui)
+                : null;
+
+        final ScopedObjects serializedScopedObjects = serializedViewsToScopedObjects != null
+                ? serializedViewsToScopedObjects.remove(view)
+                : null;
+
+        final ConcurrentMap<UI, ConcurrentMap<View, ScopedObjects>> uisToScopedViews = scopesBySession.get(vaadinSession);
+
+        final ConcurrentMap<View, ScopedObjects> viewsToScopedObjects = uisToScopedViews != null ? uisToScopedViews.get(ui) : null;
+
+        ScopedObjects scopedObjects = viewsToScopedObjects != null ? viewsToScopedObjects.remove(view) : null;
+
+        if (scopedObjects == null) {
+            scopedObjects = serializedScopedObjects;
+        }
+
+        if (scopedObjects != null) {
+            scopedObjects.destroy();
+        }
+    }
+
+    void destroy(VaadinSession vaadinSession) {
+        final ConcurrentMap<UI, ConcurrentMap<View, ScopedObjects>> uisToScopedViews = scopesBySession.remove(vaadinSession);
+
+        if (uisToScopedViews != null) {
+            uisToScopedViews.values().forEach(viewsToScopedObjects -> viewsToScopedObjects.values().forEach(ScopedObjects::destroy));
+        }
+
+        //views that were not accessed since the session was deserialized, destroying twice does no harm
+        final SessionScopeData sessionScopeData = SessionScopeData.of(vaadinSession);
+
+        if (sessionScopeData != null) {
+            sessionScopeData.viewScopedObjects.values().forEach(viewsToScopedObjects -> viewsToScopedObjects.values().forEach(ScopedObjects::destroy));
+            sessionScopeData.viewScopedObjects.clear();
+        }
+    }
+
+    private static final class Initialization {
+        final Class<? extends View> viewClass;
+        final ScopedObjects scopedObjects;
+        boolean flushed;
+
+        Initialization(Class<? extends View> viewClass, ScopedObjects scopedObjects) {
+            this.viewClass = viewClass;
+            this.scopedObjects = scopedObjects;
+        }
     }
 }
@@ -0,0 +1,4 @@
+package com.vaadin.guice.parallel;
+
+public class Module1 extends RecordingModule {
+}
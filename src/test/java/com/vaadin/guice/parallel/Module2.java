@@ -0,0 +1,4 @@
+package com.vaadin.guice.parallel;
+
+public class Module2 extends RecordingModule {
+}
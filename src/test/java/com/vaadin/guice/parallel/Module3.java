@@ -0,0 +1,4 @@
+package com.vaadin.guice.parallel;
+
+public class Module3 extends RecordingModule {
+}
@@ -0,0 +1,19 @@
+package com.vaadin.guice.parallel;
+
+import com.google.inject.AbstractModule;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public abstract class RecordingModule extends AbstractModule {
+
+    public static final Map<Class<?>, Thread> constructingThreads = new ConcurrentHashMap<>();
+
+    RecordingModule() {
+        constructingThreads.put(getClass(), Thread.currentThread());
+    }
+
+    @Override
+    protected void configure() {
+    }
+}
@@ -0,0 +1,12 @@
+package com.vaadin.guice.pooled;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+@GuiceUI
+public class PoolUI extends UI {
+    @Override
+    protected void init(VaadinRequest request) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.vaadin.guice.pooled;
+
+import com.vaadin.guice.annotation.PreDestroy;
+import com.vaadin.guice.annotation.ViewScope;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@ViewScope
+public class SearchPresenter {
+
+    public static final List<SearchPresenter> destroyed = new CopyOnWriteArrayList<>();
+
+    @PreDestroy
+    void destroy() {
+        destroyed.add(this);
+    }
+}
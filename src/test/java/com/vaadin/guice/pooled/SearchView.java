@@ -0,0 +1,40 @@
+package com.vaadin.guice.pooled;
+
+import com.google.inject.Inject;
+
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.guice.annotation.Pooled;
+import com.vaadin.guice.annotation.PreDestroy;
+import com.vaadin.guice.annotation.ViewCaching;
+import com.vaadin.guice.server.PooledView;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+@GuiceView("search")
+@ViewCaching(ViewCaching.Mode.NONE)
+@Pooled(maxSize = 1)
+public class SearchView implements PooledView {
+
+    public static final List<SearchView> destroyed = new CopyOnWriteArrayList<>();
+
+    @Inject
+    public SearchPresenter presenter;
+
+    public int resets;
+
+    @Override
+    public void enter(ViewChangeEvent event) {
+    }
+
+    @Override
+    public void reset() {
+        resets++;
+    }
+
+    @PreDestroy
+    void destroy() {
+        destroyed.add(this);
+    }
+}
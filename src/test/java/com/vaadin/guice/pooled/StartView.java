@@ -0,0 +1,12 @@
+package com.vaadin.guice.pooled;
+
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+
+@GuiceView("")
+public class StartView implements View {
+    @Override
+    public void enter(ViewChangeEvent event) {
+    }
+}
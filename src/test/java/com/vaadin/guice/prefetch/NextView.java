@@ -0,0 +1,33 @@
+package com.vaadin.guice.prefetch;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.server.VaadinSession;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+@GuiceView("next")
+public class NextView implements View {
+
+    public static final List<NextView> instances = new CopyOnWriteArrayList<>();
+    public static volatile CountDownLatch constructionStarted = new CountDownLatch(1);
+    public static volatile CountDownLatch constructionReleased = new CountDownLatch(0);
+
+    public final Thread constructingThread = Thread.currentThread();
+    public final boolean constructedWithLock = VaadinSession.getCurrent() != null && VaadinSession.getCurrent().hasLock();
+
+    public NextView() {
+        constructionStarted.countDown();
+        Uninterruptibles.awaitUninterruptibly(constructionReleased);
+        instances.add(this);
+    }
+
+    @Override
+    public void enter(ViewChangeEvent event) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.vaadin.guice.prefetch;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.guice.annotation.PrefetchViews;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+@GuiceUI
+@PrefetchViews("next")
+public class PrefetchUI extends UI {
+
+    public transient VaadinSession vaadinSession;
+
+    @Override
+    protected void init(VaadinRequest request) {
+    }
+
+    //the UI is not attached to a real session
+    @Override
+    public Future<Void> access(Runnable runnable) {
+        vaadinSession.getLockInstance().lock();
+
+        try {
+            runnable.run();
+        } finally {
+            vaadinSession.getLockInstance().unlock();
+        }
+
+        return CompletableFuture.completedFuture(null);
+    }
+}
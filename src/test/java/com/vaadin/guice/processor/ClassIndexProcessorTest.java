@@ -0,0 +1,96 @@
+package com.vaadin.guice.processor;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ClassIndexProcessorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File classOutput;
+
+    @Before
+    public void setup() throws IOException {
+        classOutput = temporaryFolder.newFolder("classes");
+    }
+
+    @Test
+    public void concrete_classes_should_be_indexed_by_supertype_and_annotation() throws IOException {
+        compile(
+                "app.AppModule", "package app; public class AppModule extends com.google.inject.AbstractModule { protected void configure() {} }",
+                "app.AbstractView", "package app; public abstract class AbstractView implements com.vaadin.navigator.View {}",
+                "app.Views", "package app; public class Views { public static class Orders extends AbstractView { public void enter(com.vaadin.navigator.ViewChangeListener.ViewChangeEvent event) {} } }",
+                "app.OrdersController", "package app; @com.vaadin.guice.annotation.Controller(com.vaadin.ui.Label.class) public class OrdersController {}"
+        );
+
+        final Map<String, Set<String>> index = readIndex();
+
+        assertEquals(singletonList("app.AppModule"), new ArrayList<>(index.get("com.google.inject.Module")));
+        assertEquals(singletonList("app.Views$Orders"), new ArrayList<>(index.get("com.vaadin.navigator.View")));
+        assertEquals(singletonList("app.OrdersController"), new ArrayList<>(index.get("com.vaadin.guice.annotation.Controller")));
+    }
+
+    @Test
+    public void incremental_compilation_should_keep_entries_of_unchanged_classes() throws IOException {
+        compile(
+                "app.FirstModule", "package app; public class FirstModule extends com.google.inject.AbstractModule { protected void configure() {} }",
+                "app.RemovedModule", "package app; public class RemovedModule extends com.google.inject.AbstractModule { protected void configure() {} }"
+        );
+
+        assertTrue(new File(classOutput, "app/RemovedModule.class").delete());
+
+        //only the changed class is handed to the processor
+        compile(
+                "app.SecondModule", "package app; public class SecondModule extends com.google.inject.AbstractModule { protected void configure() {} }"
+        );
+
+        final Set<String> modules = readIndex().get("com.google.inject.Module");
+
+        assertEquals(asList("app.FirstModule", "app.SecondModule"), new ArrayList<>(modules));
+        assertFalse(modules.contains("app.RemovedModule"));
+    }
+
+    @Test
+    public void index_should_be_read_in_the_written_format() throws IOException {
+        final Map<String, Set<String>> index = ClassIndexProcessor.read(new StringReader(
+                "#comment\n" +
+                        "com.vaadin.ui.UI=app.UI1, app.UI2\n" +
+                        "\n" +
+                        "malformed\n" +
+                        "com.vaadin.navigator.View=\n"
+        ));
+
+        assertEquals(asList("app.UI1", "app.UI2"), new ArrayList<>(index.get("com.vaadin.ui.UI")));
+        assertTrue(index.get("com.vaadin.navigator.View").isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    private void compile(String... classNamesAndSources) throws IOException {
+        new TestCompiler(temporaryFolder, classOutput).compile(classNamesAndSources);
+    }
+
+    private Map<String, Set<String>> readIndex() throws IOException {
+        try (Reader reader = Files.newBufferedReader(new File(classOutput, ClassIndexProcessor.INDEX_LOCATION).toPath(), StandardCharsets.UTF_8)) {
+            return ClassIndexProcessor.read(reader);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.vaadin.guice.processor;
+
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * compiles sources with the {@link ClassIndexProcessor} into a class-output folder, like an
+ * application that has the processor on it's annotation-processor path
+ */
+public final class TestCompiler {
+
+    private final TemporaryFolder temporaryFolder;
+    private final File classOutput;
+
+    public TestCompiler(TemporaryFolder temporaryFolder, File classOutput) {
+        this.temporaryFolder = temporaryFolder;
+        this.classOutput = classOutput;
+    }
+
+    /**
+     * compiles the given pairs of class-name and source, classes compiled before are on the
+     * classpath
+     */
+    public void compile(String... classNamesAndSources) throws IOException {
+        final File sourceDirectory = temporaryFolder.newFolder();
+
+        final List<File> sourceFiles = new ArrayList<>();
+
+        for (int i = 0; i < classNamesAndSources.length; i += 2) {
+            final File sourceFile = new File(sourceDirectory, classNamesAndSources[i].replace('.', '/') + ".java");
+
+            Files.createDirectories(sourceFile.getParentFile().toPath());
+            Files.write(sourceFile.toPath(), classNamesAndSources[i + 1].getBytes(StandardCharsets.UTF_8));
+
+            sourceFiles.add(sourceFile);
+        }
+
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+        final DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            fileManager.setLocation(StandardLocation.CLASS_OUTPUT, singletonList(classOutput));
+            fileManager.setLocation(StandardLocation.SOURCE_OUTPUT, singletonList(temporaryFolder.newFolder()));
+
+            final String classPath = System.getProperty("java.class.path") + File.pathSeparator + classOutput;
+
+            final JavaCompiler.CompilationTask task = compiler.getTask(
+                    null,
+                    fileManager,
+                    diagnostics,
+                    asList("-classpath", classPath),
+                    null,
+                    fileManager.getJavaFileObjectsFromFiles(sourceFiles)
+            );
+
+            task.setProcessors(singletonList(new ClassIndexProcessor()));
+
+            assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+        }
+    }
+}
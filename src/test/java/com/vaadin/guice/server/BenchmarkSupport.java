@@ -0,0 +1,248 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewProvider;
+import com.vaadin.server.UICreateEvent;
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * the entry point of the benchmarks in 'benchmarks/' into the package-private parts of
+ * guice-vaadin, published with the test-jar. Servlets are initialized without a
+ * servlet-container and without mocks, so nothing but guice-vaadin and vaadin is measured.
+ */
+public final class BenchmarkSupport {
+
+    private final GuiceVaadinServlet servlet;
+
+    private BenchmarkSupport(GuiceVaadinServlet servlet) {
+        this.servlet = servlet;
+    }
+
+    public static BenchmarkSupport start(GuiceVaadinServlet servlet) {
+        final ServletContext servletContext = newServletContext();
+
+        final ServletConfig servletConfig = new ServletConfig() {
+            //no name, so the MBeans of servlets started one after another get unique names
+            @Override
+            public String getServletName() {
+                return null;
+            }
+
+            @Override
+            public ServletContext getServletContext() {
+                return servletContext;
+            }
+
+            @Override
+            public String getInitParameter(String name) {
+                return null;
+            }
+
+            @Override
+            public Enumeration<String> getInitParameterNames() {
+                return Collections.emptyEnumeration();
+            }
+        };
+
+        try {
+            servlet.init(servletConfig);
+        } catch (ServletException e) {
+            throw new RuntimeException(e);
+        }
+
+        return new BenchmarkSupport(servlet);
+    }
+
+    /**
+     * a servlet-context that only keeps attributes, everything else is empty
+     */
+    private static ServletContext newServletContext() {
+        final Map<Object, Object> attributes = new ConcurrentHashMap<>();
+
+        return (ServletContext) Proxy.newProxyInstance(
+                BenchmarkSupport.class.getClassLoader(),
+                new Class<?>[]{ServletContext.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getAttribute":
+                            return attributes.get(args[0]);
+                        case "setAttribute":
+                            attributes.put(args[0], args[1]);
+                            return null;
+                        case "removeAttribute":
+                            attributes.remove(args[0]);
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "benchmark servlet-context";
+                    }
+
+                    final Class<?> returnType = method.getReturnType();
+
+                    if (returnType == boolean.class) {
+                        return false;
+                    } else if (returnType == int.class) {
+                        return 0;
+                    } else if (returnType == Enumeration.class) {
+                        return Collections.emptyEnumeration();
+                    } else if (returnType == Map.class) {
+                        return Collections.emptyMap();
+                    }
+
+                    return null;
+                }
+        );
+    }
+
+    public GuiceVaadinServlet getServlet() {
+        return servlet;
+    }
+
+    /**
+     * a session that is not locked, like one that is accessed outside of a request
+     */
+    public VaadinSession newSession() {
+        return new BenchmarkSession(servlet.getService());
+    }
+
+    /**
+     * creates a UI like {@link GuiceUIProvider} would do it for a new browser-tab and makes
+     * session and UI current.
+     */
+    public UI createUI(VaadinSession session, Class<? extends UI> uiClass) {
+        VaadinSession.setCurrent(session);
+
+        final UI ui = servlet.getGuiceUIProvider().createInstance(new UICreateEvent(null, uiClass));
+
+        UI.setCurrent(ui);
+
+        return ui;
+    }
+
+    public static void makeCurrent(VaadinSession session, UI ui) {
+        VaadinSession.setCurrent(session);
+        UI.setCurrent(ui);
+    }
+
+    public ViewProvider getViewProvider() {
+        return servlet.getViewProvider();
+    }
+
+    /**
+     * creates a view like {@link GuiceViewProvider} does, bypassing the view-cache
+     */
+    public View createView(Class<? extends View> viewClass) {
+        return servlet.getViewProvider().getView(viewClass);
+    }
+
+    public <T> Provider<T> uiScoped(Key<T> key, Provider<T> provider) {
+        return servlet.getUiScope().scope(key, provider);
+    }
+
+    public <T> Provider<T> viewScoped(Key<T> key, Provider<T> provider) {
+        return servlet.getViewScope().scope(key, provider);
+    }
+
+    public <T> Provider<T> sessionScoped(Key<T> key, Provider<T> provider) {
+        return servlet.getVaadinSessionScoper().scope(key, provider);
+    }
+
+    /**
+     * opens the scope of the current session's UI, initialization creates the UI-scoped instances
+     */
+    public void initUIScope(UI ui, Runnable initialization) {
+        final UIScope uiScope = servlet.getUiScope();
+
+        uiScope.startScopeInit(ui.getClass());
+
+        try {
+            initialization.run();
+            uiScope.flushInitialScopeSet(ui);
+        } finally {
+            uiScope.endScopeInit();
+        }
+    }
+
+    /**
+     * opens the scope of a view of the current UI, initialization creates the view-scoped
+     * instances
+     */
+    public void initViewScope(View view, Runnable initialization) {
+        final ViewScope viewScope = servlet.getViewScope();
+
+        viewScope.startScopeInit(view.getClass());
+
+        try {
+            initialization.run();
+            viewScope.flushInitialScopeSet(view);
+        } finally {
+            viewScope.endScopeInit();
+        }
+    }
+
+    /**
+     * UI-selection by request-path as done by {@link GuiceUIProvider#getUIClass}
+     */
+    public static <V> Function<String, V> uiRoutes(Map<String, V> routes) {
+        final PathTrie<V> pathTrie = new PathTrie<>();
+
+        routes.forEach(pathTrie::put);
+
+        return pathInfo -> pathTrie.get(pathInfo, 0, GuiceUIProvider.getPathEnd(pathInfo));
+    }
+
+    /**
+     * resolution of navigation-states to view-names as done by {@link
+     * GuiceViewProvider#getViewName(String)}
+     */
+    public static Function<String, String> viewNames(Collection<String> viewNames) {
+        final PathTrie<String> pathTrie = new PathTrie<>();
+
+        viewNames.forEach(viewName -> pathTrie.putPrefix(viewName, viewName));
+
+        return pathTrie::get;
+    }
+
+    /*
+     * a session that is not stored in a wrapped session has no lock, this one brings it's own
+     */
+    private static final class BenchmarkSession extends VaadinSession {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Lock lock = new ReentrantLock();
+
+        BenchmarkSession(VaadinService service) {
+            super(checkNotNull(service));
+        }
+
+        @Override
+        public Lock getLockInstance() {
+            return lock;
+        }
+    }
+}
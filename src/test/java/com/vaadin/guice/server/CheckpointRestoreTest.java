@@ -0,0 +1,128 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.SharedBindings;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.servlet.ServletContext;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * drives the checkpoint/restore-callbacks in-process, a real checkpoint needs a CRaC-enabled JDK,
+ * see CheckpointRestoreHarness in the benchmarks
+ */
+public class CheckpointRestoreTest {
+
+    private static final List<String> events = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        VaadinSession.setCurrent(null);
+        events.clear();
+    }
+
+    @Test
+    public void checkpoint_should_clear_scopes_and_notify_singletons() throws Exception {
+        final GuiceVaadinServlet servlet = TestServlets.init(new Servlet());
+
+        servlet.getInjector().getInstance(Resource.class);
+
+        VaadinSession.setCurrent(mock(VaadinSession.class));
+
+        servlet.getVaadinSessionScoper().scope(Key.get(Object.class), Object::new).get();
+
+        assertEquals(1, servlet.getVaadinSessionScoper().getAllScopedObjects().size());
+
+        servlet.beforeCheckpoint();
+
+        assertTrue(servlet.getVaadinSessionScoper().getAllScopedObjects().isEmpty());
+
+        servlet.afterRestore();
+
+        assertEquals(asList("Resource.beforeCheckpoint", "Resource.afterRestore"), events);
+    }
+
+    @Test
+    public void singletons_of_a_shared_parent_injector_should_be_notified_once_per_context() throws Exception {
+        final ServletContext servletContext = TestServlets.newServletContext();
+
+        final GuiceVaadinServlet servlet1 = TestServlets.init(new SharingServlet1(), servletContext);
+        final GuiceVaadinServlet servlet2 = TestServlets.init(new SharingServlet2(), servletContext);
+
+        assertSame(
+                servlet1.getInjector().getInstance(SharedResource.class),
+                servlet2.getInjector().getInstance(SharedResource.class)
+        );
+
+        servlet1.beforeCheckpoint();
+        servlet2.beforeCheckpoint();
+
+        //not notified by the servlets
+        assertEquals(emptyList(), events);
+
+        final List<CheckpointAware> parentInjectorCheckpoints = SharedStartupState.of(servletContext).getParentInjectorCheckpoints();
+
+        assertEquals(1, parentInjectorCheckpoints.size());
+
+        parentInjectorCheckpoints.get(0).beforeCheckpoint();
+        parentInjectorCheckpoints.get(0).afterRestore();
+
+        servlet1.afterRestore();
+        servlet2.afterRestore();
+
+        assertEquals(asList("SharedResource.beforeCheckpoint", "SharedResource.afterRestore"), events);
+    }
+
+    @Singleton
+    static class Resource implements CheckpointAware {
+        @Override
+        public void beforeCheckpoint() {
+            events.add(getClass().getSimpleName() + ".beforeCheckpoint");
+        }
+
+        @Override
+        public void afterRestore() {
+            events.add(getClass().getSimpleName() + ".afterRestore");
+        }
+    }
+
+    static class SharedResource extends Resource {
+    }
+
+    public static class SharedModule extends AbstractModule {
+        @Override
+        protected void configure() {
+            bind(SharedResource.class).in(Singleton.class);
+        }
+    }
+
+    @PackagesToScan("com.vaadin.guice.testClasses")
+    static class Servlet extends GuiceVaadinServlet {
+    }
+
+    @SharedBindings(SharedModule.class)
+    @PackagesToScan("com.vaadin.guice.testClasses")
+    static class SharingServlet1 extends GuiceVaadinServlet {
+    }
+
+    @SharedBindings(SharedModule.class)
+    @PackagesToScan("com.vaadin.guice.testClasses")
+    static class SharingServlet2 extends GuiceVaadinServlet {
+    }
+}
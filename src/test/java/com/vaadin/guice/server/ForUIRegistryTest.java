@@ -0,0 +1,81 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.vaadin.guice.annotation.Controller;
+import com.vaadin.guice.annotation.ForUI;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ForUIRegistryTest {
+
+    private final ForUIRegistry registry = new ForUIRegistry(
+            ImmutableSet.of(UI1.class, UI2.class),
+            ImmutableSet.of(CommonView.class, UI2View.class),
+            ImmutableSet.of(),
+            ImmutableSet.of(UI1Controller.class)
+    );
+
+    @Test
+    public void views_without_for_ui_should_apply_to_all_uis() {
+        assertTrue(registry.appliesForUI(UI1.class, CommonView.class));
+        assertTrue(registry.appliesForUI(UI2.class, CommonView.class));
+    }
+
+    @Test
+    public void views_with_for_ui_should_apply_to_their_uis_only() {
+        assertFalse(registry.appliesForUI(UI1.class, UI2View.class));
+        assertTrue(registry.appliesForUI(UI2.class, UI2View.class));
+
+        assertEquals(ImmutableSet.of(CommonView.class), registry.getViewClasses(UI1.class));
+        assertEquals(ImmutableSet.of(CommonView.class, UI2View.class), registry.getViewClasses(UI2.class));
+    }
+
+    @Test
+    public void controllers_should_be_attached_to_their_ui() {
+        assertEquals(ImmutableSet.of(UI1Controller.class), registry.getControllerClasses(UI1.class));
+        assertEquals(ImmutableSet.of(), registry.getControllerClasses(UI2.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unregistered_uis_should_be_rejected() {
+        registry.getViewClasses(UI.class);
+    }
+
+    static class UI1 extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    static class UI2 extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    static class CommonView implements View {
+        @Override
+        public void enter(ViewChangeEvent event) {
+        }
+    }
+
+    @ForUI(UI2.class)
+    static class UI2View implements View {
+        @Override
+        public void enter(ViewChangeEvent event) {
+        }
+    }
+
+    @Controller(UI1.class)
+    static class UI1Controller {
+    }
+}
@@ -0,0 +1,176 @@
+package com.vaadin.guice.server;
+
+import com.google.common.util.concurrent.MoreExecutors;
+
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.navigator.ViewDisplay;
+import com.vaadin.server.Page;
+import com.vaadin.ui.Component;
+import com.vaadin.ui.CustomComponent;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GuiceNavigatorTest {
+
+    private GuiceNavigator navigator;
+    private ViewDisplay display;
+
+    @Before
+    public void setup() {
+        final UI ui = mock(UI.class);
+        when(ui.getPage()).thenReturn(mock(Page.class));
+
+        //runs the command right away, as if the session was locked
+        when(ui.access(any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        });
+
+        final GuiceVaadinServlet servlet = mock(GuiceVaadinServlet.class);
+        when(servlet.getScopePropagatingExecutor()).thenReturn(MoreExecutors.newDirectExecutorService());
+
+        display = mock(ViewDisplay.class);
+
+        navigator = new GuiceNavigator();
+        navigator.setGuiceVaadinServlet(servlet);
+        navigator.init(ui, display);
+    }
+
+    @Test
+    public void placeholder_should_be_shown_while_loading() {
+        final TestView view = new TestView();
+
+        navigator.addView("a", view);
+        navigator.navigateTo("a");
+
+        final ArgumentCaptor<View> shownView = ArgumentCaptor.forClass(View.class);
+        verify(display).showView(shownView.capture());
+
+        assertNotSame(view, shownView.getValue());
+        assertSame(view.placeholder, ((CustomComponent) shownView.getValue()).iterator().next());
+        assertEquals(emptyList(), view.shown);
+
+        view.loads.get(0).complete("data");
+
+        verify(display, atLeastOnce()).showView(view);
+        assertEquals(singletonList("data"), view.shown);
+    }
+
+    @Test
+    public void vetoed_navigation_should_not_load() {
+        final TestView view = new TestView();
+
+        navigator.addView("a", view);
+        navigator.addViewChangeListener(new ViewChangeListener() {
+            @Override
+            public boolean beforeViewChange(ViewChangeEvent event) {
+                return false;
+            }
+
+            @Override
+            public void afterViewChange(ViewChangeEvent event) {
+            }
+        });
+
+        navigator.navigateTo("a");
+
+        assertTrue(view.loads.isEmpty());
+    }
+
+    @Test
+    public void result_should_be_discarded_after_navigating_away_and_back() {
+        final TestView viewA = new TestView();
+        final TestView viewB = new TestView();
+
+        navigator.addView("a", viewA);
+        navigator.addView("b", viewB);
+
+        navigator.navigateTo("a");
+        navigator.navigateTo("b");
+        navigator.navigateTo("a");
+
+        assertEquals(2, viewA.loads.size());
+
+        //the first load of a completes after the second navigation to a
+        viewA.loads.get(0).complete("stale");
+
+        assertEquals(emptyList(), viewA.shown);
+
+        viewA.loads.get(1).complete("fresh");
+        viewB.loads.get(0).complete("discarded");
+
+        assertEquals(singletonList("fresh"), viewA.shown);
+        assertEquals(emptyList(), viewB.shown);
+    }
+
+    @Test
+    public void failure_should_be_passed_to_load_failed() {
+        final TestView view = new TestView();
+
+        navigator.addView("a", view);
+        navigator.navigateTo("a");
+
+        final IllegalStateException failure = new IllegalStateException();
+
+        view.loads.get(0).completeExceptionally(failure);
+
+        assertEquals(singletonList(failure), view.failures);
+        assertEquals(emptyList(), view.shown);
+    }
+
+    static class TestView extends CustomComponent implements AsyncView<String> {
+        final Component placeholder = new Label();
+        final List<CompletableFuture<String>> loads = new ArrayList<>();
+        final List<String> shown = new ArrayList<>();
+        final List<Throwable> failures = new ArrayList<>();
+
+        @Override
+        public CompletionStage<String> load(ViewChangeEvent event) {
+            final CompletableFuture<String> load = new CompletableFuture<>();
+            loads.add(load);
+            return load;
+        }
+
+        @Override
+        public void show(String data) {
+            shown.add(data);
+        }
+
+        @Override
+        public Component getPlaceholder() {
+            return placeholder;
+        }
+
+        @Override
+        public void loadFailed(Throwable throwable) {
+            failures.add(throwable);
+        }
+
+        @Override
+        public void enter(ViewChangeEvent event) {
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.vaadin.guice.processor.ClassIndexProcessor;
+import com.vaadin.guice.testClasses.ViewA;
+import com.vaadin.guice.testClasses.ViewB;
+import com.vaadin.navigator.View;
+import com.vaadin.ui.UI;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class IndexedClassCatalogTest {
+
+    private static final String[] PACKAGES = {"com.vaadin.guice.testClasses"};
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void indices_should_be_merged_and_limited_to_the_scanned_packages() throws IOException {
+        final ClassLoader classLoader = classLoaderWithIndices(
+                "com.vaadin.navigator.View=com.vaadin.guice.testClasses.ViewA,com.vaadin.guice.server.GuiceNavigatorTest$TestView\n",
+                "com.vaadin.navigator.View=com.vaadin.guice.testClasses.ViewB\n"
+        );
+
+        final IndexedClassCatalog catalog = IndexedClassCatalog.load(classLoader, PACKAGES);
+
+        assertNotNull(catalog);
+        assertEquals(ImmutableSet.of(ViewA.class, ViewB.class), catalog.getSubTypesOf(View.class));
+    }
+
+    @Test
+    public void classpath_without_index_should_be_scanned() throws IOException {
+        assertNull(IndexedClassCatalog.load(classLoaderWithIndices(), PACKAGES));
+    }
+
+    @Test
+    public void index_without_entries_in_the_scanned_packages_should_be_ignored() throws IOException {
+        //e.g. the index of a library, while the application was compiled without the processor
+        final ClassLoader classLoader = classLoaderWithIndices(
+                "com.vaadin.navigator.View=com.vaadin.guice.server.GuiceNavigatorTest$TestView\n"
+        );
+
+        assertNull(IndexedClassCatalog.load(classLoader, PACKAGES));
+        assertNull(IndexedClassCatalog.load(classLoader, new String[]{"com.vaadin.guice.server", "com.vaadin.guice.testClasses"}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void outdated_index_should_be_detected() throws IOException {
+        final ClassLoader classLoader = classLoaderWithIndices(
+                "com.vaadin.ui.UI=com.vaadin.guice.testClasses.ViewA\n"
+        );
+
+        IndexedClassCatalog.load(classLoader, PACKAGES).getSubTypesOf(UI.class);
+    }
+
+    private ClassLoader classLoaderWithIndices(String... indices) throws IOException {
+        final URL[] urls = new URL[indices.length];
+
+        for (int i = 0; i < indices.length; i++) {
+            final File root = temporaryFolder.newFolder();
+            final File index = new File(root, ClassIndexProcessor.INDEX_LOCATION);
+
+            Files.createDirectories(index.getParentFile().toPath());
+            Files.write(index.toPath(), indices[i].getBytes(StandardCharsets.UTF_8));
+
+            urls[i] = root.toURI().toURL();
+        }
+
+        return new URLClassLoader(urls, getClass().getClassLoader());
+    }
+}
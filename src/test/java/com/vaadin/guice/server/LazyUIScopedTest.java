@@ -0,0 +1,56 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class LazyUIScopedTest {
+
+    private static int instances;
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+        instances = 0;
+    }
+
+    @Test
+    public void instance_should_be_created_once_on_first_access_with_its_ui_current() {
+        final Injector injector = Guice.createInjector();
+        final GuiceVaadinServlet guiceVaadinServlet = mock(GuiceVaadinServlet.class);
+        final UI ui = mock(UI.class);
+
+        when(guiceVaadinServlet.getInjector()).thenReturn(injector);
+
+        final LazyUIScoped<Expensive> lazy = new LazyUIScoped<>(ui, guiceVaadinServlet, Expensive.class);
+
+        assertEquals(0, instances);
+
+        final Expensive expensive = lazy.get();
+
+        assertSame(expensive, lazy.get());
+        assertEquals(1, instances);
+        assertSame(ui, expensive.currentUI);
+
+        //the previously current UI is restored
+        assertNull(UI.getCurrent());
+    }
+
+    static class Expensive {
+        final UI currentUI = UI.getCurrent();
+
+        Expensive() {
+            instances++;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.processor.TestCompiler;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.reflections.Reflections;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ModuleFactoryTest {
+
+    private static final String MODULE = "extends com.google.inject.AbstractModule { public String constructor; protected void configure() {} ";
+
+    private static final String[] MODULES = {
+            "app.DefaultModule", "package app; public class DefaultModule " + MODULE + "{ constructor = \"default\"; } }",
+            "app.ReflectionsModule", "package app; public class ReflectionsModule " + MODULE
+                    + "ReflectionsModule(String unresolvable) { constructor = \"string\"; } "
+                    + "public ReflectionsModule(org.reflections.Reflections reflections) { constructor = \"reflections\"; } }",
+            "app.ProviderModule", "package app; class ProviderModule " + MODULE
+                    + "protected ProviderModule(com.google.inject.Provider<com.google.inject.Injector> injectorProvider) { constructor = \"provider\"; } }",
+            "app.AnnotationModule", "package app; public class AnnotationModule " + MODULE
+                    + "public AnnotationModule(Shop shop, org.reflections.Reflections reflections) { constructor = \"shop\"; } "
+                    + "public AnnotationModule() { constructor = \"default\"; } }",
+            "app.AnnotationOnlyModule", "package app; public class AnnotationOnlyModule " + MODULE
+                    + "public AnnotationOnlyModule(Shop shop) { constructor = \"shop\"; } }",
+            "app.PrivateModule", "package app; public class PrivateModule " + MODULE
+                    + "private PrivateModule() { constructor = \"private\"; } "
+                    + "public PrivateModule(org.reflections.Reflections reflections) { constructor = \"reflections\"; } }",
+            "app.Modules", "package app; public class Modules { public static class NestedModule " + MODULE + "{ constructor = \"nested\"; } } }",
+            "app.Shop", "package app; @java.lang.annotation.Retention(java.lang.annotation.RetentionPolicy.RUNTIME) public @interface Shop { String value(); }",
+            "app.ShopServlet", "package app; @Shop(\"shop\") public class ShopServlet {}"
+    };
+
+    private static final Supplier<Reflections> reflections = () -> null;
+    private static final Provider<Injector> injectorProvider = () -> null;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ClassLoader classLoader;
+    private Map<Class<? extends Module>, ModuleFactory> moduleFactories;
+
+    @Before
+    public void setup() throws IOException {
+        final File classOutput = temporaryFolder.newFolder("classes");
+
+        new TestCompiler(temporaryFolder, classOutput).compile(MODULES);
+
+        classLoader = new URLClassLoader(new URL[]{classOutput.toURI().toURL()}, getClass().getClassLoader());
+
+        moduleFactories = ModuleFactories.load(classLoader);
+    }
+
+    @Test
+    public void factories_should_be_generated_for_modules_with_callable_constructors() throws ClassNotFoundException {
+        for (String moduleName : new String[]{"app.DefaultModule", "app.ReflectionsModule", "app.ProviderModule", "app.AnnotationModule", "app.AnnotationOnlyModule", "app.Modules$NestedModule"}) {
+            assertTrue(moduleName, moduleFactories.containsKey(moduleClass(moduleName)));
+        }
+
+        //left to the servlet, which might call the private constructor
+        assertFalse(moduleFactories.containsKey(moduleClass("app.PrivateModule")));
+    }
+
+    @Test
+    public void factories_should_choose_the_constructor_the_servlet_would_choose() throws Exception {
+        final Annotation shop = classLoader.loadClass("app.ShopServlet").getAnnotations()[0];
+
+        assertEquals(6, moduleFactories.size());
+
+        for (Map.Entry<Class<? extends Module>, ModuleFactory> entry : moduleFactories.entrySet()) {
+            for (Annotation annotation : new Annotation[]{null, shop}) {
+                assertEquals(
+                        entry.getKey() + " imported with " + annotation,
+                        constructorOf(() -> ModuleFactories.createReflectively(entry.getKey(), reflections, injectorProvider, annotation)),
+                        constructorOf(() -> entry.getValue().create(reflections, injectorProvider, annotation))
+                );
+            }
+        }
+    }
+
+    @Test
+    public void modules_without_factory_should_still_be_created_reflectively() throws Exception {
+        final Class<? extends Module> moduleClass = moduleClass("app.PrivateModule");
+
+        assertEquals("private", constructorOf(() -> ModuleFactories.createReflectively(moduleClass, reflections, injectorProvider, null)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends Module> moduleClass(String moduleName) throws ClassNotFoundException {
+        return (Class<? extends Module>) classLoader.loadClass(moduleName);
+    }
+
+    /**
+     * the constructor that was called, or the exception if there was none to call
+     */
+    private static String constructorOf(Supplier<Module> moduleSupplier) throws Exception {
+        final Module module;
+
+        try {
+            module = moduleSupplier.get();
+        } catch (IllegalStateException e) {
+            return IllegalStateException.class.getSimpleName();
+        }
+
+        assertNotNull(module);
+
+        //some of the modules are package-private
+        final Field constructor = module.getClass().getField("constructor");
+
+        constructor.setAccessible(true);
+
+        return (String) constructor.get(module);
+    }
+}
@@ -0,0 +1,62 @@
+package com.vaadin.guice.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class PathTrieTest {
+
+    @Test
+    public void exact_paths_should_be_matched_case_insensitive() {
+        PathTrie<String> trie = new PathTrie<>();
+
+        trie.put("", "root");
+        trie.put("/admin", "admin");
+
+        assertEquals("root", trie.get(""));
+        assertEquals("admin", trie.get("/ADMIN"));
+        assertNull(trie.get("/admin/users"));
+        assertNull(trie.get("/adm"));
+    }
+
+    @Test
+    public void longest_prefix_should_win() {
+        PathTrie<String> trie = new PathTrie<>();
+
+        trie.putPrefix("/admin", "admin");
+        trie.putPrefix("/admin/users", "users");
+        trie.put("/admin/users/new", "new");
+
+        assertEquals("admin", trie.get("/admin"));
+        assertEquals("admin", trie.get("/admin/roles"));
+        assertEquals("users", trie.get("/Admin/Users/42"));
+        assertEquals("new", trie.get("/admin/users/new"));
+        assertEquals("users", trie.get("/admin/users/newer"));
+        assertNull(trie.get("/administration"));
+    }
+
+    @Test
+    public void regions_should_be_matched_in_place() {
+        PathTrie<String> trie = new PathTrie<>();
+
+        trie.put("/shop", "shop");
+
+        assertEquals("shop", trie.get("/shop/", 0, 5));
+        assertEquals("shop", trie.get("/shop!state", 0, GuiceUIProvider.getPathEnd("/shop!state")));
+    }
+
+    @Test
+    public void hierarchical_view_names_should_resolve_to_the_registered_name() {
+        PathTrie<String> trie = new PathTrie<>();
+
+        for (String viewName : new String[]{"", "orders", "orders/detail"}) {
+            trie.putPrefix(viewName, viewName);
+        }
+
+        assertEquals("", trie.get(""));
+        assertEquals("orders", trie.get("Orders/42"));
+        assertEquals("orders/detail", trie.get("ORDERS/DETAIL/42"));
+        assertNull(trie.get("customers"));
+    }
+}
@@ -0,0 +1,71 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+import com.google.inject.matcher.Matchers;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ProvisioningTimingTest {
+
+    @Test
+    public void provisioning_should_be_recorded_per_key_and_scope() {
+        final Injector injector = Guice.createInjector(new ProvisioningTimingModule(Matchers.any()));
+
+        final ProvisioningStatistics statistics = injector.getInstance(ProvisioningStatistics.class);
+
+        injector.getInstance(Unscoped.class);
+        injector.getInstance(Unscoped.class);
+        injector.getInstance(SingletonService.class);
+        injector.getInstance(SingletonService.class);
+
+        assertEquals(2, statistics.get(Key.get(Unscoped.class)).getCount());
+        assertEquals(1, statistics.get(Key.get(SingletonService.class)).getCount());
+        assertTrue(statistics.getLatenciesByScope().containsKey("Singleton"));
+        assertTrue(statistics.getLatenciesByScope().containsKey("NoScope"));
+    }
+
+    @Test
+    public void percentiles_should_be_upper_bounds_of_power_of_two_buckets() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+
+        histogram.record(10_000);
+
+        final LatencySnapshot snapshot = histogram.snapshot();
+
+        assertEquals(100, snapshot.getCount());
+        assertEquals(127, snapshot.getP50Nanos());
+        assertEquals(127, snapshot.getP99Nanos());
+        assertEquals(10_000, snapshot.getMaxNanos());
+    }
+
+    @Test
+    public void reset_should_discard_measurements() {
+        final Injector injector = Guice.createInjector(new ProvisioningTimingModule(Matchers.any()));
+
+        final ProvisioningStatistics statistics = injector.getInstance(ProvisioningStatistics.class);
+
+        injector.getInstance(Unscoped.class);
+
+        statistics.reset();
+
+        assertNull(statistics.get(Key.get(Unscoped.class)));
+    }
+
+    static class Unscoped {
+    }
+
+    @Singleton
+    static class SingletonService {
+    }
+}
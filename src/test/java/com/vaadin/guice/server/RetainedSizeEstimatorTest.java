@@ -0,0 +1,47 @@
+package com.vaadin.guice.server;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RetainedSizeEstimatorTest {
+
+    @Test
+    public void shared_objects_should_be_counted_once() {
+        final long[] payload = new long[100];
+
+        final Holder first = new Holder(payload);
+        final Holder second = new Holder(payload);
+
+        RetainedSizeEstimator estimator = new RetainedSizeEstimator(1000);
+
+        final long firstSize = estimator.estimate(first);
+        final long secondSize = estimator.estimate(second);
+
+        assertTrue(firstSize >= 800);
+        assertEquals(16, secondSize);
+    }
+
+    @Test
+    public void roots_should_not_be_attributed_to_other_roots() {
+        final Holder inner = new Holder(new long[100]);
+        final Holder outer = new Holder(inner);
+
+        RetainedSizeEstimator estimator = new RetainedSizeEstimator(1000);
+
+        estimator.addRoot(outer);
+        estimator.addRoot(inner);
+
+        assertEquals(16, estimator.estimate(outer));
+        assertTrue(estimator.estimate(inner) >= 800);
+    }
+
+    static class Holder {
+        final Object reference;
+
+        Holder(Object reference) {
+            this.reference = reference;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.ScopePropagating;
+import com.vaadin.guice.testClasses.Target;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinResponse;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ScopeContextTest {
+
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void captured_context_should_be_set_up_in_background_tasks() throws Exception {
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final Target ui = new Target();
+
+        VaadinSession.setCurrent(vaadinSession);
+        UI.setCurrent(ui);
+
+        final ExecutorService propagating = ScopeContext.propagating(executorService);
+
+        assertSame(ui, propagating.submit(UI::getCurrent).get());
+        assertSame(vaadinSession, propagating.submit(VaadinSession::getCurrent).get());
+
+        //the pooled thread does not keep the context
+        assertNull(executorService.submit(UI::getCurrent).get());
+    }
+
+    @Test
+    public void previous_context_should_be_restored() throws Exception {
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final Target ui = new Target();
+
+        VaadinSession.setCurrent(vaadinSession);
+        UI.setCurrent(ui);
+
+        final ScopeContext scopeContext = ScopeContext.capture();
+
+        final Target otherUI = new Target();
+
+        UI.setCurrent(otherUI);
+
+        assertSame(ui, scopeContext.call(UI::getCurrent));
+        assertSame(otherUI, UI.getCurrent());
+    }
+
+    @Test
+    public void request_and_response_should_not_be_captured() throws Exception {
+        VaadinSession.setCurrent(mock(VaadinSession.class));
+        UI.setCurrent(new Target());
+        CurrentInstance.set(VaadinRequest.class, mock(VaadinRequest.class));
+        CurrentInstance.set(VaadinResponse.class, mock(VaadinResponse.class));
+
+        final ScopeContext scopeContext = ScopeContext.capture();
+
+        //they are recycled by the servlet-container once the request is done
+        assertNull(executorService.submit(scopeContext.wrap(VaadinRequest::getCurrent)).get());
+        assertNull(executorService.submit(scopeContext.wrap(VaadinResponse::getCurrent)).get());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void capture_should_fail_without_session() {
+        ScopeContext.capture();
+    }
+
+    @Test
+    public void injected_executor_should_only_be_shut_down_by_the_servlet() throws Exception {
+        final GuiceVaadinServlet servlet = TestServlets.init(new Servlet());
+
+        final ExecutorService injected = servlet.getInjector().getInstance(Key.get(ExecutorService.class, ScopePropagating.class));
+
+        injected.shutdown();
+        injected.shutdownNow();
+
+        assertFalse(injected.isShutdown());
+        assertEquals("done", injected.submit(() -> "done").get());
+
+        servlet.destroy();
+
+        assertTrue(injected.isShutdown());
+    }
+
+    @PackagesToScan("com.vaadin.guice.testClasses")
+    static class Servlet extends GuiceVaadinServlet {
+    }
+}
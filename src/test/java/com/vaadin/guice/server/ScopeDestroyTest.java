@@ -0,0 +1,151 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.annotation.PreDestroy;
+import com.vaadin.guice.testClasses.Target;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class ScopeDestroyTest {
+
+    private final List<String> destroyed = new ArrayList<>();
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+    }
+
+    @Test
+    public void destroying_a_ui_scope_should_call_pre_destroy_methods_last_created_first() {
+        final UIScope uiScope = new UIScope();
+
+        final Provider<Resource> first = uiScope.scope(Key.get(Resource.class), () -> new Resource("first"));
+        final Provider<SubResource> second = uiScope.scope(Key.get(SubResource.class), () -> new SubResource("second"));
+
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final Target ui = new Target();
+
+        VaadinSession.setCurrent(vaadinSession);
+
+        uiScope.startScopeInit(Target.class);
+        try {
+            first.get();
+            second.get();
+            uiScope.flushInitialScopeSet(ui);
+        } finally {
+            uiScope.endScopeInit();
+        }
+
+        uiScope.destroy(vaadinSession, ui);
+
+        assertEquals(asList("second", "first"), destroyed);
+    }
+
+    @Test
+    public void destroying_a_session_should_end_the_session_scope() {
+        final VaadinSessionScope vaadinSessionScope = new VaadinSessionScope();
+
+        final Provider<Resource> provider = vaadinSessionScope.scope(Key.get(Resource.class), () -> new Resource("session"));
+
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+
+        VaadinSession.setCurrent(vaadinSession);
+
+        final Resource resource = provider.get();
+
+        assertSame(resource, provider.get());
+
+        vaadinSessionScope.destroy(vaadinSession);
+
+        assertTrue(destroyed.contains("session"));
+        assertNotSame(resource, provider.get());
+    }
+
+    @Test
+    public void overridden_pre_destroy_methods_should_be_called_once() {
+        ScopedObjects.preDestroy(new OverridingResource("overriding"));
+
+        //the order of methods declared by the same class is undefined
+        assertEquals(3, destroyed.size());
+        assertEquals(ImmutableSet.of("overriding", "overriding.closeOwn", "overriding.closePrivate"), new HashSet<>(destroyed));
+    }
+
+    class Resource {
+        private final String name;
+
+        Resource(String name) {
+            this.name = name;
+        }
+
+        @PreDestroy
+        void close() {
+            destroyed.add(name);
+        }
+    }
+
+    class SubResource extends Resource {
+        SubResource(String name) {
+            super(name);
+        }
+    }
+
+    class ClosingResource extends Resource {
+        final String label;
+
+        ClosingResource(String label) {
+            super(label);
+            this.label = label;
+        }
+
+        @PreDestroy
+        void closeOwn() {
+            destroyed.add(label + ".closeOwn");
+        }
+
+        //not overridden by the subclass' method of the same name
+        @PreDestroy
+        private void closePrivate() {
+            destroyed.add(label + ".closePrivate");
+        }
+    }
+
+    class OverridingResource extends ClosingResource {
+        OverridingResource(String name) {
+            super(name);
+        }
+
+        @Override
+        @PreDestroy
+        void close() {
+            destroyed.add(label);
+        }
+
+        //not annotated, the method of the superclass still calls it
+        @Override
+        void closeOwn() {
+            super.closeOwn();
+        }
+
+        @PreDestroy
+        private void closePrivate() {
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.name.Names;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.server.WrappedSession;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ScopeFootprintTest {
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+    }
+
+    @Test
+    public void report_should_cover_all_contexts_of_a_session() throws IOException {
+        final GuiceVaadinServlet servlet = TestServlets.init(new Servlet());
+
+        final FileSessionScopeStorage storage = new FileSessionScopeStorage();
+
+        try {
+            servlet.getVaadinSessionScoper().setStorage(storage);
+
+            final Provider<Value> sessionScoped = servlet.getVaadinSessionScoper().scope(Key.get(Value.class, Names.named("session")), Value::new);
+            final Provider<Value> uiScoped = servlet.getUiScope().scope(Key.get(Value.class, Names.named("ui")), Value::new);
+            final Provider<Value> viewScoped = servlet.getViewScope().scope(Key.get(Value.class, Names.named("view")), Value::new);
+
+            final ReentrantLock idleLock = new ReentrantLock();
+            final VaadinSession idleSession = newSession("idle", idleLock);
+
+            VaadinSession.setCurrent(idleSession);
+
+            sessionScoped.get();
+
+            assertEquals(1, servlet.getVaadinSessionScoper().externalizeIdleSessions(0));
+
+            final ReentrantLock activeLock = new ReentrantLock();
+            final VaadinSession activeSession = newSession("active", activeLock);
+
+            activeLock.lock();
+
+            try {
+                VaadinSession.setCurrent(activeSession);
+
+                sessionScoped.get();
+
+                final TestUI ui = createUI(servlet);
+
+                UI.setCurrent(ui);
+
+                uiScoped.get();
+                viewScoped.get();
+
+                //like a UI of a deserialized session that was not looked up since
+                final ScopeSlots slots = new ScopeSlots();
+                final ScopedObjects restoredScopedObjects = new ScopedObjects(new ScopeStatistics(), slots);
+
+                restoredScopedObjects.get(slots.slotOf(Key.get(Value.class)), Value::new);
+
+                SessionScopeData.of(activeSession).uiScopedObjects.put(new TestUI(), restoredScopedObjects);
+            } finally {
+                activeLock.unlock();
+            }
+
+            final JsonObject report = Json.parse(servlet.getScopeFootprint().reportAsJson());
+
+            final JsonObject active = report.getObject("sessions").getObject("active");
+
+            assertEquals(4, (int) active.getNumber("contexts"));
+            assertEquals(4, (int) active.getNumber("instances"));
+            assertTrue(active.getNumber("retainedBytes") > 0);
+            assertFalse(active.getBoolean("externalized"));
+
+            final JsonObject idle = report.getObject("sessions").getObject("idle");
+
+            assertEquals(1, (int) idle.getNumber("contexts"));
+            assertEquals(0, (int) idle.getNumber("instances"));
+            assertTrue(idle.getBoolean("externalized"));
+
+            assertEquals(2, (int) report.getObject("uis").getObject(TestUI.class.getName()).getNumber("contexts"));
+            assertEquals(2, (int) report.getObject("uis").getObject(TestUI.class.getName()).getNumber("instances"));
+            assertEquals(1, (int) report.getObject("views").getObject(TestView.class.getName()).getNumber("instances"));
+
+            assertEquals(2, servlet.getScopeFootprint().getSessions());
+        } finally {
+            storage.close();
+        }
+    }
+
+    private static TestUI createUI(GuiceVaadinServlet servlet) {
+        final TestUI ui = new TestUI();
+
+        servlet.getUiScope().startScopeInit(TestUI.class);
+
+        try {
+            servlet.getUiScope().flushInitialScopeSet(ui);
+        } finally {
+            servlet.getUiScope().endScopeInit();
+        }
+
+        UI.setCurrent(ui);
+
+        ui.view = new TestView();
+        ui.navigator = mock(Navigator.class);
+        when(ui.navigator.getCurrentView()).thenReturn(ui.view);
+
+        servlet.getViewScope().startScopeInit(TestView.class);
+
+        try {
+            servlet.getViewScope().flushInitialScopeSet(ui.view);
+        } finally {
+            servlet.getViewScope().endScopeInit();
+        }
+
+        return ui;
+    }
+
+    private static VaadinSession newSession(String id, ReentrantLock lock) {
+        final Map<Class<?>, Object> attributes = new ConcurrentHashMap<>();
+
+        final WrappedSession wrappedSession = mock(WrappedSession.class);
+        when(wrappedSession.getId()).thenReturn(id);
+
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+
+        when(vaadinSession.getSession()).thenReturn(wrappedSession);
+        when(vaadinSession.getLockInstance()).thenReturn(lock);
+        when(vaadinSession.hasLock()).thenAnswer(invocation -> lock.isHeldByCurrentThread());
+        when(vaadinSession.getAttribute(SessionScopeData.class)).thenAnswer(invocation -> attributes.get(SessionScopeData.class));
+        doAnswer(invocation -> attributes.put(SessionScopeData.class, invocation.getArgument(1)))
+                .when(vaadinSession).setAttribute(eq(SessionScopeData.class), any());
+
+        return vaadinSession;
+    }
+
+    static class Value implements Serializable {
+        final long[] payload = new long[16];
+    }
+
+    static class TestView implements View {
+        @Override
+        public void enter(ViewChangeEvent event) {
+        }
+    }
+
+    static class TestUI extends UI {
+        transient Navigator navigator;
+        View view;
+
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+
+        @Override
+        public Navigator getNavigator() {
+            return navigator;
+        }
+    }
+
+    @PackagesToScan("com.vaadin.guice.testClasses")
+    static class Servlet extends GuiceVaadinServlet {
+    }
+}
@@ -0,0 +1,144 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ScopedObjectsTest {
+
+    @Test
+    public void slots_beyond_the_initial_capacity_should_be_stored() {
+        final ScopeStatistics statistics = new ScopeStatistics();
+        final ScopeSlots slots = new ScopeSlots();
+
+        slots.slotOf(Key.get(String.class));
+
+        final ScopedObjects scopedObjects = new ScopedObjects(statistics, slots);
+
+        final Object first = scopedObjects.get(0, Object::new);
+        //e.g. a just-in-time binding that was scoped after the scope-context was created
+        final Object late = scopedObjects.get(5, Object::new);
+
+        assertSame(first, scopedObjects.get(0, Object::new));
+        assertSame(late, scopedObjects.get(5, Object::new));
+        assertNotSame(first, late);
+        assertEquals(2, statistics.getHits());
+        assertEquals(2, statistics.getMisses());
+    }
+
+    @Test
+    public void destroyed_slots_should_be_recreated() {
+        final ScopeSlots slots = new ScopeSlots();
+
+        final int slot = slots.slotOf(Key.get(Object.class));
+
+        final ScopedObjects scopedObjects = new ScopedObjects(new ScopeStatistics(), slots);
+
+        final Object instance = scopedObjects.get(slot, Object::new);
+
+        scopedObjects.destroy(slot);
+
+        assertNotSame(instance, scopedObjects.get(slot, Object::new));
+    }
+
+    @Test
+    public void detached_instances_should_be_attachable_elsewhere() {
+        final ScopeSlots slots = new ScopeSlots();
+
+        final int slot = slots.slotOf(Key.get(Object.class));
+
+        final ScopedObjects first = new ScopedObjects(new ScopeStatistics(), slots);
+        final ScopedObjects second = new ScopedObjects(new ScopeStatistics(), slots);
+
+        final Object instance = first.get(slot, Object::new);
+
+        assertSame(instance, first.detach(slot));
+
+        second.attach(slot, instance);
+
+        assertSame(instance, second.get(slot, Object::new));
+        assertNotSame(instance, first.get(slot, Object::new));
+    }
+
+    @Test
+    public void slots_should_be_dense_and_stable() {
+        final ScopeSlots slots = new ScopeSlots();
+
+        assertEquals(0, slots.slotOf(Key.get(String.class)));
+        assertEquals(1, slots.slotOf(Key.get(Integer.class)));
+        assertEquals(0, slots.slotOf(Key.get(String.class)));
+        assertEquals(-1, slots.existingSlotOf(Key.get(Long.class)));
+        assertEquals(Key.get(Integer.class), slots.keyOf(1));
+        assertEquals(2, slots.size());
+    }
+
+    @Test
+    public void serializable_instances_should_be_restored_by_key_after_deserialization() throws Exception {
+        final ScopeSlots slots = new ScopeSlots();
+
+        final int serializableSlot = slots.slotOf(Key.get(SerializableService.class));
+        final int notSerializableSlot = slots.slotOf(Key.get(Object.class));
+
+        final ScopedObjects scopedObjects = new ScopedObjects(new ScopeStatistics(), slots);
+
+        final SerializableService service = scopedObjects.get(serializableSlot, () -> new SerializableService("restored"));
+        scopedObjects.get(notSerializableSlot, Object::new);
+
+        final ScopedObjects deserialized = roundTrip(scopedObjects);
+
+        //slots are assigned in a different order on the other node
+        final ScopeSlots otherSlots = new ScopeSlots();
+
+        final int otherNotSerializableSlot = otherSlots.slotOf(Key.get(Object.class));
+        final int otherSerializableSlot = otherSlots.slotOf(Key.get(SerializableService.class));
+
+        final List<Object> restored = new ArrayList<>();
+
+        deserialized.rebind(new ScopeStatistics(), otherSlots, restored::add);
+
+        final SerializableService restoredService = deserialized.get(otherSerializableSlot, () -> new SerializableService("new"));
+
+        assertNotSame(service, restoredService);
+        assertEquals("restored", restoredService.name);
+        assertEquals(singletonList(restoredService), restored);
+        assertSame(restoredService, deserialized.get(otherSerializableSlot, () -> new SerializableService("new")));
+
+        //not serializable, so created again
+        final Object recreated = new Object();
+
+        assertSame(recreated, deserialized.get(otherNotSerializableSlot, () -> recreated));
+    }
+
+    private static ScopedObjects roundTrip(ScopedObjects scopedObjects) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(scopedObjects);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (ScopedObjects) in.readObject();
+        }
+    }
+
+    static class SerializableService implements Serializable {
+        final String name;
+
+        SerializableService(String name) {
+            this.name = name;
+        }
+    }
+}
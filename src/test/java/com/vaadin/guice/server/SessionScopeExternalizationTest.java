@@ -0,0 +1,116 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SessionScopeExternalizationTest {
+
+    @After
+    public void tearDown() {
+        VaadinSession.setCurrent(null);
+    }
+
+    @Test
+    public void idle_session_scope_should_be_externalized_and_rehydrated() throws IOException {
+        final FileSessionScopeStorage storage = new FileSessionScopeStorage();
+
+        try {
+            final VaadinSessionScope vaadinSessionScope = new VaadinSessionScope();
+            vaadinSessionScope.setStorage(storage);
+
+            final Provider<Counter> provider = vaadinSessionScope.scope(Key.get(Counter.class), Counter::new);
+
+            final VaadinSession vaadinSession = mock(VaadinSession.class);
+            when(vaadinSession.getLockInstance()).thenReturn(new ReentrantLock());
+
+            VaadinSession.setCurrent(vaadinSession);
+
+            final Counter counter = provider.get();
+            counter.value = 42;
+
+            assertEquals(1, vaadinSessionScope.externalizeIdleSessions(0));
+            assertTrue(vaadinSessionScope.getAllScopedObjects().isEmpty());
+            assertEquals(1, vaadinSessionScope.getExternalizedSessions());
+
+            final Counter rehydratedCounter = provider.get();
+
+            assertEquals(42, rehydratedCounter.value);
+            assertSame(rehydratedCounter, provider.get());
+            assertEquals(0, vaadinSessionScope.getExternalizedSessions());
+            assertEquals(1, vaadinSessionScope.getRehydrationLatency().getCount());
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    public void session_scope_should_never_hand_out_a_second_instance_while_uis_may_reference_it() throws IOException {
+        final FileSessionScopeStorage storage = new FileSessionScopeStorage();
+
+        try {
+            final VaadinSessionScope vaadinSessionScope = new VaadinSessionScope();
+            vaadinSessionScope.setStorage(storage);
+
+            final Provider<Counter> provider = vaadinSessionScope.scope(Key.get(Counter.class), Counter::new);
+
+            final VaadinSession vaadinSession = mock(VaadinSession.class);
+            when(vaadinSession.getLockInstance()).thenReturn(new ReentrantLock());
+            when(vaadinSession.getUIs()).thenReturn(singletonList(mock(UI.class)));
+
+            VaadinSession.setCurrent(vaadinSession);
+
+            final Counter counter = provider.get();
+
+            assertEquals(0, vaadinSessionScope.externalizeIdleSessions(0));
+            assertEquals(0, vaadinSessionScope.getExternalizedSessions());
+            assertSame(counter, provider.get());
+        } finally {
+            storage.close();
+        }
+    }
+
+    @Test
+    public void session_scope_with_unserializable_instances_should_stay_on_heap() throws IOException {
+        final FileSessionScopeStorage storage = new FileSessionScopeStorage();
+
+        try {
+            final VaadinSessionScope vaadinSessionScope = new VaadinSessionScope();
+            vaadinSessionScope.setStorage(storage);
+
+            final Provider<Object> provider = vaadinSessionScope.scope(Key.get(Object.class), Object::new);
+
+            final VaadinSession vaadinSession = mock(VaadinSession.class);
+            when(vaadinSession.getLockInstance()).thenReturn(new ReentrantLock());
+
+            VaadinSession.setCurrent(vaadinSession);
+
+            final Object instance = provider.get();
+
+            assertEquals(0, vaadinSessionScope.externalizeIdleSessions(0));
+            assertSame(instance, provider.get());
+        } finally {
+            storage.close();
+        }
+    }
+
+    static class Counter implements Serializable {
+        int value;
+    }
+}
@@ -0,0 +1,204 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+import com.google.inject.name.Names;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SessionSerializationTest {
+
+    @After
+    public void tearDown() {
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+    }
+
+    @Test
+    public void scopes_created_without_the_lock_should_be_serialized_with_the_session() throws Exception {
+        final GuiceVaadinServlet servlet = TestServlets.init(new Servlet());
+
+        final Provider<Service> sessionScoped = servlet.getVaadinSessionScoper().scope(Key.get(Service.class, Names.named("session")), () -> new Service(servlet));
+        final Provider<Service> uiScoped = servlet.getUiScope().scope(Key.get(Service.class, Names.named("ui")), () -> new Service(servlet));
+        final Provider<Service> viewScoped = servlet.getViewScope().scope(Key.get(Service.class, Names.named("view")), () -> new Service(servlet));
+
+        final AtomicBoolean locked = new AtomicBoolean();
+        final Map<Class<?>, Object> attributes = new ConcurrentHashMap<>();
+
+        VaadinSession.setCurrent(newSession(locked, attributes));
+
+        //e.g. in a background-thread without UI#access
+        final TestUI ui1 = createUI(servlet, sessionScoped, uiScoped, viewScoped);
+        final TestUI ui2 = createUI(servlet, sessionScoped, uiScoped, viewScoped);
+
+        assertTrue(attributes.isEmpty());
+
+        locked.set(true);
+
+        for (TestUI ui : new TestUI[]{ui1, ui2}) {
+            UI.setCurrent(ui);
+
+            assertSame(ui.sessionScoped, sessionScoped.get());
+            assertSame(ui.uiScoped, uiScoped.get());
+            assertSame(ui.viewScoped, viewScoped.get());
+        }
+
+        final SessionScopeData sessionScopeData = (SessionScopeData) attributes.get(SessionScopeData.class);
+
+        assertNotNull(sessionScopeData.sessionScopedObjects);
+        assertEquals(2, sessionScopeData.uiScopedObjects.size());
+        assertEquals(2, sessionScopeData.viewScopedObjects.size());
+
+        final Object[] deserialized = roundTrip(new Object[]{sessionScopeData, ui1, ui2});
+
+        //the servlet-level maps of the node do not know the deserialized session
+        final Map<Class<?>, Object> deserializedAttributes = new ConcurrentHashMap<>();
+        deserializedAttributes.put(SessionScopeData.class, deserialized[0]);
+
+        VaadinSession.setCurrent(newSession(new AtomicBoolean(true), deserializedAttributes));
+
+        final TestUI deserializedUI1 = (TestUI) deserialized[1];
+        final TestUI deserializedUI2 = (TestUI) deserialized[2];
+
+        for (TestUI ui : new TestUI[]{deserializedUI1, deserializedUI2}) {
+            ui.navigator = navigatorShowing(ui.view);
+
+            UI.setCurrent(ui);
+
+            assertSame(ui.sessionScoped, sessionScoped.get());
+            assertSame(ui.uiScoped, uiScoped.get());
+            assertSame(ui.viewScoped, viewScoped.get());
+
+            //resolved by ServletReference
+            assertSame(servlet, ui.uiScoped.servlet);
+        }
+
+        assertSame(deserializedUI1.sessionScoped, deserializedUI2.sessionScoped);
+        assertNotSame(deserializedUI1.uiScoped, deserializedUI2.uiScoped);
+        assertNotSame(deserializedUI1.viewScoped, deserializedUI2.viewScoped);
+    }
+
+    private static TestUI createUI(GuiceVaadinServlet servlet, Provider<Service> sessionScoped, Provider<Service> uiScoped, Provider<Service> viewScoped) {
+        final TestUI ui = new TestUI();
+
+        servlet.getUiScope().startScopeInit(TestUI.class);
+
+        try {
+            servlet.getUiScope().flushInitialScopeSet(ui);
+        } finally {
+            servlet.getUiScope().endScopeInit();
+        }
+
+        UI.setCurrent(ui);
+
+        ui.view = new TestView();
+        ui.navigator = navigatorShowing(ui.view);
+
+        servlet.getViewScope().startScopeInit(TestView.class);
+
+        try {
+            servlet.getViewScope().flushInitialScopeSet(ui.view);
+        } finally {
+            servlet.getViewScope().endScopeInit();
+        }
+
+        ui.sessionScoped = sessionScoped.get();
+        ui.uiScoped = uiScoped.get();
+        ui.viewScoped = viewScoped.get();
+
+        return ui;
+    }
+
+    private static Navigator navigatorShowing(View view) {
+        final Navigator navigator = mock(Navigator.class);
+        when(navigator.getCurrentView()).thenReturn(view);
+        return navigator;
+    }
+
+    private static VaadinSession newSession(AtomicBoolean locked, Map<Class<?>, Object> attributes) {
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+
+        when(vaadinSession.hasLock()).thenAnswer(invocation -> locked.get());
+        when(vaadinSession.getAttribute(SessionScopeData.class)).thenAnswer(invocation -> attributes.get(SessionScopeData.class));
+        doAnswer(invocation -> attributes.put(SessionScopeData.class, invocation.getArgument(1)))
+                .when(vaadinSession).setAttribute(eq(SessionScopeData.class), any());
+
+        return vaadinSession;
+    }
+
+    private static Object[] roundTrip(Object[] objects) throws Exception {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(objects);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Object[]) in.readObject();
+        }
+    }
+
+    static class Service implements Serializable {
+        final GuiceVaadinServlet servlet;
+
+        Service(GuiceVaadinServlet servlet) {
+            this.servlet = servlet;
+        }
+    }
+
+    static class TestView implements View {
+        @Override
+        public void enter(ViewChangeEvent event) {
+        }
+    }
+
+    static class TestUI extends UI {
+        transient Navigator navigator;
+        View view;
+        Service sessionScoped;
+        Service uiScoped;
+        Service viewScoped;
+
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+
+        @Override
+        public Navigator getNavigator() {
+            return navigator;
+        }
+    }
+
+    @PackagesToScan("com.vaadin.guice.testClasses")
+    static class Servlet extends GuiceVaadinServlet {
+    }
+}
@@ -0,0 +1,182 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Singleton;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.SharedBindings;
+import com.vaadin.guice.shared.ConfigurationCountingModule;
+import com.vaadin.guice.shared.OrderForm;
+import com.vaadin.guice.shared.SharedService;
+import com.vaadin.guice.shared.SharedUI;
+import com.vaadin.guice.shared.SharedView;
+
+import org.junit.Test;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRegistration;
+import javax.servlet.http.HttpServlet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SharedBindingsTest {
+
+    @Test
+    public void servlets_of_a_context_should_share_the_singletons_of_the_parent_injector() {
+        final ServletContext servletContext = TestServlets.newServletContext();
+
+        final GuiceVaadinServlet servlet1 = TestServlets.init(new SharingServlet1(), servletContext);
+        final GuiceVaadinServlet servlet2 = TestServlets.init(new SharingServlet2(), servletContext);
+
+        assertNotSame(servlet1.getInjector(), servlet2.getInjector());
+        assertSame(servlet1.getInjector().getParent(), servlet2.getInjector().getParent());
+        assertSame(
+                servlet1.getInjector().getInstance(SharedService.class),
+                servlet2.getInjector().getInstance(SharedService.class)
+        );
+
+        //another web-application
+        final GuiceVaadinServlet otherServlet = TestServlets.init(new SharingServlet1());
+
+        assertNotSame(
+                servlet1.getInjector().getInstance(SharedService.class),
+                otherServlet.getInjector().getInstance(SharedService.class)
+        );
+    }
+
+    @Test
+    public void uis_views_and_controlled_components_should_only_be_bound_in_the_child_injector() {
+        final GuiceVaadinServlet servlet = TestServlets.init(new SharingServlet1());
+
+        final Injector injector = servlet.getInjector();
+
+        for (Class<?> type : new Class<?>[]{SharedUI.class, SharedView.class, OrderForm.class}) {
+            assertTrue(type + " is not bound in the child-injector", injector.getBindings().containsKey(Key.get(type)));
+            assertNull(injector.getParent().getExistingBinding(Key.get(type)));
+        }
+
+        //bound by the shared module only
+        assertNotNull(injector.getParent().getExistingBinding(Key.get(SharedService.class)));
+        assertFalse(injector.getBindings().containsKey(Key.get(SharedService.class)));
+    }
+
+    @Test
+    public void modules_of_the_servlet_should_be_configured_once() {
+        ConfigurationCountingModule.configurations.set(0);
+
+        TestServlets.init(new SharingServlet1());
+
+        assertEquals(1, ConfigurationCountingModule.configurations.get());
+    }
+
+    @Test
+    public void parent_injector_should_be_released_once_all_of_its_servlets_are_destroyed() {
+        final ServletContext servletContext = TestServlets.newServletContext();
+
+        final SharedStartupState sharedStartupState = SharedStartupState.of(servletContext);
+
+        final GuiceVaadinServlet servlet1 = TestServlets.init(new SharingServlet1(), servletContext);
+        final GuiceVaadinServlet servlet2 = TestServlets.init(new SharingServlet2(), servletContext);
+
+        final SharedService sharedService = servlet1.getInjector().getInstance(SharedService.class);
+
+        servlet1.destroy();
+
+        assertEquals(1, sharedStartupState.getParentInjectorCheckpoints().size());
+
+        servlet2.destroy();
+
+        assertEquals(0, sharedStartupState.getParentInjectorCheckpoints().size());
+
+        //redeployed
+        final GuiceVaadinServlet servlet3 = TestServlets.init(new SharingServlet1(), servletContext);
+
+        assertNotSame(sharedService, servlet3.getInjector().getInstance(SharedService.class));
+    }
+
+    @Test
+    public void parent_injector_should_be_released_when_init_fails() {
+        final ServletContext servletContext = TestServlets.newServletContext();
+
+        final SharedStartupState sharedStartupState = SharedStartupState.of(servletContext);
+
+        try {
+            TestServlets.init(new FailingServlet(), servletContext);
+            fail();
+        } catch (IllegalStateException e) {
+            //expected
+        }
+
+        assertEquals(0, sharedStartupState.getParentInjectorCheckpoints().size());
+    }
+
+    @Test
+    public void catalogs_should_be_dropped_once_all_servlets_of_the_context_are_initialized() {
+        final ServletContext servletContext = TestServlets.newServletContext();
+
+        doReturn(ImmutableMap.of(
+                "SharedBindingsTest-1", registration(SharingServlet1.class),
+                "SharedBindingsTest-2", registration(SharingServlet2.class),
+                "SharedBindingsTest-other", registration(HttpServlet.class)
+        )).when(servletContext).getServletRegistrations();
+
+        final SharedStartupState sharedStartupState = SharedStartupState.of(servletContext);
+
+        TestServlets.init(new SharingServlet1(), servletContext, "SharedBindingsTest-1");
+
+        //kept for the second servlet, which scans the same packages
+        assertEquals(1, sharedStartupState.getCatalogCount());
+
+        TestServlets.init(new SharingServlet2(), servletContext, "SharedBindingsTest-2");
+
+        assertEquals(0, sharedStartupState.getCatalogCount());
+    }
+
+    private static ServletRegistration registration(Class<?> servletClass) {
+        final ServletRegistration servletRegistration = mock(ServletRegistration.class);
+
+        when(servletRegistration.getClassName()).thenReturn(servletClass.getName());
+
+        return servletRegistration;
+    }
+
+    public static class SharedModule extends AbstractModule {
+        @Override
+        protected void configure() {
+            bind(SharedService.class).in(Singleton.class);
+        }
+    }
+
+    @SharedBindings(SharedModule.class)
+    @PackagesToScan("com.vaadin.guice.shared")
+    static class SharingServlet1 extends GuiceVaadinServlet {
+    }
+
+    @SharedBindings(SharedModule.class)
+    @PackagesToScan("com.vaadin.guice.shared")
+    static class SharingServlet2 extends GuiceVaadinServlet {
+    }
+
+    @SharedBindings(SharedModule.class)
+    @PackagesToScan("com.vaadin.guice.shared")
+    static class FailingServlet extends GuiceVaadinServlet {
+        @Override
+        protected void servletInitialized() {
+            super.servletInitialized();
+            throw new IllegalStateException("failed after the parent-injector was acquired");
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.inject.Stage;
+
+import com.vaadin.guice.annotation.InjectorStage;
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.ParallelStartup;
+import com.vaadin.guice.parallel.Module1;
+import com.vaadin.guice.parallel.Module2;
+import com.vaadin.guice.parallel.Module3;
+import com.vaadin.guice.parallel.RecordingModule;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinWorkerThread;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StartupModesTest {
+
+    @Before
+    public void setup() {
+        RecordingModule.constructingThreads.clear();
+    }
+
+    @Test
+    public void injector_stage_should_default_to_development() {
+        final GuiceVaadinServlet servlet = TestServlets.init(new SequentialServlet());
+
+        assertEquals(Stage.DEVELOPMENT, servlet.getInjector().getInstance(Stage.class));
+    }
+
+    @Test
+    public void injector_stage_should_be_taken_from_annotation_or_init_param() {
+        final GuiceVaadinServlet annotatedServlet = TestServlets.init(new ProductionServlet());
+
+        assertEquals(Stage.PRODUCTION, annotatedServlet.getInjector().getInstance(Stage.class));
+
+        final GuiceVaadinServlet configuredServlet = TestServlets.init(new SequentialServlet(), ImmutableMap.of("injectorStage", "production"));
+
+        assertEquals(Stage.PRODUCTION, configuredServlet.getInjector().getInstance(Stage.class));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void injector_stage_annotation_and_init_param_should_conflict() {
+        TestServlets.init(new ProductionServlet(), ImmutableMap.of("injectorStage", "production"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void parallel_startup_annotation_and_init_param_should_conflict() {
+        TestServlets.init(new ParallelServlet(), ImmutableMap.of("parallelStartup", "true"));
+    }
+
+    @Test
+    public void modules_should_be_constructed_on_the_init_thread_by_default() {
+        TestServlets.init(new SequentialServlet());
+
+        assertEquals(3, RecordingModule.constructingThreads.size());
+
+        for (Thread thread : RecordingModule.constructingThreads.values()) {
+            assertSame(Thread.currentThread(), thread);
+        }
+    }
+
+    @Test
+    public void modules_should_be_constructed_in_parallel_with_parallel_startup() {
+        final GuiceVaadinServlet servlet = TestServlets.init(new ParallelServlet());
+
+        assertModulesConstructedInPool(servlet);
+    }
+
+    @Test
+    public void parallel_startup_should_be_enabled_by_init_param() {
+        final GuiceVaadinServlet servlet = TestServlets.init(new SequentialServlet(), ImmutableMap.of("parallelStartup", "true"));
+
+        assertModulesConstructedInPool(servlet);
+    }
+
+    private static void assertModulesConstructedInPool(GuiceVaadinServlet servlet) {
+        for (Class<?> moduleClass : new Class<?>[]{Module1.class, Module2.class, Module3.class}) {
+            final Thread thread = RecordingModule.constructingThreads.get(moduleClass);
+
+            assertTrue(moduleClass + " was constructed on " + thread, thread instanceof ForkJoinWorkerThread);
+        }
+
+        //the startup result does not depend on the mode
+        final GuiceVaadinServlet sequentialServlet = TestServlets.init(new SequentialServlet());
+
+        assertEquals(sequentialServlet.getUiClasses(), servlet.getUiClasses());
+        assertEquals(sequentialServlet.getViewClasses(), servlet.getViewClasses());
+    }
+
+    @PackagesToScan({"com.vaadin.guice.testClasses", "com.vaadin.guice.parallel"})
+    static class SequentialServlet extends GuiceVaadinServlet {
+    }
+
+    @ParallelStartup
+    @PackagesToScan({"com.vaadin.guice.testClasses", "com.vaadin.guice.parallel"})
+    static class ParallelServlet extends GuiceVaadinServlet {
+    }
+
+    @InjectorStage(Stage.PRODUCTION)
+    @PackagesToScan({"com.vaadin.guice.testClasses", "com.vaadin.guice.parallel"})
+    static class ProductionServlet extends GuiceVaadinServlet {
+    }
+}
@@ -0,0 +1,77 @@
+package com.vaadin.guice.server;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * initializes servlets outside of a servlet-container. Servlets initialized with the same
+ * ServletContext share it's attributes, like in a web-application. Servlets have no name unless
+ * one is given, so their MBeans get unique names.
+ */
+final class TestServlets {
+
+    private TestServlets() {
+    }
+
+    static ServletContext newServletContext() {
+        final ServletContext servletContext = mock(ServletContext.class);
+
+        final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+        when(servletContext.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+
+        doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(servletContext).setAttribute(anyString(), any());
+
+        doAnswer(invocation -> attributes.remove(invocation.<String>getArgument(0)))
+                .when(servletContext).removeAttribute(anyString());
+
+        when(servletContext.getInitParameterNames()).thenAnswer(invocation -> Collections.emptyEnumeration());
+
+        return servletContext;
+    }
+
+    static <T extends GuiceVaadinServlet> T init(T servlet, ServletContext servletContext) {
+        return init(servlet, servletContext, null);
+    }
+
+    static <T extends GuiceVaadinServlet> T init(T servlet, ServletContext servletContext, String servletName) {
+        return init(servlet, servletContext, servletName, Collections.emptyMap());
+    }
+
+    static <T extends GuiceVaadinServlet> T init(T servlet, ServletContext servletContext, String servletName, Map<String, String> initParameters) {
+        final ServletConfig servletConfig = mock(ServletConfig.class);
+
+        when(servletConfig.getServletName()).thenReturn(servletName);
+        when(servletConfig.getServletContext()).thenReturn(servletContext);
+        when(servletConfig.getInitParameter(anyString())).thenAnswer(invocation -> initParameters.get(invocation.<String>getArgument(0)));
+        when(servletConfig.getInitParameterNames()).thenAnswer(invocation -> Collections.enumeration(initParameters.keySet()));
+
+        try {
+            servlet.init(servletConfig);
+        } catch (ServletException e) {
+            throw new RuntimeException(e);
+        }
+
+        return servlet;
+    }
+
+    static <T extends GuiceVaadinServlet> T init(T servlet) {
+        return init(servlet, newServletContext());
+    }
+
+    static <T extends GuiceVaadinServlet> T init(T servlet, Map<String, String> initParameters) {
+        return init(servlet, newServletContext(), null, initParameters);
+    }
+}
@@ -0,0 +1,186 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class UIScopeConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void uis_of_different_sessions_should_be_initialized_in_parallel() throws Exception {
+        final UIScope uiScope = new UIScope();
+
+        final Provider<Object> scopedProvider = uiScope.scope(Key.get(Object.class), Object::new);
+
+        final CyclicBarrier allThreadsInsideScopeInit = new CyclicBarrier(THREADS);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executorService.submit(() -> {
+                    VaadinSession.setCurrent(mock(VaadinSession.class));
+
+                    final TestUI ui = new TestUI();
+                    final Object scopedObject;
+
+                    uiScope.startScopeInit(TestUI.class);
+
+                    try {
+                        //would time out if UI-initialization was serialized
+                        allThreadsInsideScopeInit.await(10, SECONDS);
+
+                        scopedObject = scopedProvider.get();
+
+                        assertSame(scopedObject, scopedProvider.get());
+
+                        uiScope.flushInitialScopeSet(ui);
+                    } finally {
+                        uiScope.endScopeInit();
+                    }
+
+                    UI.setCurrent(ui);
+
+                    try {
+                        assertSame(scopedObject, scopedProvider.get());
+                    } finally {
+                        UI.setCurrent(null);
+                        VaadinSession.setCurrent(null);
+                    }
+
+                    return scopedObject;
+                }));
+            }
+
+            Set<Object> scopedObjects = new HashSet<>();
+
+            for (Future<Object> future : futures) {
+                scopedObjects.add(future.get(10, SECONDS));
+            }
+
+            assertEquals(THREADS, scopedObjects.size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrent_lookups_in_one_ui_should_create_one_instance() throws Exception {
+        final UIScope uiScope = new UIScope();
+
+        final Provider<Object> scopedProvider = uiScope.scope(Key.get(Object.class), Object::new);
+
+        final VaadinSession vaadinSession = mock(VaadinSession.class);
+        final TestUI ui = new TestUI();
+
+        VaadinSession.setCurrent(vaadinSession);
+
+        try {
+            uiScope.startScopeInit(TestUI.class);
+
+            try {
+                uiScope.flushInitialScopeSet(ui);
+            } finally {
+                uiScope.endScopeInit();
+            }
+        } finally {
+            VaadinSession.setCurrent(null);
+        }
+
+        final CyclicBarrier allThreadsReady = new CyclicBarrier(THREADS);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executorService.submit(() -> {
+                    VaadinSession.setCurrent(vaadinSession);
+                    UI.setCurrent(ui);
+
+                    try {
+                        allThreadsReady.await(10, SECONDS);
+
+                        return scopedProvider.get();
+                    } finally {
+                        UI.setCurrent(null);
+                        VaadinSession.setCurrent(null);
+                    }
+                }));
+            }
+
+            Set<Object> scopedObjects = new HashSet<>();
+
+            for (Future<Object> future : futures) {
+                scopedObjects.add(future.get(10, SECONDS));
+            }
+
+            assertEquals(1, scopedObjects.size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void uis_of_one_session_should_not_share_scopes() {
+        final UIScope uiScope = new UIScope();
+
+        final Provider<Object> scopedProvider = uiScope.scope(Key.get(Object.class), Object::new);
+
+        VaadinSession.setCurrent(mock(VaadinSession.class));
+
+        try {
+            final Object first = createUIScopedObject(uiScope, scopedProvider);
+            final Object second = createUIScopedObject(uiScope, scopedProvider);
+
+            assertNotSame(first, second);
+        } finally {
+            VaadinSession.setCurrent(null);
+        }
+    }
+
+    private static Object createUIScopedObject(UIScope uiScope, Provider<Object> scopedProvider) {
+        uiScope.startScopeInit(TestUI.class);
+
+        try {
+            final Object scopedObject = scopedProvider.get();
+
+            uiScope.flushInitialScopeSet(new TestUI());
+
+            return scopedObject;
+        } finally {
+            uiScope.endScopeInit();
+        }
+    }
+
+    static class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.guice.annotation.ViewCaching;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ViewCacheTest {
+
+    private final View viewA = new TestView();
+    private final View viewB = new TestView();
+    private final View viewC = new TestView();
+
+    @Test
+    public void lru_should_evict_least_recently_used_view() {
+        final ViewCachePolicy uiPolicy = ViewCachePolicy.forUI(LruUI.class);
+
+        ViewCache viewCache = new ViewCache(uiPolicy);
+
+        viewCache.put("a", viewA, uiPolicy, 0);
+        viewCache.put("b", viewB, uiPolicy, 0);
+
+        //a is now more recently used than b
+        assertSame(viewA, viewCache.get("a", 0));
+
+        viewCache.put("c", viewC, uiPolicy, 0);
+
+        assertEquals(singletonList(viewB), viewCache.evict(0, viewC));
+        assertNull(viewCache.get("b", 0));
+        assertSame(viewA, viewCache.get("a", 0));
+    }
+
+    @Test
+    public void current_view_should_never_be_evicted() {
+        final ViewCachePolicy uiPolicy = ViewCachePolicy.forUI(LruUI.class);
+
+        ViewCache viewCache = new ViewCache(uiPolicy);
+
+        viewCache.put("a", viewA, uiPolicy, 0);
+        viewCache.put("b", viewB, uiPolicy, 0);
+        viewCache.put("c", viewC, uiPolicy, 0);
+
+        assertEquals(singletonList(viewB), viewCache.evict(0, viewA));
+    }
+
+    @Test
+    public void idle_views_should_expire() {
+        final ViewCachePolicy viewPolicy = ViewCachePolicy.forView(IdleView.class, ViewCachePolicy.DEFAULT);
+
+        ViewCache viewCache = new ViewCache(ViewCachePolicy.DEFAULT);
+
+        viewCache.put("a", viewA, viewPolicy, 0);
+        viewCache.put("b", viewB, ViewCachePolicy.DEFAULT, 0);
+
+        final long oneMinute = TimeUnit.MINUTES.toNanos(1);
+
+        assertEquals(emptyList(), viewCache.evict(oneMinute, null));
+        assertEquals(singletonList(viewA), viewCache.evict(oneMinute + 1, null));
+        assertSame(viewB, viewCache.get("b", oneMinute + 1));
+    }
+
+    @Test
+    public void uncached_views_should_be_evicted_once_not_displayed() {
+        final ViewCachePolicy viewPolicy = ViewCachePolicy.forView(UncachedView.class, ViewCachePolicy.DEFAULT);
+
+        ViewCache viewCache = new ViewCache(ViewCachePolicy.DEFAULT);
+
+        viewCache.put("a", viewA, viewPolicy, 0);
+
+        assertNull(viewCache.get("a", 0));
+        assertEquals(emptyList(), viewCache.evict(0, viewA));
+        assertEquals(singletonList(viewA), viewCache.evict(0, viewB));
+    }
+
+    @Test
+    public void view_navigated_to_should_not_be_evicted() {
+        final ViewCachePolicy uiPolicy = ViewCachePolicy.forUI(LruUI.class);
+        final ViewCachePolicy viewPolicy = ViewCachePolicy.forView(UncachedView.class, ViewCachePolicy.DEFAULT);
+
+        ViewCache viewCache = new ViewCache(uiPolicy);
+
+        viewCache.put("a", viewA, uiPolicy, 0);
+        viewCache.put("b", viewB, uiPolicy, 0);
+        viewCache.put("c", viewC, viewPolicy, 0);
+
+        //a is still displayed while c is created
+        assertEquals(emptyList(), viewCache.evict(0, viewA, viewC));
+        assertEquals(emptyList(), viewCache.evict(0, viewC));
+        assertEquals(singletonList(viewC), viewCache.evict(0, viewA));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lru_should_not_be_allowed_on_views() {
+        ViewCachePolicy.forView(LruView.class, ViewCachePolicy.DEFAULT);
+    }
+
+    @GuiceUI
+    @ViewCaching(value = ViewCaching.Mode.LRU, maxSize = 2)
+    static class LruUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    static class TestView implements View {
+        @Override
+        public void enter(ViewChangeEvent event) {
+        }
+    }
+
+    @GuiceView("idle")
+    @ViewCaching(value = ViewCaching.Mode.IDLE, idleTimeout = 1, idleTimeoutUnit = TimeUnit.MINUTES)
+    static class IdleView extends TestView {
+    }
+
+    @GuiceView("uncached")
+    @ViewCaching(ViewCaching.Mode.NONE)
+    static class UncachedView extends TestView {
+    }
+
+    @GuiceView("lru")
+    @ViewCaching(ViewCaching.Mode.LRU)
+    static class LruView extends TestView {
+    }
+}
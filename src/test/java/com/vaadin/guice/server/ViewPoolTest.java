@@ -0,0 +1,153 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.pooled.PoolUI;
+import com.vaadin.guice.pooled.SearchPresenter;
+import com.vaadin.guice.pooled.SearchView;
+import com.vaadin.navigator.Navigator;
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ViewPoolTest {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<UI, View> currentViews = new HashMap<>();
+
+    private GuiceVaadinServlet servlet;
+    private GuiceViewProvider viewProvider;
+    private VaadinSession vaadinSession;
+
+    @Before
+    public void setup() {
+        SearchView.destroyed.clear();
+        SearchPresenter.destroyed.clear();
+
+        servlet = TestServlets.init(new Servlet());
+
+        viewProvider = servlet.getViewProvider();
+
+        vaadinSession = mock(VaadinSession.class);
+        when(vaadinSession.getLockInstance()).thenReturn(lock);
+        when(vaadinSession.hasLock()).thenAnswer(invocation -> lock.isHeldByCurrentThread());
+
+        //like a request-thread
+        lock.lock();
+
+        VaadinSession.setCurrent(vaadinSession);
+    }
+
+    @After
+    public void tearDown() {
+        lock.unlock();
+
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+    }
+
+    @Test
+    public void evicted_view_should_be_reset_and_reused_with_a_new_view_scope() {
+        final UI ui = newUI();
+
+        final SearchView searchView = (SearchView) navigateTo(ui, "search");
+        final SearchPresenter presenter = searchView.presenter;
+
+        navigateTo(ui, "");
+
+        //evicts the search-view into the pool and takes it from there again
+        final SearchView reusedView = (SearchView) navigateTo(ui, "search");
+
+        assertSame(searchView, reusedView);
+        assertEquals(1, reusedView.resets);
+        assertEquals(singletonList(presenter), SearchPresenter.destroyed);
+        assertNotNull(reusedView.presenter);
+        assertNotSame(presenter, reusedView.presenter);
+        assertEquals(emptyList(), SearchView.destroyed);
+    }
+
+    @Test
+    public void evicted_view_should_be_destroyed_if_the_pool_is_full() {
+        final UI ui1 = newUI();
+        final UI ui2 = newUI();
+
+        final SearchView searchView1 = (SearchView) navigateTo(ui1, "search");
+        final SearchView searchView2 = (SearchView) navigateTo(ui2, "search");
+
+        navigateTo(ui1, "");
+        navigateTo(ui2, "");
+
+        //evicting the views of both UIs, the pool only holds one of them
+        navigateTo(ui1, "");
+        navigateTo(ui2, "");
+
+        assertEquals(singletonList(searchView2), SearchView.destroyed);
+        assertEquals(1, searchView1.resets);
+        assertEquals(2, SearchPresenter.destroyed.size());
+    }
+
+    @Test
+    public void pooled_views_should_be_destroyed_with_their_session() {
+        final UI ui = newUI();
+
+        final SearchView searchView = (SearchView) navigateTo(ui, "search");
+
+        navigateTo(ui, "");
+        navigateTo(ui, "");
+
+        assertEquals(emptyList(), SearchView.destroyed);
+
+        servlet.destroyScopes(vaadinSession);
+
+        assertEquals(singletonList(searchView), SearchView.destroyed);
+    }
+
+    private UI newUI() {
+        final PoolUI ui = new PoolUI();
+
+        final Navigator navigator = mock(Navigator.class);
+        when(navigator.getCurrentView()).thenAnswer(invocation -> currentViews.get(ui));
+
+        ui.setNavigator(navigator);
+
+        servlet.getUiScope().startScopeInit(PoolUI.class);
+
+        try {
+            servlet.getUiScope().flushInitialScopeSet(ui);
+        } finally {
+            servlet.getUiScope().endScopeInit();
+        }
+
+        return ui;
+    }
+
+    private View navigateTo(UI ui, String viewName) {
+        UI.setCurrent(ui);
+
+        final View view = viewProvider.getView(viewName);
+
+        currentViews.put(ui, view);
+
+        return view;
+    }
+
+    @PackagesToScan("com.vaadin.guice.pooled")
+    static class Servlet extends GuiceVaadinServlet {
+    }
+}
@@ -0,0 +1,133 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.prefetch.NextView;
+import com.vaadin.guice.prefetch.PrefetchUI;
+import com.vaadin.navigator.View;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ViewPrefetchTest {
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private GuiceViewProvider viewProvider;
+    private VaadinSession vaadinSession;
+
+    @Before
+    public void setup() {
+        NextView.instances.clear();
+        NextView.constructionStarted = new CountDownLatch(1);
+        NextView.constructionReleased = new CountDownLatch(0);
+
+        final GuiceVaadinServlet servlet = TestServlets.init(new Servlet());
+
+        viewProvider = servlet.getViewProvider();
+
+        vaadinSession = mock(VaadinSession.class);
+        when(vaadinSession.getLockInstance()).thenReturn(lock);
+        when(vaadinSession.hasLock()).thenAnswer(invocation -> lock.isHeldByCurrentThread());
+
+        final PrefetchUI ui = new PrefetchUI();
+        ui.vaadinSession = vaadinSession;
+
+        //like a request-thread
+        lock.lock();
+
+        VaadinSession.setCurrent(vaadinSession);
+
+        servlet.getUiScope().startScopeInit(PrefetchUI.class);
+
+        try {
+            servlet.getUiScope().flushInitialScopeSet(ui);
+        } finally {
+            servlet.getUiScope().endScopeInit();
+        }
+
+        UI.setCurrent(ui);
+    }
+
+    @After
+    public void tearDown() {
+        if (lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+
+        UI.setCurrent(null);
+        VaadinSession.setCurrent(null);
+    }
+
+    @Test
+    public void prefetched_view_should_be_built_without_the_lock_and_handed_over_with_it() throws InterruptedException {
+        viewProvider.getView("");
+
+        //the hand-over needs the lock
+        lock.unlock();
+
+        awaitCachedViews(2);
+
+        lock.lock();
+
+        assertEquals(1, NextView.instances.size());
+
+        final NextView nextView = NextView.instances.get(0);
+
+        assertNotSame(Thread.currentThread(), nextView.constructingThread);
+        assertFalse(nextView.constructedWithLock);
+        assertSame(nextView, viewProvider.getView("next"));
+        assertEquals(1, NextView.instances.size());
+    }
+
+    @Test
+    public void navigation_should_take_over_a_view_that_is_being_prefetched() throws InterruptedException {
+        NextView.constructionReleased = new CountDownLatch(1);
+
+        viewProvider.getView("");
+
+        assertTrue(NextView.constructionStarted.await(10, TimeUnit.SECONDS));
+
+        NextView.constructionReleased.countDown();
+
+        //the lock is still held, so the prefetch cannot have handed the view over yet
+        final View nextView = viewProvider.getView("next");
+
+        assertEquals(1, NextView.instances.size());
+        assertSame(NextView.instances.get(0), nextView);
+
+        lock.unlock();
+
+        awaitCachedViews(2);
+
+        assertEquals(1, NextView.instances.size());
+    }
+
+    private void awaitCachedViews(int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+        while (viewProvider.getCachedViewCount(vaadinSession) < count) {
+            assertTrue("view was not prefetched", System.nanoTime() < deadline);
+
+            Thread.sleep(10);
+        }
+    }
+
+    @PackagesToScan("com.vaadin.guice.prefetch")
+    static class Servlet extends GuiceVaadinServlet {
+    }
+}
@@ -0,0 +1,82 @@
+package com.vaadin.guice.server;
+
+import com.google.common.collect.ImmutableSet;
+
+import com.vaadin.guice.annotation.GuiceUI;
+import com.vaadin.guice.annotation.PrefetchViews;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ViewPrefetcherTest {
+
+    private static final Set<String> VIEW_NAMES = ImmutableSet.of("", "orders", "customers", "dashboard");
+
+    @Test
+    public void most_frequent_successor_should_be_prefetched_first() {
+        final ViewPrefetcher prefetcher = ViewPrefetcher.forUI(LearningUI.class, VIEW_NAMES);
+
+        prefetcher.navigated(null, "orders");
+        prefetcher.navigated("orders", "customers");
+        prefetcher.navigated("customers", "orders");
+        prefetcher.navigated("orders", "dashboard");
+        prefetcher.navigated("dashboard", "orders");
+        prefetcher.navigated("orders", "customers");
+
+        //customers followed orders twice, dashboard once and is declared anyway
+        assertEquals(asList("customers", "dashboard"), new ArrayList<>(prefetcher.navigated("customers", "orders")));
+    }
+
+    @Test
+    public void declared_views_should_not_include_the_current_view() {
+        final ViewPrefetcher prefetcher = ViewPrefetcher.forUI(DeclaringUI.class, VIEW_NAMES);
+
+        assertEquals(singletonList("dashboard"), new ArrayList<>(prefetcher.navigated(null, "orders")));
+        assertTrue(prefetcher.navigated("orders", "dashboard").isEmpty());
+    }
+
+    @Test
+    public void uis_without_annotation_should_not_prefetch() {
+        assertNull(ViewPrefetcher.forUI(PlainUI.class, VIEW_NAMES));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknown_view_names_should_be_rejected() {
+        ViewPrefetcher.forUI(UnknownViewUI.class, VIEW_NAMES);
+    }
+
+    static abstract class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    @GuiceUI
+    @PrefetchViews(value = "Dashboard", learn = true, maxLearned = 1)
+    static class LearningUI extends TestUI {
+    }
+
+    @GuiceUI
+    @PrefetchViews("dashboard")
+    static class DeclaringUI extends TestUI {
+    }
+
+    @GuiceUI
+    static class PlainUI extends TestUI {
+    }
+
+    @GuiceUI
+    @PrefetchViews("unknown")
+    static class UnknownViewUI extends TestUI {
+    }
+}
@@ -0,0 +1,112 @@
+package com.vaadin.guice.server;
+
+import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import com.vaadin.guice.testClasses.ViewA;
+import com.vaadin.guice.testClasses.ViewB;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.ui.UI;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class ViewScopeConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Test
+    public void views_of_different_sessions_should_be_initialized_in_parallel() throws Exception {
+        final ViewScope viewScope = new ViewScope();
+
+        final Provider<Object> scopedProvider = viewScope.scope(Key.get(Object.class), Object::new);
+
+        final CyclicBarrier allThreadsInsideScopeInit = new CyclicBarrier(THREADS);
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executorService.submit(() -> {
+                    VaadinSession.setCurrent(mock(VaadinSession.class));
+                    UI.setCurrent(mock(UI.class));
+
+                    viewScope.startScopeInit(ViewA.class);
+
+                    try {
+                        //would time out if view-initialization was serialized
+                        allThreadsInsideScopeInit.await(10, SECONDS);
+
+                        final Object scopedObject = scopedProvider.get();
+
+                        assertSame(scopedObject, scopedProvider.get());
+
+                        viewScope.flushInitialScopeSet(new ViewA());
+
+                        return scopedObject;
+                    } finally {
+                        viewScope.endScopeInit();
+                    }
+                }));
+            }
+
+            Set<Object> scopedObjects = new HashSet<>();
+
+            for (Future<Object> future : futures) {
+                scopedObjects.add(future.get(10, SECONDS));
+            }
+
+            assertEquals(THREADS, scopedObjects.size());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void nested_view_initialization_should_not_share_scopes() {
+        final ViewScope viewScope = new ViewScope();
+
+        final Provider<Object> scopedProvider = viewScope.scope(Key.get(Object.class), Object::new);
+
+        VaadinSession.setCurrent(mock(VaadinSession.class));
+        UI.setCurrent(mock(UI.class));
+
+        try {
+            viewScope.startScopeInit(ViewA.class);
+
+            final Object outer = scopedProvider.get();
+
+            viewScope.startScopeInit(ViewB.class);
+
+            final Object inner = scopedProvider.get();
+
+            viewScope.flushInitialScopeSet(new ViewB());
+            viewScope.endScopeInit();
+
+            assertSame(outer, scopedProvider.get());
+            assertNotSame(outer, inner);
+
+            viewScope.flushInitialScopeSet(new ViewA());
+            viewScope.endScopeInit();
+        } finally {
+            UI.setCurrent(null);
+            VaadinSession.setCurrent(null);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.vaadin.guice.server;
+
+import com.vaadin.guice.annotation.PackagesToScan;
+import com.vaadin.guice.annotation.Warmup;
+import com.vaadin.server.VaadinSession;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WarmupTest {
+
+    @Test
+    public void synthetic_round_should_create_every_ui_without_failures() {
+        final GuiceVaadinServlet servlet = new WarmupServlet();
+
+        final Map<String, Integer> results = servlet.getMetrics().getWarmupResults();
+
+        assertEquals(servlet.getUiClasses().size(), (int) results.get("syntheticUIs"));
+        assertTrue(results.get("syntheticViews") > 0);
+        assertEquals(0, (int) results.get("failures"));
+    }
+
+    @Test
+    public void synthetic_round_should_leave_no_scoped_objects_behind() {
+        final GuiceVaadinServlet servlet = new WarmupServlet();
+
+        assertTrue(servlet.getVaadinSessionScoper().getAllScopedObjects().isEmpty());
+        assertTrue(servlet.getUiScope().getAllScopedObjects().isEmpty());
+        assertTrue(servlet.getViewScope().getAllScopedObjects().isEmpty());
+        assertNull(VaadinSession.getCurrent());
+    }
+
+    @Warmup(rounds = 1)
+    @PackagesToScan("com.vaadin.guice.testClasses")
+    static class WarmupServlet extends OverrideBindingsTest.TestServlet {
+    }
+}
@@ -0,0 +1,15 @@
+package com.vaadin.guice.shared;
+
+import com.google.inject.AbstractModule;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConfigurationCountingModule extends AbstractModule {
+
+    public static final AtomicInteger configurations = new AtomicInteger();
+
+    @Override
+    protected void configure() {
+        configurations.incrementAndGet();
+    }
+}
@@ -0,0 +1,6 @@
+package com.vaadin.guice.shared;
+
+import com.vaadin.ui.CustomComponent;
+
+public class OrderForm extends CustomComponent {
+}
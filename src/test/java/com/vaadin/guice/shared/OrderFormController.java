@@ -0,0 +1,7 @@
+package com.vaadin.guice.shared;
+
+import com.vaadin.guice.annotation.Controller;
+
+@Controller(OrderForm.class)
+public class OrderFormController {
+}
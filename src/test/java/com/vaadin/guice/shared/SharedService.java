@@ -0,0 +1,7 @@
+package com.vaadin.guice.shared;
+
+import com.google.inject.Singleton;
+
+@Singleton
+public class SharedService {
+}
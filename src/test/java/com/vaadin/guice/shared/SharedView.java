@@ -0,0 +1,12 @@
+package com.vaadin.guice.shared;
+
+import com.vaadin.guice.annotation.GuiceView;
+import com.vaadin.navigator.View;
+import com.vaadin.navigator.ViewChangeListener.ViewChangeEvent;
+
+@GuiceView("")
+public class SharedView implements View {
+    @Override
+    public void enter(ViewChangeEvent event) {
+    }
+}